@@ -1,39 +1,128 @@
 package app.cmesh.aws;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.services.ec2.Ec2Client;
+import software.amazon.awssdk.services.ec2.model.DescribeInstancesRequest;
+import software.amazon.awssdk.services.ec2.model.DescribeInstancesResponse;
 import software.amazon.awssdk.services.ec2.model.Instance;
 import software.amazon.awssdk.services.ec2.model.RunInstancesRequest;
 import software.amazon.awssdk.services.ec2.model.RunInstancesResponse;
 import software.amazon.awssdk.services.ec2.model.StartInstancesRequest;
 import software.amazon.awssdk.services.ec2.model.StopInstancesRequest;
+import software.amazon.awssdk.services.ec2.model.Tag;
 import software.amazon.awssdk.services.ec2.model.TerminateInstancesRequest;
 
 public class AwsEc2Service {
 
+    // Without MaxResults DescribeInstances returns everything in one response
+    private static final int PAGE_SIZE = 1000;
+
     private final StsService stsService;
+    private final ClientOverrideConfiguration overrideConfiguration;
+
     public AwsEc2Service(StsService stsService) {
+        this(stsService, null);
+    }
+
+    /**
+     * @param callTimeout upper bound on each API call including retries, or null for the SDK default
+     */
+    public AwsEc2Service(StsService stsService, Duration callTimeout) {
         this.stsService = stsService;
+        this.overrideConfiguration = callTimeout == null
+                ? ClientOverrideConfiguration.builder().build()
+                : ClientOverrideConfiguration.builder().apiCallTimeout(callTimeout).build();
     }
 
     private Ec2Client clientFor(ConnectedAwsAccount account) {
+        return clientFor(account, account.region());
+    }
+
+    private Ec2Client clientFor(ConnectedAwsAccount account, String region) {
         return Ec2Client.builder()
                 .credentialsProvider(stsService.credentialsFor(account))
-                .region(software.amazon.awssdk.regions.Region.of(account.region()))
+                .region(software.amazon.awssdk.regions.Region.of(region))
+                .overrideConfiguration(overrideConfiguration)
                 .build();
     }
 
-    public List<String> listInstanceIds(ConnectedAwsAccount account) {
+    /**
+     * Regions enabled for the account: those that need no opt-in plus the
+     * ones the account has opted into.
+     */
+    public List<String> listEnabledRegions(ConnectedAwsAccount account) {
         try(Ec2Client ec2 = clientFor(account)) {
-            return ec2.describeInstancesPaginator()
-                    .reservations()
+            return ec2.describeRegions()
+                    .regions()
                     .stream()
-                    .flatMap(reservation -> reservation.instances().stream())
-                    .map(Instance::instanceId)
+                    .map(software.amazon.awssdk.services.ec2.model.Region::regionName)
                     .toList();
         }
     }
 
+    public List<String> listInstanceIds(ConnectedAwsAccount account) {
+        List<String> instanceIds = new ArrayList<>();
+        forEachInstanceIdPage(account, account.region(), null, (page, nextToken) -> instanceIds.addAll(page));
+        return instanceIds;
+    }
+
+    /**
+     * Streams instance ids one DescribeInstances page at a time, starting
+     * at startToken (null for the first page).
+     * The consumer gets each page with the token of the page after it, null
+     * after the last one. The next page is only requested after the consumer returns.
+     */
+    public void forEachInstanceIdPage(ConnectedAwsAccount account, String region, String startToken,
+                                      BiConsumer<List<String>, String> pageConsumer) {
+        forEachInstancePage(account, region, startToken, (page, nextToken) -> pageConsumer.accept(
+                page.stream().map(Ec2InstanceSummary::instanceId).toList(), nextToken));
+    }
+
+    /**
+     * Streams instances one DescribeInstances page at a time, like
+     * {@link #forEachInstanceIdPage}, with state, type, placement, launch
+     * time and tags taken from the same response.
+     */
+    public void forEachInstancePage(ConnectedAwsAccount account, String region, String startToken,
+                                    BiConsumer<List<Ec2InstanceSummary>, String> pageConsumer) {
+        try(Ec2Client ec2 = clientFor(account, region)) {
+            String token = startToken;
+            do {
+                DescribeInstancesResponse page = ec2.describeInstances(DescribeInstancesRequest.builder()
+                        .maxResults(PAGE_SIZE)
+                        .nextToken(token)
+                        .build());
+                token = page.nextToken();
+                pageConsumer.accept(page.reservations()
+                        .stream()
+                        .flatMap(reservation -> reservation.instances().stream())
+                        .map(AwsEc2Service::toSummary)
+                        .toList(), token);
+            } while (token != null);
+        }
+    }
+
+    private static Ec2InstanceSummary toSummary(Instance instance) {
+        Map<String, String> tags = new HashMap<>();
+        for (Tag tag : instance.tags()) {
+            tags.put(tag.key(), tag.value() != null ? tag.value() : "");
+        }
+        return new Ec2InstanceSummary(
+                instance.instanceId(),
+                tags.get("Name"),
+                instance.state() != null ? instance.state().nameAsString() : null,
+                instance.instanceTypeAsString(),
+                instance.placement() != null ? instance.placement().availabilityZone() : null,
+                instance.launchTime(),
+                tags);
+    }
+
     public String createInstance(ConnectedAwsAccount account, String amiId, String instanceType, String keyname) {
         try(Ec2Client ec2 = clientFor(account)) {
             RunInstancesRequest request = RunInstancesRequest.builder()
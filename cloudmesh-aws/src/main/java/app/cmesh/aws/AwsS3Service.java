@@ -1,19 +1,36 @@
 package app.cmesh.aws;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.BiConsumer;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.Bucket;
 import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.ListBucketsRequest;
 import software.amazon.awssdk.services.s3.model.ListBucketsResponse;
 
 public class AwsS3Service {
 
+    private static final int PAGE_SIZE = 1000;
+
     private final StsService service;
+    private final ClientOverrideConfiguration overrideConfiguration;
 
     public AwsS3Service(StsService service) {
+        this(service, null);
+    }
+
+    /**
+     * @param callTimeout upper bound on each API call including retries, or null for the SDK default
+     */
+    public AwsS3Service(StsService service, Duration callTimeout) {
         this.service = service;
+        this.overrideConfiguration = callTimeout == null
+                ? ClientOverrideConfiguration.builder().build()
+                : ClientOverrideConfiguration.builder().apiCallTimeout(callTimeout).build();
     }
 
     private S3Client clientFor(ConnectedAwsAccount account) {
@@ -21,6 +38,7 @@ public class AwsS3Service {
         return S3Client.builder()
                 .credentialsProvider(creds)
                 .region(Region.of(account.region()))
+                .overrideConfiguration(overrideConfiguration)
                 .build();
     }
 
@@ -34,6 +52,29 @@ public class AwsS3Service {
         }
     }
 
+    /**
+     * Streams bucket names one ListBuckets page at a time, starting at
+     * startToken (null for the first page).
+     * The consumer gets each page with the token of the page after it, null after the last one.
+     */
+    public void forEachBucketNamePage(ConnectedAwsAccount account, String startToken,
+                                      BiConsumer<List<String>, String> pageConsumer) {
+        try(S3Client s3Client = clientFor(account)) {
+            String token = startToken;
+            do {
+                ListBucketsResponse page = s3Client.listBuckets(ListBucketsRequest.builder()
+                        .maxBuckets(PAGE_SIZE)
+                        .continuationToken(token)
+                        .build());
+                token = page.continuationToken();
+                pageConsumer.accept(page.buckets()
+                        .stream()
+                        .map(Bucket::name)
+                        .toList(), token);
+            } while (token != null);
+        }
+    }
+
     public void createBucket(ConnectedAwsAccount account, String bucketName) {
         try(S3Client s3 = clientFor(account)) {
             s3.createBucket(CreateBucketRequest.builder()
@@ -0,0 +1,20 @@
+package app.cmesh.aws;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * The fields of an EC2 instance inventory needs, as reported by DescribeInstances.
+ *
+ * @param state instance state name, e.g. running or stopped
+ * @param name  value of the Name tag, or null if the instance has none
+ */
+public record Ec2InstanceSummary(
+        String instanceId,
+        String name,
+        String state,
+        String instanceType,
+        String availabilityZone,
+        Instant launchTime,
+        Map<String, String> tags
+) { }
@@ -1,24 +1,48 @@
 package app.cmesh.azure;
 
 import com.azure.core.credential.TokenCredential;
+import com.azure.core.http.policy.TimeoutPolicy;
+import com.azure.core.http.rest.PagedIterable;
+import com.azure.core.http.rest.PagedResponse;
 import com.azure.core.management.AzureEnvironment;
 import com.azure.core.management.profile.AzureProfile;
 import com.azure.resourcemanager.AzureResourceManager;
+import com.azure.core.util.Context;
+import com.azure.resourcemanager.compute.fluent.models.VirtualMachineInner;
+import com.azure.resourcemanager.compute.fluent.models.VirtualMachineInstanceViewInner;
+import com.azure.resourcemanager.compute.models.InstanceViewStatus;
 import com.azure.resourcemanager.compute.models.VirtualMachine;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
 
 public class AzureComputeService {
     private final AzureCredentialsService creds;
+    private final Duration callTimeout;
 
     public AzureComputeService(AzureCredentialsService creds) {
+        this(creds, null);
+    }
+
+    /**
+     * @param callTimeout upper bound on each HTTP request, or null for the SDK default
+     */
+    public AzureComputeService(AzureCredentialsService creds, Duration callTimeout) {
         this.creds = creds;
+        this.callTimeout = callTimeout;
     }
 
     private AzureResourceManager clientFor(ConnectedAzureAccount account) {
         TokenCredential credential = creds.credentialFor(account);
         AzureProfile profile = new AzureProfile(account.tenantId(), account.subscriptionId(), AzureEnvironment.AZURE);
-        return AzureResourceManager
+        AzureResourceManager.Configurable configurable = AzureResourceManager.configure();
+        if (callTimeout != null) {
+            configurable = configurable.withPolicy(new TimeoutPolicy(callTimeout));
+        }
+        return configurable
                 .authenticate(credential, profile)
                 .withSubscription(account.subscriptionId());
     }
@@ -31,4 +55,75 @@ public class AzureComputeService {
         }
         return vmNames;
     }
+
+    public List<AzureVmSummary> listVms(ConnectedAzureAccount account) {
+        List<AzureVmSummary> vms = new ArrayList<>();
+        forEachVmPage(account, null, (page, nextToken) -> vms.addAll(page));
+        return vms;
+    }
+
+    /**
+     * Streams VM names one list page at a time, like {@link #forEachVmPage}.
+     */
+    public void forEachVmNamePage(ConnectedAzureAccount account, String startToken,
+                                  BiConsumer<List<String>, String> pageConsumer) {
+        forEachVmPage(account, startToken, (page, nextToken) -> pageConsumer.accept(
+                page.stream().map(AzureVmSummary::name).toList(), nextToken));
+    }
+
+    /**
+     * Streams VMs one list page at a time, starting at startToken (null for
+     * the first page), with region, size, states, creation time and tags
+     * taken from the same response.
+     * The subscription is listed with statusOnly=true, so every VM carries
+     * its instance view and power state without a call per VM.
+     * The consumer gets each page with the token of the page after it, null
+     * after the last one. The next page is only requested after the consumer returns.
+     */
+    public void forEachVmPage(ConnectedAzureAccount account, String startToken,
+                              BiConsumer<List<AzureVmSummary>, String> pageConsumer) {
+        AzureResourceManager arm = clientFor(account);
+        PagedIterable<VirtualMachineInner> vms = arm.virtualMachines().manager().serviceClient()
+                .getVirtualMachines()
+                .list("true", null, null, Context.NONE);
+        Iterable<PagedResponse<VirtualMachineInner>> pages = startToken == null
+                ? vms.iterableByPage()
+                : vms.iterableByPage(startToken);
+        for (PagedResponse<VirtualMachineInner> page : pages) {
+            List<AzureVmSummary> summaries = new ArrayList<>();
+            for (VirtualMachineInner vm : page.getValue()) {
+                summaries.add(toSummary(vm));
+            }
+            pageConsumer.accept(summaries, page.getContinuationToken());
+        }
+    }
+
+    /**
+     * Reads only what the list response holds.
+     */
+    private static AzureVmSummary toSummary(VirtualMachineInner vm) {
+        return new AzureVmSummary(
+                vm.id() != null ? vm.id().toLowerCase(Locale.ROOT) : null,
+                vm.name(),
+                vm.location(),
+                powerState(vm.instanceView()),
+                vm.provisioningState(),
+                vm.hardwareProfile() != null && vm.hardwareProfile().vmSize() != null
+                        ? vm.hardwareProfile().vmSize().toString()
+                        : null,
+                vm.timeCreated() != null ? vm.timeCreated().toInstant() : null,
+                vm.tags() != null ? new HashMap<>(vm.tags()) : new HashMap<>());
+    }
+
+    private static String powerState(VirtualMachineInstanceViewInner instanceView) {
+        if (instanceView == null || instanceView.statuses() == null) {
+            return null;
+        }
+        for (InstanceViewStatus status : instanceView.statuses()) {
+            if (status.code() != null && status.code().startsWith("PowerState/")) {
+                return status.code().substring("PowerState/".length());
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,24 @@
+package app.cmesh.azure;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * The fields of a virtual machine inventory needs, as reported by the
+ * subscription-wide VM list.
+ *
+ * @param id                ARM resource id, lower-cased as ARM ids are case-insensitive
+ * @param powerState        power state such as running or deallocated, or null if the
+ *                          listing carried no instance view
+ * @param provisioningState provisioning state, e.g. Succeeded or Deleting
+ */
+public record AzureVmSummary(
+        String id,
+        String name,
+        String region,
+        String powerState,
+        String provisioningState,
+        String vmSize,
+        Instant createdAt,
+        Map<String, String> tags
+) { }
@@ -11,6 +11,7 @@ import app.cmesh.docean.impl.ImageServiceImpl;
 import app.cmesh.docean.impl.RegionServiceImpl;
 import app.cmesh.docean.impl.SizeServiceImpl;
 import java.net.http.HttpClient;
+import java.time.Duration;
 
 public final class DigitalOceanClient {
 
@@ -27,9 +28,11 @@ public final class DigitalOceanClient {
 
         HttpExecutor httpExecutor = builder.httpExecutor;
         if(httpExecutor == null) {
-            HttpClient httpClient = HttpClient.newBuilder()
-                    .build();
-            httpExecutor = new DefaultHttpExecutor(config, httpClient);
+            HttpClient.Builder httpClientBuilder = HttpClient.newBuilder();
+            if (builder.timeout != null) {
+                httpClientBuilder.connectTimeout(builder.timeout);
+            }
+            httpExecutor = new DefaultHttpExecutor(config, httpClientBuilder.build(), builder.timeout);
         }
 
         this.dropletService = new DropletServiceImpl(httpExecutor);
@@ -54,6 +57,7 @@ public final class DigitalOceanClient {
         private String baseUrl = "https://api.digitalocean.com/v2";
         private String token;
         private HttpExecutor httpExecutor;
+        private Duration timeout;
 
         private Builder() {}
 
@@ -67,6 +71,14 @@ public final class DigitalOceanClient {
             return this;
         }
 
+        /**
+         * Upper bound on each API request made by the default executor.
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
         public Builder httpExecutor(HttpExecutor httpExecutor) {
             this.httpExecutor = httpExecutor;
             return this;
@@ -9,6 +9,7 @@ public interface DropletService {
     Droplet createDroplet(Droplet droplet);
     Optional<Droplet> getDroplet(long id);
     List<Droplet> list();
+    List<Droplet> list(int page, int perPage);
     void powerOn(long id);
     void powerOff(long id);
     void deleteDroplet(long id);
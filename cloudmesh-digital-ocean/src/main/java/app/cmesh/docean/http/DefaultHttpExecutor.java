@@ -9,6 +9,7 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
 import java.util.stream.Collectors;
 import tools.jackson.databind.ObjectMapper;
@@ -18,11 +19,20 @@ public class DefaultHttpExecutor implements HttpExecutor {
     private final DigitalOceanConfig config;
     private final HttpClient httpClient;
     private final ObjectMapper mapper;
+    private final Duration requestTimeout;
 
     public DefaultHttpExecutor(DigitalOceanConfig config, HttpClient httpClient) {
+        this(config, httpClient, null);
+    }
+
+    /**
+     * @param requestTimeout upper bound on each request, or null for no limit
+     */
+    public DefaultHttpExecutor(DigitalOceanConfig config, HttpClient httpClient, Duration requestTimeout) {
         this.config = config;
         this.httpClient = httpClient;
         this.mapper = new ObjectMapper();
+        this.requestTimeout = requestTimeout;
     }
 
     @Override
@@ -51,10 +61,14 @@ public class DefaultHttpExecutor implements HttpExecutor {
     }
 
     private HttpRequest.Builder baseRequest(URI uri) {
-        return HttpRequest.newBuilder()
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(uri)
                 .header("Authorization", "Bearer " + config.apiToken())
                 .header("Accept", "application/json");
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+        return builder;
     }
 
     private URI buildUri(String path, Map<String, String> queryParams) {
@@ -90,8 +104,11 @@ public class DefaultHttpExecutor implements HttpExecutor {
             } else {
                 throw DoApiException.from(status, body);
             }
-        } catch (IOException | InterruptedException e) {
+        } catch (IOException e) {
             throw new RuntimeException("HTTP call failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("HTTP call interrupted", e);
         }
     }
 }
@@ -35,6 +35,15 @@ public class DropletServiceImpl implements DropletService {
         return http.get("/droplets", Map.of(), DropletsResponse.class).droplets();
     }
 
+    @Override
+    public List<Droplet> list(int page, int perPage) {
+        Map<String, String> query = Map.of(
+                "page", String.valueOf(page),
+                "per_page", String.valueOf(perPage));
+        List<Droplet> droplets = http.get("/droplets", query, DropletsResponse.class).droplets();
+        return droplets != null ? droplets : List.of();
+    }
+
     @Override
     public void powerOn(long id) {
         http.post("/droplets/"+id+"/actions", Map.of("type", "power_on"),Void.class);
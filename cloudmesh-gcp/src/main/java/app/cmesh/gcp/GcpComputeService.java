@@ -2,38 +2,128 @@ package app.cmesh.gcp;
 
 import com.google.cloud.compute.v1.AggregatedListInstancesRequest;
 import com.google.cloud.compute.v1.Instance;
+import com.google.api.gax.retrying.RetrySettings;
 import com.google.cloud.compute.v1.InstancesClient;
+import com.google.cloud.compute.v1.InstancesSettings;
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.function.BiConsumer;
 
 public class GcpComputeService {
     private final GcpCredentialsService credsService;
+    private final Duration callTimeout;
 
     public GcpComputeService(GcpCredentialsService credsService) {
+        this(credsService, null);
+    }
+
+    /**
+     * @param callTimeout upper bound on each listing call including retries, or null for the SDK default
+     */
+    public GcpComputeService(GcpCredentialsService credsService, Duration callTimeout) {
         this.credsService = credsService;
+        this.callTimeout = callTimeout;
     }
 
     private InstancesClient client() throws IOException {
-        return InstancesClient.create();
+        if (callTimeout == null) {
+            return InstancesClient.create();
+        }
+        InstancesSettings.Builder settings = InstancesSettings.newBuilder();
+        RetrySettings retrySettings = settings.aggregatedListSettings().getRetrySettings().toBuilder()
+                .setInitialRpcTimeoutDuration(callTimeout)
+                .setMaxRpcTimeoutDuration(callTimeout)
+                .setTotalTimeoutDuration(callTimeout)
+                .build();
+        settings.aggregatedListSettings().setRetrySettings(retrySettings);
+        return InstancesClient.create(settings.build());
     }
 
     public List<String> listInstanceIds(ConnectedGcpAccount account) throws IOException {
+        List<String> names = new ArrayList<>();
+        forEachInstanceNamePage(account, null, (page, nextToken) -> names.addAll(page));
+        return names;
+    }
+
+    public List<GcpInstanceSummary> listInstances(ConnectedGcpAccount account) throws IOException {
+        List<GcpInstanceSummary> instances = new ArrayList<>();
+        forEachInstancePage(account, null, (page, nextToken) -> instances.addAll(page));
+        return instances;
+    }
+
+    /**
+     * Streams instance names one aggregatedList page at a time, like {@link #forEachInstancePage}.
+     */
+    public void forEachInstanceNamePage(ConnectedGcpAccount account, String startToken,
+                                        BiConsumer<List<String>, String> pageConsumer) throws IOException {
+        forEachInstancePage(account, startToken, (page, nextToken) -> pageConsumer.accept(
+                page.stream().map(GcpInstanceSummary::name).toList(), nextToken));
+    }
+
+    /**
+     * Streams instances one aggregatedList page at a time, starting at
+     * startToken (null for the first page), with zone, status, machine type,
+     * start time and labels taken from the same response.
+     * The consumer gets each page with the token of the page after it, null
+     * after the last one. The next page is only requested after the consumer returns.
+     */
+    public void forEachInstancePage(ConnectedGcpAccount account, String startToken,
+                                    BiConsumer<List<GcpInstanceSummary>, String> pageConsumer) throws IOException {
         try (InstancesClient client = client()) {
-            var request = AggregatedListInstancesRequest.newBuilder()
-                    .setProject(account.projectId())
-                    .build();
-
-            List<String> names = new ArrayList<>();
-            // iterateAll() automatically handles pagination
-            for (var entry : client.aggregatedList(request).iterateAll()) {
-                if (entry.getValue() != null && entry.getValue().getInstancesList() != null) {
-                    for (Instance instance : entry.getValue().getInstancesList()) {
-                        names.add(instance.getName());
+            var requestBuilder = AggregatedListInstancesRequest.newBuilder()
+                    .setProject(account.projectId());
+            if (startToken != null) {
+                requestBuilder.setPageToken(startToken);
+            }
+            var request = requestBuilder.build();
+
+            for (var page : client.aggregatedList(request).iteratePages()) {
+                List<GcpInstanceSummary> instances = new ArrayList<>();
+                for (var entry : page.getValues()) {
+                    if (entry.getValue() != null && entry.getValue().getInstancesList() != null) {
+                        for (Instance instance : entry.getValue().getInstancesList()) {
+                            instances.add(toSummary(instance));
+                        }
                     }
                 }
+                String nextToken = page.getNextPageToken();
+                pageConsumer.accept(instances, nextToken == null || nextToken.isEmpty() ? null : nextToken);
             }
-            return names;
         }
     }
+
+    private static GcpInstanceSummary toSummary(Instance instance) {
+        String startedAt = instance.hasLastStartTimestamp()
+                ? instance.getLastStartTimestamp()
+                : instance.getCreationTimestamp();
+        return new GcpInstanceSummary(
+                Long.toUnsignedString(instance.getId()),
+                instance.getName(),
+                lastSegment(instance.getZone()),
+                instance.getStatus(),
+                lastSegment(instance.getMachineType()),
+                parseTimestamp(startedAt),
+                new HashMap<>(instance.getLabelsMap()));
+    }
+
+    // Zones and machine types are reported as resource URLs; keep the name at the end
+    private static String lastSegment(String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+        return url.substring(url.lastIndexOf('/') + 1);
+    }
+
+    // RFC 3339 with an offset, e.g. 2026-10-17T02:30:00.123-07:00
+    private static Instant parseTimestamp(String timestamp) {
+        if (timestamp == null || timestamp.isEmpty()) {
+            return null;
+        }
+        return OffsetDateTime.parse(timestamp).toInstant();
+    }
 }
@@ -0,0 +1,34 @@
+package app.cmesh.gcp;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * The fields of a Compute Engine instance inventory needs, as reported by aggregatedList.
+ *
+ * @param id          numeric instance id; names are only unique within a zone
+ * @param zone        zone name, e.g. us-central1-a
+ * @param status      instance status, e.g. RUNNING or TERMINATED
+ * @param machineType machine type name, e.g. e2-medium
+ * @param startedAt   last start, or creation if the instance never started
+ */
+public record GcpInstanceSummary(
+        String id,
+        String name,
+        String zone,
+        String status,
+        String machineType,
+        Instant startedAt,
+        Map<String, String> labels
+) {
+    /**
+     * Region of the zone, e.g. us-central1 for us-central1-a.
+     */
+    public String region() {
+        if (zone == null) {
+            return null;
+        }
+        int separator = zone.lastIndexOf('-');
+        return separator > 0 ? zone.substring(0, separator) : zone;
+    }
+}
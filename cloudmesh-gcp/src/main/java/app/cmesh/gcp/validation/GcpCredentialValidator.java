@@ -1,8 +1,13 @@
 package app.cmesh.gcp.validation;
 
 import app.cmesh.gcp.enums.CloudProvider;
+import com.google.api.gax.core.FixedCredentialsProvider;
+import com.google.api.gax.rpc.ApiException;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.auth.oauth2.ServiceAccountCredentials;
+import com.google.cloud.compute.v1.AggregatedListInstancesRequest;
+import com.google.cloud.compute.v1.InstancesClient;
+import com.google.cloud.compute.v1.InstancesSettings;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageOptions;
 import lombok.extern.slf4j.Slf4j;
@@ -72,11 +77,6 @@ public class GcpCredentialValidator implements CloudCredentialValidator {
                 .getService();
             try {
                 storage.list(Storage.BucketListOption.pageSize(1));
-                log.info("Successfully validated GCP credentials for project: {}", projectId);
-                return ValidationResult.success(
-                    "GCP credentials validated successfully",
-                    "Successfully authenticated with Google Cloud Storage. Project: " + projectId
-                );
             } catch (com.google.cloud.storage.StorageException e) {
                 log.warn("GCP Storage API test failed: {}", e.getMessage());
                 if (e.getCode() == 403) {
@@ -93,6 +93,16 @@ public class GcpCredentialValidator implements CloudCredentialValidator {
                         "GCP Storage API call failed with code " + e.getCode());
                 }
             }
+            // Sync lists instances too, so storage access alone doesn't make a usable credential
+            ValidationResult computeResult = validateCompute(projectId, credentials);
+            if (!computeResult.valid()) {
+                return computeResult;
+            }
+            log.info("Successfully validated GCP credentials for project: {}", projectId);
+            return ValidationResult.success(
+                "GCP credentials validated successfully",
+                "Successfully listed Cloud Storage buckets and Compute Engine instances. Project: " + projectId
+            );
         } catch (java.io.IOException e) {
             log.error("Failed to create GCP credentials from JSON", e);
             return ValidationResult.failure("Invalid credentials",
@@ -103,4 +113,29 @@ public class GcpCredentialValidator implements CloudCredentialValidator {
                 "Unexpected error: " + e.getMessage());
         }
     }
+
+    private ValidationResult validateCompute(String projectId, GoogleCredentials credentials) throws java.io.IOException {
+        InstancesSettings settings = InstancesSettings.newBuilder()
+            .setCredentialsProvider(FixedCredentialsProvider.create(credentials))
+            .build();
+        try (InstancesClient instances = InstancesClient.create(settings)) {
+            instances.aggregatedList(AggregatedListInstancesRequest.newBuilder()
+                .setProject(projectId)
+                .setMaxResults(1)
+                .build()).getPage();
+            return ValidationResult.success("GCP Compute access validated");
+        } catch (ApiException e) {
+            log.warn("GCP Compute API test failed: {}", e.getMessage());
+            return switch (e.getStatusCode().getCode()) {
+                case PERMISSION_DENIED -> ValidationResult.failure("Insufficient permissions",
+                    "Service account authenticated but lacks Compute Engine permissions (compute.instances.list)");
+                case NOT_FOUND -> ValidationResult.failure("Project not found",
+                    "Project '" + projectId + "' does not exist or is not accessible");
+                case UNAUTHENTICATED -> ValidationResult.failure("Authentication failed",
+                    "Service account credentials are invalid or expired");
+                default -> ValidationResult.failure("API call failed",
+                    "GCP Compute API call failed with code " + e.getStatusCode().getCode());
+            };
+        }
+    }
 }
@@ -47,6 +47,8 @@ public class SecurityConfig {
                 .formLogin(formLogin -> formLogin.disable())
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/", "/auth/**", "/signup", "/error", "/actuator/health", "/oauth2/**", "/login/oauth2/**").permitAll()
+                        // Provider change events authenticate with their own token, see ResourceEventController
+                        .requestMatchers("/events/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .oauth2Login(oauth2 -> oauth2.successHandler(oAuth2SuccessHandler))
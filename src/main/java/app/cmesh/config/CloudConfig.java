@@ -9,6 +9,7 @@ import app.cmesh.azure.AzureComputeService;
 import app.cmesh.azure.AzureCredentialsService;
 import app.cmesh.cloud.AwsProperties;
 import app.cmesh.cloud.DigitalOceanProperties;
+import app.cmesh.dashboard.enums.CloudProvider;
 import app.cmesh.docean.DigitalOceanClient;
 import app.cmesh.docean.DigitalOceanConfig;
 import app.cmesh.docean.http.DefaultHttpExecutor;
@@ -16,6 +17,7 @@ import app.cmesh.docean.http.HttpExecutor;
 import app.cmesh.gcp.GcpComputeService;
 import app.cmesh.gcp.GcpCredentialsService;
 import app.cmesh.gcp.GcpStorageService;
+import app.cmesh.sync.SyncProperties;
 import java.net.http.HttpClient;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -41,13 +43,13 @@ public class CloudConfig {
     }
 
     @Bean
-    public AwsS3Service awsS3Service(StsService stsService) {
-        return new AwsS3Service(stsService);
+    public AwsS3Service awsS3Service(StsService stsService, SyncProperties syncProperties) {
+        return new AwsS3Service(stsService, syncProperties.callTimeoutFor(CloudProvider.AWS));
     }
 
     @Bean
-    public AwsEc2Service awsEc2Service(StsService stsService) {
-        return new AwsEc2Service(stsService);
+    public AwsEc2Service awsEc2Service(StsService stsService, SyncProperties syncProperties) {
+        return new AwsEc2Service(stsService, syncProperties.callTimeoutFor(CloudProvider.AWS));
     }
 
     // == Azure Beans ==
@@ -58,7 +60,9 @@ public class CloudConfig {
     public AzureBlobService azureBlobService(AzureCredentialsService creds) { return new AzureBlobService(creds); }
 
     @Bean
-    public AzureComputeService azureComputeService(AzureCredentialsService creds) { return new AzureComputeService(creds); }
+    public AzureComputeService azureComputeService(AzureCredentialsService creds, SyncProperties syncProperties) {
+        return new AzureComputeService(creds, syncProperties.callTimeoutFor(CloudProvider.AZURE));
+    }
 
     // == DigitalOcean Beans ==
     @Bean
@@ -85,7 +89,9 @@ public class CloudConfig {
     public GcpCredentialsService gcpCredentialsService() { return  new GcpCredentialsService(); }
 
     @Bean
-    public GcpComputeService gcpComputeService(GcpCredentialsService creds) { return new GcpComputeService(creds); }
+    public GcpComputeService gcpComputeService(GcpCredentialsService creds, SyncProperties syncProperties) {
+        return new GcpComputeService(creds, syncProperties.callTimeoutFor(CloudProvider.GCP));
+    }
 
     @Bean
     public GcpStorageService gcpStorageService(GcpCredentialsService creds) { return new GcpStorageService(creds); }
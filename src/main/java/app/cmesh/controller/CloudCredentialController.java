@@ -9,17 +9,23 @@ import app.cmesh.credentials.dto.DigitalOceanCredentialInput;
 import app.cmesh.credentials.dto.GcpCredentialInput;
 import app.cmesh.credentials.dto.ValidationResultDTO;
 import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.sync.ResourceSyncService;
+import app.cmesh.sync.SyncProperties;
+import app.cmesh.sync.dto.SyncResultDTO;
+import app.cmesh.sync.dto.SyncRunDTO;
 import app.cmesh.user.User;
 import app.cmesh.user.UserRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +42,8 @@ public class CloudCredentialController {
     private final CloudCredentialService credentialService;
     private final UserRepository userRepository;
     private final app.cmesh.security.AuditService auditService;
+    private final ResourceSyncService resourceSyncService;
+    private final SyncProperties syncProperties;
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
@@ -247,6 +255,101 @@ public class CloudCredentialController {
         }
     }
 
+    /**
+     * Sync one credential now. Concurrent requests for the same credential
+     * share a single run. Answers 202 with IN_PROGRESS if the run is on
+     * another node or outlasts cloudmesh.sync.on-demand-wait.
+     */
+    @PostMapping("/{id}/sync")
+    @PreAuthorize("isAuthenticated()")
+    public DeferredResult<ResponseEntity<SyncResultDTO>> syncCredential(
+            @PathVariable String id,
+            Authentication authentication) {
+
+        UUID userId = getUserId(authentication);
+        UUID credentialId = parseUUID(id, "credential ID");
+
+        log.info("Mutation: syncCredential requested for credential {} by user {}",
+                credentialId, userId);
+
+        DeferredResult<ResponseEntity<SyncResultDTO>> response = new DeferredResult<>(
+                syncProperties.getOnDemandWait().toMillis(),
+                ResponseEntity.accepted().body(SyncResultDTO.inProgress(credentialId)));
+
+        if (credentialService.getCredential(credentialId, userId).isEmpty()) {
+            log.warn("Credential {} not found or access denied for user {}", credentialId, userId);
+            response.setResult(ResponseEntity.notFound().build());
+            return response;
+        }
+
+        try {
+            resourceSyncService.syncNow(credentialId).thenAccept(result -> response.setResult(
+                    switch (result.status()) {
+                        case "SUCCESS" -> ResponseEntity.ok(result);
+                        case "IN_PROGRESS" -> ResponseEntity.accepted().body(result);
+                        default -> ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(result);
+                    }));
+        } catch (IllegalArgumentException e) {
+            log.error("Failed to sync credential {} for user {}: {}",
+                    credentialId, userId, e.getMessage());
+            response.setResult(ResponseEntity.badRequest().build());
+        }
+        return response;
+    }
+
+    /**
+     * Recent sync runs of a credential, newest first, with time per stage
+     * (auth, list, map, write, rules) and page, item and throttle counts.
+     */
+    @GetMapping("/{id}/sync-runs")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<SyncRunDTO>> syncRuns(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+
+        UUID userId = getUserId(authentication);
+        UUID credentialId = parseUUID(id, "credential ID");
+
+        if (credentialService.getCredential(credentialId, userId).isEmpty()) {
+            log.warn("Credential {} not found or access denied for user {}", credentialId, userId);
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            return ResponseEntity.ok(resourceSyncService.runHistory(credentialId, limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected sync runs request for credential {}: {}", credentialId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Issue the token provider event senders use for this credential, e.g. as
+     * the API key of an EventBridge connection. Replaces any earlier token;
+     * the token is only shown in this response.
+     */
+    @PostMapping("/{id}/event-token")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, String>> issueEventToken(
+            @PathVariable String id,
+            Authentication authentication) {
+
+        UUID userId = getUserId(authentication);
+        UUID credentialId = parseUUID(id, "credential ID");
+
+        log.info("Mutation: issueEventToken requested for credential {} by user {}",
+                credentialId, userId);
+
+        try {
+            String token = credentialService.issueEventToken(credentialId, userId);
+            return ResponseEntity.ok(Map.of("token", token));
+        } catch (IllegalArgumentException e) {
+            log.warn("Credential {} not found or access denied for user {}", credentialId, userId);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Void> deleteCredential(
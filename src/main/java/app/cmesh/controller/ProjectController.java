@@ -7,7 +7,10 @@ import app.cmesh.dashboard.repository.ProjectRepository;
 import app.cmesh.dashboard.repository.ResourceRepository;
 import app.cmesh.project.ResourceAssignmentRule;
 import app.cmesh.project.ResourceAssignmentService;
+import app.cmesh.project.TagPredicate;
+import app.cmesh.project.dto.BulkAssignmentResult;
 import app.cmesh.project.dto.ProjectSummary;
+import app.cmesh.project.dto.RulePreview;
 import app.cmesh.project.repository.ResourceAssignmentRuleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,8 +19,10 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -27,6 +32,9 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProjectController {
 
+    private static final int MAX_PREVIEW_PAGE_SIZE = 500;
+    private static final int MAX_BULK_RESOURCES = 10_000;
+
     private final ProjectRepository projectRepository;
     private final ResourceRepository resourceRepository;
     private final ResourceAssignmentRuleRepository ruleRepository;
@@ -116,32 +124,146 @@ public class ProjectController {
         return assignmentService.removeManualAssignment(resourceId);
     }
 
-    public record CreateRuleRequest(Map<String, String> tagConditions, Integer priority, String description) {
+    /**
+     * Resources to act on in bulk: the listed ids plus, if fromProjectId is
+     * set, every resource currently in that project. An unknown
+     * fromProjectId is answered with 404.
+     */
+    public record BulkAssignmentRequest(List<UUID> resourceIds, UUID fromProjectId) {
+    }
+
+    /**
+     * Manually assign many resources to a project in one batched update.
+     */
+    @PostMapping("/{projectId}/assign")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<BulkAssignmentResult> assignResourcesToProject(
+            @PathVariable UUID projectId,
+            @RequestBody BulkAssignmentRequest request) {
+        Set<UUID> resourceIds = new LinkedHashSet<>();
+        ResponseEntity<BulkAssignmentResult> rejected = collectBulkResourceIds(request, resourceIds);
+        if (rejected != null) {
+            return rejected;
+        }
+
+        try {
+            return ResponseEntity.ok(assignmentService.manuallyAssignAll(projectId, resourceIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Remove manual assignment from many resources in one batched update.
+     */
+    @PostMapping("/resources/unassign")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<BulkAssignmentResult> unassignResources(@RequestBody BulkAssignmentRequest request) {
+        Set<UUID> resourceIds = new LinkedHashSet<>();
+        ResponseEntity<BulkAssignmentResult> rejected = collectBulkResourceIds(request, resourceIds);
+        if (rejected != null) {
+            return rejected;
+        }
+
+        return ResponseEntity.ok(assignmentService.removeManualAssignments(resourceIds));
+    }
+
+    /**
+     * Adds the distinct resource ids of the request to resourceIds, in request order.
+     * A project too large for MAX_BULK_RESOURCES is counted, not loaded.
+     *
+     * @return null if the request is valid; otherwise 404 for an unknown
+     * fromProjectId, or 400 if it names no resources or too many
+     */
+    private ResponseEntity<BulkAssignmentResult> collectBulkResourceIds(BulkAssignmentRequest request,
+                                                                        Set<UUID> resourceIds) {
+        if (request.resourceIds() != null) {
+            for (UUID resourceId : request.resourceIds()) {
+                if (resourceId == null) {
+                    return ResponseEntity.badRequest().build();
+                }
+                resourceIds.add(resourceId);
+            }
+        }
+        if (request.fromProjectId() != null) {
+            if (!projectRepository.existsById(request.fromProjectId())) {
+                return ResponseEntity.notFound().build();
+            }
+            if (resourceRepository.countByProject_ProjectId(request.fromProjectId()) > MAX_BULK_RESOURCES) {
+                return ResponseEntity.badRequest().build();
+            }
+            resourceIds.addAll(resourceRepository.findIdsByProject(request.fromProjectId()));
+        } else if (request.resourceIds() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return resourceIds.size() <= MAX_BULK_RESOURCES ? null : ResponseEntity.badRequest().build();
+    }
+
+    public record CreateRuleRequest(Map<String, String> tagConditions, List<TagPredicate> tagPredicates,
+                                    Integer priority, String description) {
     }
 
     /**
-     * Create a new assignment rule.
+     * Create a new assignment rule. Malformed tag predicates are rejected with 400.
      */
     @PostMapping("/{projectId}/rules")
     @PreAuthorize("isAuthenticated()")
-    public ResourceAssignmentRule createAssignmentRule(
+    public ResponseEntity<ResourceAssignmentRule> createAssignmentRule(
             @PathVariable UUID projectId,
             @RequestBody CreateRuleRequest request) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Project not found"));
+        if (!projectRepository.existsById(projectId)) {
+            throw new RuntimeException("Project not found");
+        }
 
-        ResourceAssignmentRule rule = new ResourceAssignmentRule();
-        rule.setProject(project);
-        rule.setTagConditions(request.tagConditions());
-        rule.setPriority(request.priority() != null ? request.priority() : 0);
-        rule.setDescription(request.description());
-        rule.setEnabled(true);
+        ResourceAssignmentRule saved;
+        try {
+            saved = assignmentService.createRule(
+                    projectId,
+                    request.tagConditions(),
+                    request.tagPredicates(),
+                    request.priority(),
+                    request.description());
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected assignment rule for project {}: {}", projectId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
 
-        ResourceAssignmentRule saved = ruleRepository.save(rule);
+        log.info("Created assignment rule {} for project {}", saved.getRuleId(), projectId);
 
-        log.info("Created assignment rule {} for project {}", saved.getRuleId(), project.getProjectName());
+        return ResponseEntity.ok(saved);
+    }
 
-        return saved;
+    /**
+     * Dry run of a new assignment rule: how many resources it would claim,
+     * take from other projects or lose to higher priority rules, with a page
+     * of the resources that would move. Nothing is written.
+     */
+    @PostMapping("/{projectId}/rules/preview")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<RulePreview> previewAssignmentRule(
+            @PathVariable UUID projectId,
+            @RequestBody CreateRuleRequest request,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > MAX_PREVIEW_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!projectRepository.existsById(projectId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            return ResponseEntity.ok(assignmentService.previewRule(
+                    projectId,
+                    request.tagConditions(),
+                    request.tagPredicates(),
+                    request.priority(),
+                    page,
+                    size));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected assignment rule preview for project {}: {}", projectId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -154,12 +276,36 @@ public class ProjectController {
             return ResponseEntity.notFound().build();
         }
 
-        ruleRepository.deleteById(ruleId);
+        assignmentService.deleteRule(ruleId);
         log.info("Deleted assignment rule {}", ruleId);
 
         return ResponseEntity.ok().build();
     }
 
+    public record UpdateRulePriorityRequest(Integer priority) {
+    }
+
+    /**
+     * Change the priority of an assignment rule.
+     */
+    @PutMapping("/rules/{ruleId}/priority")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ResourceAssignmentRule> updateAssignmentRulePriority(
+            @PathVariable UUID ruleId,
+            @RequestBody UpdateRulePriorityRequest request) {
+        if (request.priority() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!ruleRepository.existsById(ruleId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ResourceAssignmentRule updated = assignmentService.updateRulePriority(ruleId, request.priority());
+        log.info("Updated priority of assignment rule {} to {}", ruleId, request.priority());
+
+        return ResponseEntity.ok(updated);
+    }
+
     /**
      * Trigger manual application of assignment rules.
      */
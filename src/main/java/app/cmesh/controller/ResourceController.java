@@ -0,0 +1,75 @@
+package app.cmesh.controller;
+
+import app.cmesh.dashboard.dto.ResourceChangePage;
+import app.cmesh.sync.ResourceChangeService;
+import app.cmesh.user.User;
+import app.cmesh.user.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/resources")
+@RequiredArgsConstructor
+public class ResourceController {
+
+    private final ResourceChangeService changeService;
+    private final UserRepository userRepository;
+
+    /**
+     * Changes to the caller's resources since the cursor, oldest first.
+     * Consumers keep the returned next cursor and poll with it, processing
+     * deltas instead of re-reading the inventory.
+     */
+    @GetMapping("/changes")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ResourceChangePage> resourceChanges(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "500") int limit,
+            Authentication authentication) {
+
+        UUID userId = getUserId(authentication);
+        try {
+            return ResponseEntity.ok(changeService.changes(userId, after, limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected resource changes request from user {}: {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private UUID getUserId(Authentication authentication) {
+        if (authentication == null) {
+            throw new IllegalStateException("Authentication required");
+        }
+
+        Object principal = authentication.getPrincipal();
+
+        if (principal instanceof UserDetails userDetails) {
+            String username = userDetails.getUsername();
+            User user = userRepository.findUsersByUsername(username);
+            if (user == null) {
+                throw new IllegalStateException("User not found: " + username);
+            }
+            return user.getUserId();
+
+        } else if (principal instanceof OAuth2User oauthUser) {
+            String email = oauthUser.getAttribute("email");
+            Optional<User> userOptional = userRepository.findUsersByEmail(email);
+            if (userOptional.isEmpty()) {
+                throw new IllegalStateException("User not found: " + email);
+            }
+            return userOptional.get().getUserId();
+        }
+
+        throw new IllegalStateException("Unknown principal type: " + principal.getClass().getName());
+    }
+}
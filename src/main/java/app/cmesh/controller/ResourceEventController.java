@@ -0,0 +1,71 @@
+package app.cmesh.controller;
+
+import app.cmesh.sync.ResourceChangeEvent;
+import app.cmesh.sync.ResourceEventOutcome;
+import app.cmesh.sync.ResourceEventService;
+import app.cmesh.sync.dto.AwsStateChangeEvent;
+import app.cmesh.sync.dto.DigitalOceanActionEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ingestion endpoints for provider change events, e.g. an EventBridge API
+ * destination forwarding EC2 state changes, or a relay of DigitalOcean
+ * droplet actions. The credential the events belong to is part of the path.
+ * Senders authenticate with that credential's event token (issued through
+ * POST /api/credentials/{id}/event-token) rather than a user session.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+public class ResourceEventController {
+
+    static final String TOKEN_HEADER = "X-Cloudmesh-Event-Token";
+
+    private final ResourceEventService eventService;
+
+    @PostMapping("/aws/{credentialId}")
+    public ResponseEntity<Map<String, String>> awsEvent(
+            @PathVariable UUID credentialId,
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @RequestBody AwsStateChangeEvent event) {
+        return ingest(credentialId, token, ResourceChangeEvent.of(credentialId, event));
+    }
+
+    @PostMapping("/digitalocean/{credentialId}")
+    public ResponseEntity<Map<String, String>> digitalOceanEvent(
+            @PathVariable UUID credentialId,
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @RequestBody DigitalOceanActionEvent event) {
+        return ingest(credentialId, token, ResourceChangeEvent.of(credentialId, event));
+    }
+
+    /**
+     * @param event the normalised event, or null if the payload is not a tracked change
+     */
+    private ResponseEntity<Map<String, String>> ingest(UUID credentialId, String token, ResourceChangeEvent event) {
+        if (!eventService.authenticate(credentialId, token)) {
+            log.warn("Rejected provider event for credential {} with an invalid token", credentialId);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (event == null) {
+            return ResponseEntity.ok(Map.of("outcome", ResourceEventOutcome.IGNORED.name()));
+        }
+
+        try {
+            ResourceEventOutcome outcome = eventService.apply(event);
+            return ResponseEntity.status(outcome == ResourceEventOutcome.REJECTED ? HttpStatus.FORBIDDEN : HttpStatus.OK)
+                    .body(Map.of("outcome", outcome.name()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected provider event {}: {}", event.eventId(), e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
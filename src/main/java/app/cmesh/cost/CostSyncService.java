@@ -5,13 +5,19 @@ import app.cmesh.aws.ConnectedAwsAccount;
 import app.cmesh.aws.StsService;
 import app.cmesh.cost.repository.CostRepository;
 import app.cmesh.dashboard.CloudCredentials;
+import app.cmesh.dashboard.enums.CloudProvider;
 import app.cmesh.dashboard.repository.CloudCredentialsRepository;
+import app.cmesh.sync.SyncTask;
+import app.cmesh.sync.SyncTaskQueue;
+import app.cmesh.sync.SyncTaskType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,45 +32,62 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class CostSyncService {
 
+    // Small batches so replicas starting at the same moment interleave
+    private static final int CLAIM_BATCH_SIZE = 5;
+
+    // Slightly under a day so a task released at 02:00:30 is due again at the next 02:00 tick
+    private static final Duration NEXT_RUN_DELAY = Duration.ofHours(23);
+
     private final CloudCredentialsRepository credentialsRepository;
     private final CostRepository costRepository;
     private final StsService stsService;
     private final app.cmesh.observability.MetricsService metricsService;
+    private final SyncTaskQueue taskQueue;
 
     /**
      * Scheduled cost sync - runs daily at 2 AM.
      * Fetches last 30 days of cost data.
+     * Every replica fires at the same time; credentials are split between them
+     * through the shared sync task queue so each one is synced once.
      */
     @Scheduled(cron = "0 0 2 * * *")
     public void syncAllCosts() {
-        log.info("[CostSync] Starting daily cost sync");
+        log.info("[CostSync] Starting daily cost sync on node {}", taskQueue.nodeId());
         long startTime = System.currentTimeMillis();
 
-        List<CloudCredentials> awsCredentials = credentialsRepository
-                .findByProviderAndStatus(
-                        app.cmesh.dashboard.enums.CloudProvider.AWS,
-                        CloudCredentials.CredentialStatus.ACTIVE);
-
-        log.info("[CostSync] Found {} AWS credentials to sync", awsCredentials.size());
+        taskQueue.enqueueMissing(SyncTaskType.COST, List.of(CloudProvider.AWS));
 
         int successCount = 0;
         int failureCount = 0;
 
-        for (CloudCredentials credential : awsCredentials) {
-            long credentialStartTime = System.currentTimeMillis();
-
-            try {
-                syncAwsCosts(credential);
-                successCount++;
-                metricsService.recordCostSyncSuccess();
-            } catch (Exception e) {
-                failureCount++;
-                metricsService.recordCostSyncFailure();
-                log.error("[CostSync] Failed to sync costs for credential {}: {}",
-                        credential.getFriendlyName(), e.getMessage(), e);
-            } finally {
-                long credentialDuration = System.currentTimeMillis() - credentialStartTime;
-                metricsService.recordCostSyncDuration(credentialDuration);
+        List<SyncTask> claimed;
+        while (!(claimed = taskQueue.claim(SyncTaskType.COST, CLAIM_BATCH_SIZE)).isEmpty()) {
+            for (SyncTask task : claimed) {
+                try {
+                    CloudCredentials credential = credentialsRepository.findById(task.getCredentialId())
+                            .filter(c -> c.getStatus() == CloudCredentials.CredentialStatus.ACTIVE)
+                            .orElse(null);
+                    if (credential == null) {
+                        continue;
+                    }
+
+                    long credentialStartTime = System.currentTimeMillis();
+                    try {
+                        syncAwsCosts(credential);
+                        successCount++;
+                        metricsService.recordCostSyncSuccess();
+                    } catch (Exception e) {
+                        failureCount++;
+                        metricsService.recordCostSyncFailure();
+                        log.error("[CostSync] Failed to sync costs for credential {}: {}",
+                                credential.getFriendlyName(), e.getMessage(), e);
+                    } finally {
+                        long credentialDuration = System.currentTimeMillis() - credentialStartTime;
+                        metricsService.recordCostSyncDuration(credentialDuration);
+                    }
+                } finally {
+                    taskQueue.release(task, Instant.now().plus(NEXT_RUN_DELAY));
+                }
             }
         }
 
@@ -0,0 +1,69 @@
+package app.cmesh.credentials;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Identity of the cloud account a credential resolves to, and of the
+ * principal it signs in as there.
+ * Credentials with the same key list the same inventory with the same
+ * permissions, so it is synced once per key rather than once per credential.
+ */
+public final class CloudAccountKey {
+
+    private CloudAccountKey() {
+    }
+
+    /**
+     * Key for a plaintext provider config:
+     * AWS role ARN plus external id, GCP project id plus service account key,
+     * Azure subscription id plus tenant and client id, or the DigitalOcean
+     * API token. Everything but the account part is hashed, so no secret
+     * leaves the config.
+     *
+     * @return the key, or null if the config doesn't identify an account
+     */
+    public static String of(CloudProvider provider, Map<String, String> config) {
+        String account = switch (provider) {
+            case AWS -> config.get("roleArn");
+            case GCP -> config.get("projectId");
+            case AZURE -> lowerCase(config.get("subscriptionId")); // GUIDs compare case-insensitively
+            case DIGITALOCEAN -> sha256(config.get("apiToken"));
+        };
+        if (account == null || account.isBlank()) {
+            return null;
+        }
+        String principal = switch (provider) {
+            case AWS -> sha256(config.get("externalId"));
+            case GCP -> sha256(config.get("serviceAccountJson"));
+            case AZURE -> config.get("clientId") != null
+                    ? sha256(lowerCase(config.get("tenantId")) + "/" + lowerCase(config.get("clientId")))
+                    : null;
+            case DIGITALOCEAN -> null; // The token is the principal
+        };
+        String key = provider.name() + ":" + account.strip();
+        return principal != null ? key + "/" + principal : key;
+    }
+
+    private static String lowerCase(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    static String sha256(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.strip().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -13,10 +13,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -26,10 +31,13 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CloudCredentialService {
 
+    private static final int EVENT_TOKEN_BYTES = 32;
+
     private final CloudCredentialsRepository credentialsRepository;
     private final UserRepository userRepository;
     private final CredentialEncryptionService encryptionService;
     private final CredentialValidationService validationService;
+    private final SecureRandom secureRandom = new SecureRandom();
 
     @Transactional
     public CloudCredentialDTO createCredential(
@@ -57,6 +65,7 @@ public class CloudCredentialService {
         credential.setFriendlyName(friendlyName);
         credential.setStatus(CredentialStatus.PENDING);
         credential.setProviderConfig(encryptedConfig);
+        credential.setAccountKey(CloudAccountKey.of(provider, config));
         credential.setLastValidatedAt(null);
 
         CloudCredentials saved = credentialsRepository.save(credential);
@@ -204,6 +213,71 @@ public class CloudCredentialService {
         log.info("Deleted credential {} for user {}", credentialId, userId);
     }
 
+    /**
+     * Returns the credential's cloud account key, derived from its current
+     * config and stored whenever it differs from the recorded one, e.g. for
+     * credentials keyed before the principal was part of the key.
+     */
+    @Transactional
+    public String accountKey(CloudCredentials credential) {
+        String accountKey = CloudAccountKey.of(credential.getProvider(),
+                decryptSensitiveFields(credential.getProvider(), credential.getProviderConfig()));
+        if (!Objects.equals(accountKey, credential.getAccountKey())) {
+            credential.setAccountKey(accountKey);
+            credentialsRepository.save(credential);
+        }
+        return accountKey;
+    }
+
+    /**
+     * Active credentials connected to the same cloud account as this one
+     * through the same principal, oldest first. The oldest syncs the account
+     * for all of them, failing over to the next when its own sync fails.
+     */
+    @Transactional
+    public List<CloudCredentials> accountOwners(CloudCredentials credential) {
+        String accountKey = accountKey(credential);
+        if (accountKey == null) {
+            return List.of(credential);
+        }
+        List<CloudCredentials> owners = credentialsRepository
+                .findByAccountKeyAndStatusOrderByCreatedAtAscCredentialIdAsc(accountKey, CredentialStatus.ACTIVE);
+        return owners.isEmpty() ? List.of(credential) : owners;
+    }
+
+    /**
+     * Issues a new event token for the credential, replacing any previous one.
+     * Only its hash is stored, so the token is returned once.
+     */
+    @Transactional
+    public String issueEventToken(UUID credentialId, UUID userId) {
+        CloudCredentials credential = credentialsRepository.findByCredentialIdAndUser_UserId(credentialId, userId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Credential not found or access denied: " + credentialId));
+
+        byte[] bytes = new byte[EVENT_TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        credential.setEventTokenHash(CloudAccountKey.sha256(token));
+        credentialsRepository.save(credential);
+
+        log.info("Issued event token for credential {}", credentialId);
+        return token;
+    }
+
+    /**
+     * Whether token is the credential's current event token. Always false
+     * before one has been issued.
+     */
+    public boolean isEventToken(CloudCredentials credential, String token) {
+        String expected = credential.getEventTokenHash();
+        if (expected == null || token == null || token.isBlank()) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+                CloudAccountKey.sha256(token).getBytes(StandardCharsets.US_ASCII));
+    }
+
     public boolean isOwner(UUID credentialId, UUID userId) {
         return credentialsRepository.existsByCredentialIdAndUser_UserId(credentialId, userId);
     }
@@ -9,6 +9,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -24,7 +25,9 @@ import org.hibernate.type.SqlTypes;
 
 @Entity
 @Data
-@Table(name = "cloud_credentials")
+@Table(name = "cloud_credentials", indexes = {
+        @Index(name = "idx_cloud_credentials_account_key", columnList = "account_key")
+})
 public class CloudCredentials {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -42,6 +45,13 @@ public class CloudCredentials {
     private Map<String, Object> providerConfig;
     @Column(name = "friendly_name", nullable = false)
     private String friendlyName;
+
+    // Cloud account this credential resolves to; see CloudAccountKey
+    @Column(name = "account_key")
+    private String accountKey;
+    // SHA-256 of the token provider event senders present for this credential; null until issued
+    @Column(name = "event_token_hash", length = 64)
+    private String eventTokenHash;
     @Column(name = "last_validated_at")
     @UpdateTimestamp
     private Instant lastValidatedAt;
@@ -54,6 +64,10 @@ public class CloudCredentials {
 
     @Column(name = "last_sync_error", length = 1000)
     private String lastSyncError;
+
+    // End of the last sync that listed the whole account; inventory freshness is measured from it
+    @Column(name = "last_success_at")
+    private Instant lastSuccessAt;
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
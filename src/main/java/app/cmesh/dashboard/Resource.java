@@ -13,6 +13,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -25,7 +26,10 @@ import org.hibernate.type.SqlTypes;
 
 @Data
 @Entity
-@Table(name = "resources")
+@Table(name = "resources", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_resource_provider_credential",
+                columnNames = {"provider", "credential_id", "provider_resource_id"})
+})
 public class Resource {
 
     @Id
@@ -34,9 +38,9 @@ public class Resource {
     private UUID resourceId;
     @Column(name = "resource_name", nullable = false)
     private String resourceName;
-    @ManyToOne(optional = false)
-    @JoinColumn(name = "project_id", nullable = false)
-    private Project project;
+    @ManyToOne
+    @JoinColumn(name = "project_id")
+    private Project project; // Null until a rule or a user assigns the resource
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private CloudProvider provider;
@@ -52,15 +56,33 @@ public class Resource {
     private Double resourceCost;
 
     // Sync tracking fields
-    @Column(name = "provider_resource_id", unique = true)
+    @Column(name = "provider_resource_id")
     private String providerResourceId; // Cloud provider's ID (e.g., i-abc123, droplet-456)
 
+    @Column(name = "credential_id")
+    private UUID credentialId; // Credential the resource was discovered through
+
     @Column(name = "last_synced_at")
-    private LocalDateTime lastSyncedAt;
+    private LocalDateTime lastSyncedAt; // Last time sync wrote a change to this row
+
+    @Column(name = "last_event_at")
+    private Instant lastEventAt; // Time of the newest provider change event applied to this row
+
+    @Column(name = "listed_at")
+    private Instant listedAt; // When the listing this row was last written from was requested
+
+    @Column(name = "instance_type", length = 100)
+    private String instanceType; // Size or machine type, where the provider reports one
+
+    @Column(name = "launched_at")
+    private Instant launchedAt; // When the provider last started the resource
+
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint; // Hash of provider-owned fields, see ResourceFingerprint
 
     @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "tags", columnDefinition = "jsonb")
-    private Map<String, String> tags; // Cloud resource tags
+    @Column(name = "tags", columnDefinition = "jsonb", nullable = false)
+    private Map<String, String> tags; // Cloud resource tags, empty if the provider reports none
 
     @Column(name = "manually_assigned")
     private Boolean manuallyAssigned = false; // True if manually assigned to project
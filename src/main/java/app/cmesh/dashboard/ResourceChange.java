@@ -0,0 +1,71 @@
+package app.cmesh.dashboard;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.enums.ResourceChangeType;
+import app.cmesh.dashboard.enums.ResourceStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Data;
+
+/**
+ * Outbox row describing one write to the resources table.
+ * Appended by the same statement as the write itself (see
+ * ResourceBulkRepositoryImpl), so a change is recorded if and only if the
+ * write commits. Read through the changes feed ordered by (txId, changeId).
+ */
+@Data
+@Entity
+@Table(name = "resource_changes", indexes = {
+        @Index(name = "idx_resource_change_feed", columnList = "tx_id,change_id"),
+        @Index(name = "idx_resource_change_user", columnList = "user_id,tx_id,change_id"),
+        @Index(name = "idx_resource_change_changed", columnList = "changed_at")
+})
+public class ResourceChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "change_id", updatable = false, nullable = false)
+    private Long changeId;
+
+    // Writing transaction, filled in by the column default
+    @Column(name = "tx_id", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "xid8 DEFAULT pg_current_xact_id()")
+    private String txId;
+
+    @Column(name = "resource_id", nullable = false)
+    private UUID resourceId;
+
+    @Column(name = "credential_id", nullable = false)
+    private UUID credentialId;
+
+    // Owner of the credential, copied in so the feed needs no join
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CloudProvider provider;
+
+    @Column(name = "provider_resource_id")
+    private String providerResourceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 20)
+    private ResourceChangeType changeType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resource_status", nullable = false)
+    private ResourceStatus resourceStatus;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+}
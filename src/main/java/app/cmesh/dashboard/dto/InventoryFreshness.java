@@ -0,0 +1,32 @@
+package app.cmesh.dashboard.dto;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+
+import java.util.Map;
+
+/**
+ * Point-in-time aggregate of how current the synced inventory is.
+ * A credential's age is the time since its last successful sync, or since
+ * it was connected if it never synced successfully. A tenant's age is that
+ * of its oldest active credential.
+ *
+ * @param providers      active credentials per provider; providers without any are absent
+ * @param tenants        distribution of tenant ages
+ * @param totalResources estimated resources that are not destroyed
+ * @param totalProjects  estimated projects
+ */
+public record InventoryFreshness(
+        Map<CloudProvider, ProviderFreshness> providers,
+        TenantFreshness tenants,
+        long totalResources,
+        long totalProjects) {
+
+    /**
+     * @param staleCredentials credentials older than cloudmesh.sync.freshness-slo
+     */
+    public record ProviderFreshness(int activeCredentials, long oldestSeconds, int staleCredentials) {
+    }
+
+    public record TenantFreshness(int tenants, long p50Seconds, long p95Seconds, long p99Seconds, long maxSeconds) {
+    }
+}
@@ -0,0 +1,22 @@
+package app.cmesh.dashboard.dto;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.enums.ResourceChangeType;
+import app.cmesh.dashboard.enums.ResourceStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One entry of the resource changes feed.
+ */
+public record ResourceChangeDTO(
+        long changeId,
+        UUID resourceId,
+        UUID credentialId,
+        CloudProvider provider,
+        String providerResourceId,
+        ResourceChangeType changeType,
+        ResourceStatus resourceStatus,
+        Instant changedAt) {
+}
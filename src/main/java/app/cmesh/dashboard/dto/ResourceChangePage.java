@@ -0,0 +1,15 @@
+package app.cmesh.dashboard.dto;
+
+import java.util.List;
+
+/**
+ * A batch of the resource changes feed.
+ * Pass next as the after parameter to read the following batch; when
+ * hasMore is false the consumer has caught up and should poll again later
+ * with the same cursor.
+ */
+public record ResourceChangePage(
+        List<ResourceChangeDTO> changes,
+        String next,
+        boolean hasMore) {
+}
@@ -0,0 +1,7 @@
+package app.cmesh.dashboard.enums;
+
+public enum ResourceChangeType {
+    ADDED,
+    CHANGED,
+    REMOVED
+}
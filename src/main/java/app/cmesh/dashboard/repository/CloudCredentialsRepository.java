@@ -13,7 +13,8 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface CloudCredentialsRepository extends JpaRepository<CloudCredentials, UUID> {
+public interface CloudCredentialsRepository extends JpaRepository<CloudCredentials, UUID>,
+        InventoryFreshnessRepository {
 
     List<CloudCredentials> findByUser_UserId(UUID userId);
 
@@ -38,4 +39,7 @@ public interface CloudCredentialsRepository extends JpaRepository<CloudCredentia
     List<CloudCredentials> findByStatus(CredentialStatus status);
 
     List<CloudCredentials> findByProviderAndStatus(CloudProvider provider, CredentialStatus status);
+
+    List<CloudCredentials> findByAccountKeyAndStatusOrderByCreatedAtAscCredentialIdAsc(
+            String accountKey, CredentialStatus status);
 }
@@ -0,0 +1,19 @@
+package app.cmesh.dashboard.repository;
+
+import app.cmesh.dashboard.dto.InventoryFreshness;
+
+import java.time.Duration;
+
+/**
+ * Aggregate reads of sync freshness across all tenants.
+ */
+public interface InventoryFreshnessRepository {
+
+    /**
+     * Freshness of active credentials per provider and per tenant, and
+     * estimated inventory totals.
+     *
+     * @param slo age beyond which a credential counts as stale
+     */
+    InventoryFreshness freshness(Duration slo);
+}
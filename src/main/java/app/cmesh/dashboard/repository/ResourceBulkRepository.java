@@ -0,0 +1,121 @@
+package app.cmesh.dashboard.repository;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.enums.ResourceStatus;
+import app.cmesh.project.dto.BulkAssignmentResult;
+import app.cmesh.sync.ResourceSnapshot;
+import app.cmesh.sync.SyncResult;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based write path for synced resources.
+ */
+public interface ResourceBulkRepository {
+
+    /**
+     * Insert or update the given snapshots for a credential, keyed on
+     * provider + credential + provider resource id.
+     * Issues one statement per batch instead of one round trip per resource,
+     * and skips rows whose stored fingerprint already matches.
+     * A status set by an event newer than the snapshot's listedAt is kept.
+     *
+     * @return added and changed counts plus the ids of the written rows;
+     * removed and unchanged are left at zero
+     */
+    SyncResult upsertAll(CloudProvider provider, UUID credentialId, List<ResourceSnapshot> snapshots);
+
+    /**
+     * Mark every live resource of the credential that is not in seenIds as DESTROYED,
+     * in a single statement.
+     *
+     * @return number of resources tombstoned
+     */
+    int tombstoneMissing(CloudProvider provider, UUID credentialId, Collection<String> seenIds);
+
+    /**
+     * Set the status of one resource, held by any of the given credentials,
+     * from a provider change event. Rows that already applied an event at or
+     * after occurredAt, or were listed after it, are left alone, so events may
+     * arrive in any order.
+     * Rows in another region than the event's are never touched.
+     *
+     * @param region the resource's region, or null if the event doesn't say
+     * @return number of rows updated
+     */
+    int applyStatusEvent(CloudProvider provider, Collection<UUID> credentialIds, String providerResourceId,
+                         String region, ResourceStatus status, Instant occurredAt);
+
+    /**
+     * Assign up to limit resources whose tags contain all of conditions to
+     * the project, skipping manually assigned resources, resources already
+     * in the project and resources whose tags contain any of excluded.
+     * Call repeatedly until it returns less than limit.
+     *
+     * @param excluded conditions of rules that take precedence over this one
+     * @return number of resources assigned
+     */
+    int assignMatching(UUID projectId, Map<String, String> conditions,
+                       List<Map<String, String>> excluded, int limit);
+
+    /**
+     * Up to limit resources with an id after the given one, in id order,
+     * whose tags contain all of conditions and have every one of keys,
+     * skipping manually assigned resources and resources already in the project.
+     * Narrows the candidates of a rule that the database can't evaluate in full.
+     *
+     * @param after last id of the previous page, or null for the first page
+     */
+    List<TaggedResource> findAssignable(UUID projectId, Map<String, String> conditions,
+                                        Collection<String> keys, UUID after, int limit);
+
+    /**
+     * Assign the given resources to the project, in a single statement.
+     * Resources assigned by hand or already in the project are skipped.
+     *
+     * @return number of resources assigned
+     */
+    int assignProject(UUID projectId, Collection<UUID> resourceIds);
+
+    /**
+     * Up to limit resources with an id after the given one, in id order,
+     * whose tags contain all of conditions and have every one of keys,
+     * however they are assigned. Reads only what rule evaluation needs.
+     *
+     * @param after last id of the previous page, or null for the first page
+     */
+    List<RuleCandidate> findRuleCandidates(Map<String, String> conditions, Collection<String> keys,
+                                           UUID after, int limit);
+
+    /**
+     * Assign the resources to the project by hand, in a single statement,
+     * so assignment rules leave them alone.
+     *
+     * @return outcome per distinct requested id
+     */
+    Map<UUID, BulkAssignmentResult.Outcome> assignManually(UUID projectId, Collection<UUID> resourceIds);
+
+    /**
+     * Clear the manual assignment of the resources, in a single statement;
+     * they keep their project until assignment rules move them.
+     *
+     * @return outcome per distinct requested id
+     */
+    Map<UUID, BulkAssignmentResult.Outcome> releaseManualAssignments(Collection<UUID> resourceIds);
+
+    /**
+     * Ids of the resources currently in the project.
+     */
+    List<UUID> findIdsByProject(UUID projectId);
+
+    record TaggedResource(UUID resourceId, Map<String, String> tags) {
+    }
+
+    record RuleCandidate(UUID resourceId, String resourceName, CloudProvider provider, UUID projectId,
+                         boolean manuallyAssigned, Map<String, String> tags) {
+    }
+}
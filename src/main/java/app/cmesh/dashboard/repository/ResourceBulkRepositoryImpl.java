@@ -0,0 +1,438 @@
+package app.cmesh.dashboard.repository;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.enums.ResourceStatus;
+import app.cmesh.project.dto.BulkAssignmentResult;
+import app.cmesh.sync.ResourceFingerprint;
+import app.cmesh.sync.ResourceSnapshot;
+import app.cmesh.sync.SyncResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Postgres implementation of {@link ResourceBulkRepository}.
+ * Each batch is sent as parallel arrays and expanded server-side with unnest(),
+ * then merged with INSERT ... ON CONFLICT DO UPDATE.
+ * Every statement that writes resources also appends one resource_changes
+ * row per written resource, from a data-modifying CTE, so the outbox and the
+ * inventory commit or roll back together. Each row carries the credential
+ * owner, which the changes feed filters and pages by.
+ */
+@RequiredArgsConstructor
+public class ResourceBulkRepositoryImpl implements ResourceBulkRepository {
+
+    static final int BATCH_SIZE = 1000;
+
+    // The WHERE on DO UPDATE turns unchanged rows into no-ops; RETURNING only
+    // reports rows actually written, and xmax = 0 tells inserts from updates.
+    // A status from an event newer than the listing is kept. The fingerprint
+    // is always the listing's, so a row is also rewritten when the listing is
+    // newer than the last event and disagrees with the status it set.
+    private static final String UPSERT_SQL = """
+            WITH written AS (
+            INSERT INTO resources (resource_id, resource_name, provider, resource_type, resource_status,
+                                   resource_region, resource_cost, provider_resource_id, credential_id,
+                                   tags, instance_type, launched_at, fingerprint, manually_assigned,
+                                   listed_at, last_synced_at, created_at, updated_at)
+            SELECT gen_random_uuid(), s.name, ?, s.type, s.status, s.region, s.cost, s.pid, ?,
+                   s.tags::jsonb, s.instance_type, s.launched_at, s.fingerprint, false, s.listed_at, ?, now(), now()
+            FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::float8[], ?::text[],
+                        ?::text[], ?::timestamptz[], ?::text[], ?::timestamptz[])
+                 AS s(pid, name, type, status, region, cost, tags, instance_type, launched_at, fingerprint,
+                      listed_at)
+            ON CONFLICT (provider, credential_id, provider_resource_id) DO UPDATE SET
+                resource_name = EXCLUDED.resource_name,
+                resource_type = EXCLUDED.resource_type,
+                resource_status = CASE WHEN resources.last_event_at > EXCLUDED.listed_at
+                                       THEN resources.resource_status
+                                       ELSE EXCLUDED.resource_status END,
+                resource_region = EXCLUDED.resource_region,
+                resource_cost = EXCLUDED.resource_cost,
+                tags = EXCLUDED.tags,
+                instance_type = EXCLUDED.instance_type,
+                launched_at = EXCLUDED.launched_at,
+                fingerprint = EXCLUDED.fingerprint,
+                listed_at = EXCLUDED.listed_at,
+                last_synced_at = EXCLUDED.last_synced_at,
+                updated_at = now()
+            WHERE resources.fingerprint IS DISTINCT FROM EXCLUDED.fingerprint
+               OR (resources.last_event_at <= EXCLUDED.listed_at
+                   AND resources.resource_status IS DISTINCT FROM EXCLUDED.resource_status)
+            RETURNING resource_id, (xmax = 0) AS inserted, credential_id, provider, provider_resource_id,
+                      resource_status
+            ), changes AS (
+            INSERT INTO resource_changes (resource_id, credential_id, user_id, provider, provider_resource_id,
+                                          change_type, resource_status, changed_at)
+            SELECT w.resource_id, w.credential_id, c.user_id, w.provider, w.provider_resource_id,
+                   CASE WHEN w.inserted THEN 'ADDED' ELSE 'CHANGED' END, w.resource_status, now()
+            FROM written w
+            JOIN cloud_credentials c ON c.credential_id = w.credential_id
+            )
+            SELECT resource_id, inserted FROM written
+            """;
+
+    // Fingerprint is cleared so a resource that comes back is always rewritten
+    // Returns the number of outbox rows, which is one per tombstoned resource
+    private static final String TOMBSTONE_SQL = """
+            WITH removed AS (
+            UPDATE resources
+            SET resource_status = ?, fingerprint = NULL, updated_at = now()
+            WHERE provider = ? AND credential_id = ?
+              AND resource_status <> ?
+              AND NOT (provider_resource_id = ANY (?::text[]))
+            RETURNING resource_id, credential_id, provider, provider_resource_id, resource_status
+            )
+            INSERT INTO resource_changes (resource_id, credential_id, user_id, provider, provider_resource_id,
+                                          change_type, resource_status, changed_at)
+            SELECT r.resource_id, r.credential_id, c.user_id, r.provider, r.provider_resource_id, 'REMOVED',
+                   r.resource_status, now()
+            FROM removed r
+            JOIN cloud_credentials c ON c.credential_id = r.credential_id
+            """;
+
+    // The row lock taken by UPDATE serialises concurrent events of one resource,
+    // and the guards are re-checked after the lock is granted. Events older
+    // than the listing the row was written from are stale too. The fingerprint
+    // is left as the listing's; see UPSERT_SQL for how a later listing wins.
+    private static final String STATUS_EVENT_SQL = """
+            WITH updated AS (
+            UPDATE resources
+            SET resource_status = ?, last_event_at = ?, updated_at = now()
+            WHERE provider = ? AND credential_id = ANY (?::uuid[]) AND provider_resource_id = ?
+              AND (?::text IS NULL OR resource_region = ?)
+              AND (last_event_at IS NULL OR last_event_at < ?)
+              AND (listed_at IS NULL OR listed_at < ?)
+            RETURNING resource_id, credential_id, provider, provider_resource_id, resource_status
+            )
+            INSERT INTO resource_changes (resource_id, credential_id, user_id, provider, provider_resource_id,
+                                          change_type, resource_status, changed_at)
+            SELECT u.resource_id, u.credential_id, c.user_id, u.provider, u.provider_resource_id,
+                   CASE WHEN u.resource_status = 'DESTROYED' THEN 'REMOVED' ELSE 'CHANGED' END,
+                   u.resource_status, now()
+            FROM updated u
+            JOIN cloud_credentials c ON c.credential_id = u.credential_id
+            """;
+
+    // tags @> ? is answered by idx_resource_tags; the IS DISTINCT FROM makes
+    // assigned rows drop out, so repeating the statement walks the matches in chunks
+    private static final String ASSIGN_SQL = """
+            UPDATE resources
+            SET project_id = ?, updated_at = now()
+            WHERE resource_id IN (
+                SELECT resource_id
+                FROM resources
+                WHERE tags @> ?::jsonb
+                  AND manually_assigned IS NOT TRUE
+                  AND project_id IS DISTINCT FROM ?
+                  AND NOT (tags @> ANY (?::jsonb[]))
+                LIMIT ?
+            )
+            """;
+
+    // Keyset paging by resource_id keeps every page an index range scan
+    private static final String ASSIGNABLE_SQL = """
+            SELECT resource_id, tags
+            FROM resources
+            WHERE tags @> ?::jsonb
+              AND jsonb_exists_all(tags, ?::text[])
+              AND manually_assigned IS NOT TRUE
+              AND project_id IS DISTINCT FROM ?
+              AND (?::uuid IS NULL OR resource_id > ?::uuid)
+            ORDER BY resource_id
+            LIMIT ?
+            """;
+
+    private static final String RULE_CANDIDATES_SQL = """
+            SELECT resource_id, resource_name, provider, project_id, manually_assigned, tags
+            FROM resources
+            WHERE tags @> ?::jsonb
+              AND jsonb_exists_all(tags, ?::text[])
+              AND (?::uuid IS NULL OR resource_id > ?::uuid)
+            ORDER BY resource_id
+            LIMIT ?
+            """;
+
+    // The ids were matched before this statement ran; a resource assigned by
+    // hand since then, or already in the project, is left alone
+    private static final String ASSIGN_IDS_SQL = """
+            UPDATE resources
+            SET project_id = ?, updated_at = now()
+            WHERE resource_id = ANY (?)
+              AND manually_assigned IS NOT TRUE
+              AND project_id IS DISTINCT FROM ?
+            """;
+
+    // The outer SELECT still sees the rows as they were before the UPDATE,
+    // which tells requested ids that were already so apart from unknown ones
+    private static final String MANUAL_ASSIGN_SQL = """
+            WITH requested AS (
+                SELECT DISTINCT unnest(?::uuid[]) AS resource_id
+            ), updated AS (
+                UPDATE resources r
+                SET project_id = ?, manually_assigned = true, updated_at = now()
+                FROM requested q
+                WHERE r.resource_id = q.resource_id
+                  AND (r.project_id IS DISTINCT FROM ? OR r.manually_assigned IS NOT TRUE)
+                RETURNING r.resource_id
+            )
+            SELECT q.resource_id,
+                   CASE WHEN u.resource_id IS NOT NULL THEN 'UPDATED'
+                        WHEN r.resource_id IS NOT NULL THEN 'UNCHANGED'
+                        ELSE 'NOT_FOUND' END AS outcome
+            FROM requested q
+            LEFT JOIN updated u ON u.resource_id = q.resource_id
+            LEFT JOIN resources r ON r.resource_id = q.resource_id
+            """;
+
+    private static final String MANUAL_RELEASE_SQL = """
+            WITH requested AS (
+                SELECT DISTINCT unnest(?::uuid[]) AS resource_id
+            ), updated AS (
+                UPDATE resources r
+                SET manually_assigned = false, updated_at = now()
+                FROM requested q
+                WHERE r.resource_id = q.resource_id
+                  AND r.manually_assigned IS TRUE
+                RETURNING r.resource_id
+            )
+            SELECT q.resource_id,
+                   CASE WHEN u.resource_id IS NOT NULL THEN 'UPDATED'
+                        WHEN r.resource_id IS NOT NULL THEN 'UNCHANGED'
+                        ELSE 'NOT_FOUND' END AS outcome
+            FROM requested q
+            LEFT JOIN updated u ON u.resource_id = q.resource_id
+            LEFT JOIN resources r ON r.resource_id = q.resource_id
+            """;
+
+    private static final TypeReference<Map<String, String>> TAGS_TYPE = new TypeReference<>() {
+    };
+
+    private static final RowMapper<Map.Entry<UUID, BulkAssignmentResult.Outcome>> OUTCOME_MAPPER =
+            (rs, rowNum) -> Map.entry(rs.getObject("resource_id", UUID.class),
+                    BulkAssignmentResult.Outcome.valueOf(rs.getString("outcome")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public SyncResult upsertAll(CloudProvider provider, UUID credentialId, List<ResourceSnapshot> snapshots) {
+        // ON CONFLICT cannot touch the same row twice in one statement, so keep the last copy of each id
+        Map<String, ResourceSnapshot> unique = new LinkedHashMap<>();
+        for (ResourceSnapshot snapshot : snapshots) {
+            unique.put(snapshot.providerResourceId(), snapshot);
+        }
+        List<ResourceSnapshot> deduplicated = new ArrayList<>(unique.values());
+
+        int added = 0;
+        int changed = 0;
+        List<UUID> writtenIds = new ArrayList<>();
+        Timestamp syncedAt = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < deduplicated.size(); from += BATCH_SIZE) {
+            List<ResourceSnapshot> batch = deduplicated.subList(from, Math.min(from + BATCH_SIZE, deduplicated.size()));
+            for (WrittenRow row : upsertBatch(provider, credentialId, syncedAt, batch)) {
+                writtenIds.add(row.resourceId());
+                if (row.inserted()) {
+                    added++;
+                } else {
+                    changed++;
+                }
+            }
+        }
+        return new SyncResult(added, changed, 0, 0, writtenIds);
+    }
+
+    @Override
+    public int tombstoneMissing(CloudProvider provider, UUID credentialId, Collection<String> seenIds) {
+        String[] ids = seenIds.toArray(String[]::new);
+        return jdbcTemplate.update(TOMBSTONE_SQL, ps -> {
+            ps.setString(1, ResourceStatus.DESTROYED.name());
+            ps.setString(2, provider.name());
+            ps.setObject(3, credentialId);
+            ps.setString(4, ResourceStatus.DESTROYED.name());
+            ps.setArray(5, ps.getConnection().createArrayOf("text", ids));
+        });
+    }
+
+    @Override
+    public int applyStatusEvent(CloudProvider provider, Collection<UUID> credentialIds, String providerResourceId,
+                                String region, ResourceStatus status, Instant occurredAt) {
+        UUID[] ids = credentialIds.toArray(UUID[]::new);
+        Timestamp eventTime = Timestamp.from(occurredAt);
+        return jdbcTemplate.update(STATUS_EVENT_SQL, ps -> {
+            ps.setString(1, status.name());
+            ps.setTimestamp(2, eventTime);
+            ps.setString(3, provider.name());
+            ps.setArray(4, ps.getConnection().createArrayOf("uuid", ids));
+            ps.setString(5, providerResourceId);
+            ps.setString(6, region);
+            ps.setString(7, region);
+            ps.setTimestamp(8, eventTime);
+            ps.setTimestamp(9, eventTime);
+        });
+    }
+
+    @Override
+    public int assignMatching(UUID projectId, Map<String, String> conditions,
+                              List<Map<String, String>> excluded, int limit) {
+        String conditionsJson = objectMapper.writeValueAsString(conditions);
+        String[] excludedJson = excluded.stream().map(objectMapper::writeValueAsString).toArray(String[]::new);
+        return jdbcTemplate.update(ASSIGN_SQL, ps -> {
+            ps.setObject(1, projectId);
+            ps.setString(2, conditionsJson);
+            ps.setObject(3, projectId);
+            ps.setArray(4, ps.getConnection().createArrayOf("text", excludedJson));
+            ps.setInt(5, limit);
+        });
+    }
+
+    @Override
+    public List<TaggedResource> findAssignable(UUID projectId, Map<String, String> conditions,
+                                               Collection<String> keys, UUID after, int limit) {
+        String conditionsJson = objectMapper.writeValueAsString(conditions);
+        String[] keyArray = keys.toArray(String[]::new);
+        return jdbcTemplate.query(ASSIGNABLE_SQL, ps -> {
+            ps.setString(1, conditionsJson);
+            ps.setArray(2, ps.getConnection().createArrayOf("text", keyArray));
+            ps.setObject(3, projectId);
+            ps.setObject(4, after, Types.OTHER);
+            ps.setObject(5, after, Types.OTHER);
+            ps.setInt(6, limit);
+        }, (rs, rowNum) -> new TaggedResource(
+                rs.getObject("resource_id", UUID.class),
+                readTags(rs.getString("tags"))));
+    }
+
+    @Override
+    public List<RuleCandidate> findRuleCandidates(Map<String, String> conditions, Collection<String> keys,
+                                                  UUID after, int limit) {
+        String conditionsJson = objectMapper.writeValueAsString(conditions);
+        String[] keyArray = keys.toArray(String[]::new);
+        return jdbcTemplate.query(RULE_CANDIDATES_SQL, ps -> {
+            ps.setString(1, conditionsJson);
+            ps.setArray(2, ps.getConnection().createArrayOf("text", keyArray));
+            ps.setObject(3, after, Types.OTHER);
+            ps.setObject(4, after, Types.OTHER);
+            ps.setInt(5, limit);
+        }, (rs, rowNum) -> new RuleCandidate(
+                rs.getObject("resource_id", UUID.class),
+                rs.getString("resource_name"),
+                CloudProvider.valueOf(rs.getString("provider")),
+                rs.getObject("project_id", UUID.class),
+                rs.getBoolean("manually_assigned"),
+                readTags(rs.getString("tags"))));
+    }
+
+    // Rows written before tags became NOT NULL may still hold NULL
+    private Map<String, String> readTags(String json) {
+        return json != null ? objectMapper.readValue(json, TAGS_TYPE) : Map.of();
+    }
+
+    @Override
+    public int assignProject(UUID projectId, Collection<UUID> resourceIds) {
+        UUID[] ids = resourceIds.toArray(UUID[]::new);
+        return jdbcTemplate.update(ASSIGN_IDS_SQL, ps -> {
+            ps.setObject(1, projectId);
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", ids));
+            ps.setObject(3, projectId);
+        });
+    }
+
+    @Override
+    public Map<UUID, BulkAssignmentResult.Outcome> assignManually(UUID projectId, Collection<UUID> resourceIds) {
+        UUID[] ids = resourceIds.toArray(UUID[]::new);
+        return outcomes(jdbcTemplate.query(MANUAL_ASSIGN_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids));
+            ps.setObject(2, projectId);
+            ps.setObject(3, projectId);
+        }, OUTCOME_MAPPER));
+    }
+
+    @Override
+    public Map<UUID, BulkAssignmentResult.Outcome> releaseManualAssignments(Collection<UUID> resourceIds) {
+        UUID[] ids = resourceIds.toArray(UUID[]::new);
+        return outcomes(jdbcTemplate.query(MANUAL_RELEASE_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)), OUTCOME_MAPPER));
+    }
+
+    @Override
+    public List<UUID> findIdsByProject(UUID projectId) {
+        return jdbcTemplate.queryForList("SELECT resource_id FROM resources WHERE project_id = ?",
+                UUID.class, projectId);
+    }
+
+    private static Map<UUID, BulkAssignmentResult.Outcome> outcomes(
+            List<Map.Entry<UUID, BulkAssignmentResult.Outcome>> rows) {
+        Map<UUID, BulkAssignmentResult.Outcome> outcomes = new HashMap<>();
+        rows.forEach(row -> outcomes.put(row.getKey(), row.getValue()));
+        return outcomes;
+    }
+
+    private List<WrittenRow> upsertBatch(CloudProvider provider, UUID credentialId, Timestamp syncedAt,
+                                         List<ResourceSnapshot> batch) {
+        int size = batch.size();
+        String[] ids = new String[size];
+        String[] names = new String[size];
+        String[] types = new String[size];
+        String[] statuses = new String[size];
+        String[] regions = new String[size];
+        Double[] costs = new Double[size];
+        String[] tags = new String[size];
+        String[] instanceTypes = new String[size];
+        Timestamp[] launchedAt = new Timestamp[size];
+        String[] fingerprints = new String[size];
+        Timestamp[] listedAt = new Timestamp[size];
+
+        for (int i = 0; i < size; i++) {
+            ResourceSnapshot snapshot = batch.get(i);
+            ids[i] = snapshot.providerResourceId();
+            names[i] = snapshot.resourceName();
+            types[i] = snapshot.resourceType().name();
+            statuses[i] = snapshot.resourceStatus().name();
+            regions[i] = snapshot.resourceRegion();
+            costs[i] = snapshot.resourceCost() != null ? snapshot.resourceCost() : 0.0;
+            // Never NULL: tags @> ? is NULL on NULL tags, and the rule queries would miss the row
+            tags[i] = objectMapper.writeValueAsString(snapshot.tags() != null ? snapshot.tags() : Map.of());
+            instanceTypes[i] = snapshot.instanceType();
+            launchedAt[i] = snapshot.launchedAt() != null ? Timestamp.from(snapshot.launchedAt()) : null;
+            fingerprints[i] = ResourceFingerprint.of(snapshot);
+            listedAt[i] = Timestamp.from(snapshot.listedAt() != null ? snapshot.listedAt() : syncedAt.toInstant());
+        }
+
+        return jdbcTemplate.query(UPSERT_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setString(1, provider.name());
+            ps.setObject(2, credentialId);
+            ps.setTimestamp(3, syncedAt);
+            ps.setArray(4, connection.createArrayOf("text", ids));
+            ps.setArray(5, connection.createArrayOf("text", names));
+            ps.setArray(6, connection.createArrayOf("text", types));
+            ps.setArray(7, connection.createArrayOf("text", statuses));
+            ps.setArray(8, connection.createArrayOf("text", regions));
+            ps.setArray(9, connection.createArrayOf("float8", costs));
+            ps.setArray(10, connection.createArrayOf("text", tags));
+            ps.setArray(11, connection.createArrayOf("text", instanceTypes));
+            ps.setArray(12, connection.createArrayOf("timestamptz", launchedAt));
+            ps.setArray(13, connection.createArrayOf("text", fingerprints));
+            ps.setArray(14, connection.createArrayOf("timestamptz", listedAt));
+        }, (rs, rowNum) -> new WrittenRow(rs.getObject("resource_id", UUID.class), rs.getBoolean("inserted")));
+    }
+
+    private record WrittenRow(UUID resourceId, boolean inserted) {
+    }
+}
@@ -0,0 +1,23 @@
+package app.cmesh.dashboard.repository;
+
+import app.cmesh.dashboard.dto.ResourceChangePage;
+
+import java.util.UUID;
+
+/**
+ * Cursor-based reads of the resource changes outbox.
+ */
+public interface ResourceChangeFeedRepository {
+
+    /**
+     * Up to limit changes to resources of the user's credentials, after the
+     * given cursor, oldest first.
+     * Only changes of transactions older than every transaction still in
+     * progress are returned, so a change can never appear behind a cursor a
+     * consumer has already moved past.
+     *
+     * @param after cursor from a previous page, or null to read from the start
+     * @throws IllegalArgumentException if after is not a cursor
+     */
+    ResourceChangePage readAfter(UUID userId, String after, int limit);
+}
@@ -0,0 +1,82 @@
+package app.cmesh.dashboard.repository;
+
+import app.cmesh.dashboard.dto.ResourceChangeDTO;
+import app.cmesh.dashboard.dto.ResourceChangePage;
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.enums.ResourceChangeType;
+import app.cmesh.dashboard.enums.ResourceStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Postgres implementation of {@link ResourceChangeFeedRepository}.
+ * change_id alone is not a safe cursor: ids are taken when a row is written
+ * but become visible when its transaction commits, so a lower id can show
+ * up after a higher one has been read. Instead the feed is ordered by
+ * (writing transaction, change_id) and stops at the oldest transaction still
+ * running, pg_snapshot_xmin; every transaction below it has finished and any
+ * later one will sort after it. The cursor is the last (tx_id, change_id) read.
+ * Each page is a range scan of idx_resource_change_user, which leads with
+ * the user so one busy tenant's changes are never walked for another.
+ */
+@RequiredArgsConstructor
+public class ResourceChangeFeedRepositoryImpl implements ResourceChangeFeedRepository {
+
+    private static final String FEED_SQL = """
+            SELECT rc.change_id, rc.tx_id::text AS tx_id, rc.resource_id, rc.credential_id, rc.provider,
+                   rc.provider_resource_id, rc.change_type, rc.resource_status, rc.changed_at
+            FROM resource_changes rc
+            WHERE rc.user_id = ?
+              AND (rc.tx_id, rc.change_id) > (?::xid8, ?)
+              AND rc.tx_id < pg_snapshot_xmin(pg_current_snapshot())
+            ORDER BY rc.tx_id, rc.change_id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public ResourceChangePage readAfter(UUID userId, String after, int limit) {
+        long[] cursor = parseCursor(after);
+        long[] last = cursor.clone();
+
+        List<ResourceChangeDTO> changes = jdbcTemplate.query(FEED_SQL, (rs, rowNum) -> {
+            last[0] = Long.parseLong(rs.getString("tx_id"));
+            last[1] = rs.getLong("change_id");
+            return new ResourceChangeDTO(
+                    rs.getLong("change_id"),
+                    rs.getObject("resource_id", UUID.class),
+                    rs.getObject("credential_id", UUID.class),
+                    CloudProvider.valueOf(rs.getString("provider")),
+                    rs.getString("provider_resource_id"),
+                    ResourceChangeType.valueOf(rs.getString("change_type")),
+                    ResourceStatus.valueOf(rs.getString("resource_status")),
+                    rs.getTimestamp("changed_at").toInstant());
+        }, userId, String.valueOf(cursor[0]), cursor[1], limit);
+
+        return new ResourceChangePage(changes, last[0] + "-" + last[1], changes.size() == limit);
+    }
+
+    /**
+     * A cursor is "txId-changeId"; null or blank is the start of the feed.
+     */
+    private static long[] parseCursor(String after) {
+        if (after == null || after.isBlank()) {
+            return new long[]{0, 0};
+        }
+        int separator = after.indexOf('-');
+        try {
+            if (separator <= 0) {
+                throw new NumberFormatException();
+            }
+            return new long[]{
+                    Long.parseLong(after.substring(0, separator)),
+                    Long.parseLong(after.substring(separator + 1))};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid changes cursor: " + after);
+        }
+    }
+}
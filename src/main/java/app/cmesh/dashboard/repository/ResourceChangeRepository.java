@@ -0,0 +1,18 @@
+package app.cmesh.dashboard.repository;
+
+import app.cmesh.dashboard.ResourceChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface ResourceChangeRepository extends JpaRepository<ResourceChange, Long>, ResourceChangeFeedRepository {
+
+    @Modifying
+    @Query("DELETE FROM ResourceChange c WHERE c.changedAt < :before")
+    int deleteChangedBefore(@Param("before") Instant before);
+}
@@ -1,13 +1,18 @@
 package app.cmesh.dashboard.repository;
 
 import app.cmesh.dashboard.Resource;
+import app.cmesh.dashboard.enums.CloudProvider;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.query.QueryByExampleExecutor;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ResourceRepository extends JpaRepository<Resource, UUID>, QueryByExampleExecutor<Resource> {
+public interface ResourceRepository extends JpaRepository<Resource, UUID>, QueryByExampleExecutor<Resource>,
+        ResourceBulkRepository {
 
-    java.util.Optional<Resource> findByProviderResourceId(String providerResourceId);
+    java.util.Optional<Resource> findByProviderAndCredentialIdAndProviderResourceId(
+            CloudProvider provider, UUID credentialId, String providerResourceId);
+
+    long countByProject_ProjectId(UUID projectId);
 }
@@ -0,0 +1,30 @@
+package app.cmesh.observability;
+
+import app.cmesh.dashboard.dto.InventoryFreshness;
+import app.cmesh.dashboard.repository.CloudCredentialsRepository;
+import app.cmesh.sync.SyncProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the inventory freshness gauges on a fixed interval, so a scrape
+ * only reads the last aggregate instead of querying the database.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class InventoryFreshnessSampler {
+
+    private final CloudCredentialsRepository credentialsRepository;
+    private final SyncProperties syncProperties;
+    private final MetricsService metricsService;
+
+    @Scheduled(fixedDelayString = "${cloudmesh.sync.freshness-metrics-interval:60000}")
+    public void sampleFreshness() {
+        InventoryFreshness freshness = credentialsRepository.freshness(syncProperties.getFreshnessSlo());
+        metricsService.recordInventoryFreshness(freshness);
+        log.debug("[Metrics] Inventory freshness: {}", freshness);
+    }
+}
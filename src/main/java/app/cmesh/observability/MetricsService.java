@@ -1,13 +1,23 @@
 package app.cmesh.observability;
 
+import app.cmesh.dashboard.dto.InventoryFreshness;
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.sync.SyncResult;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service for recording application metrics using Micrometer.
@@ -23,6 +33,14 @@ public class MetricsService {
     private final AtomicInteger totalResourcesGauge;
     private final AtomicInteger totalProjectsGauge;
 
+    // Sync queue depth gauges, keyed by task type and statistic
+    private final Map<String, AtomicInteger> queueDepths = new ConcurrentHashMap<>();
+
+    // Inventory freshness gauges, in seconds since the last successful sync
+    private final Map<CloudProvider, AtomicLong> oldestSyncAges = new EnumMap<>(CloudProvider.class);
+    private final Map<CloudProvider, AtomicInteger> staleCredentials = new EnumMap<>(CloudProvider.class);
+    private final Map<String, AtomicLong> tenantSyncAges = new LinkedHashMap<>();
+
     public MetricsService(MeterRegistry registry) {
         this.registry = registry;
 
@@ -38,6 +56,23 @@ public class MetricsService {
         this.totalProjectsGauge = registry.gauge(
                 "cloudmesh.projects.total",
                 new AtomicInteger(0));
+
+        for (CloudProvider provider : CloudProvider.values()) {
+            oldestSyncAges.put(provider, registry.gauge(
+                    "cloudmesh.sync.freshness.oldest",
+                    Tags.of("provider", provider.name()),
+                    new AtomicLong(0)));
+            staleCredentials.put(provider, registry.gauge(
+                    "cloudmesh.sync.freshness.stale",
+                    Tags.of("provider", provider.name()),
+                    new AtomicInteger(0)));
+        }
+        for (String quantile : new String[]{"0.5", "0.95", "0.99", "1.0"}) {
+            tenantSyncAges.put(quantile, registry.gauge(
+                    "cloudmesh.sync.tenant.freshness",
+                    Tags.of("quantile", quantile),
+                    new AtomicLong(0)));
+        }
     }
 
     /**
@@ -62,6 +97,65 @@ public class MetricsService {
                 .increment();
     }
 
+    /**
+     * Record a resource sync cancelled because it ran past its deadline.
+     */
+    public void recordResourceSyncTimeout(String provider) {
+        Counter.builder("cloudmesh.sync.timeout")
+                .tag("provider", provider)
+                .description("Resource syncs cancelled at their deadline")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Record a received provider change event, what became of it, and how long
+     * after it occurred it was received.
+     */
+    public void recordResourceEvent(String provider, String outcome, long lagMs) {
+        Counter.builder("cloudmesh.events.received")
+                .tag("provider", provider)
+                .tag("outcome", outcome)
+                .description("Provider change events received")
+                .register(registry)
+                .increment();
+        Timer.builder("cloudmesh.events.lag")
+                .tag("provider", provider)
+                .description("Delay between a provider change and its event being received")
+                .register(registry)
+                .record(lagMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publish how many due sync tasks are waiting, how many tenants they
+     * belong to and the deepest tenant queue. Tenants are not used as tags,
+     * which would add a series per user.
+     */
+    public void recordTenantQueueDepths(String taskType, Map<UUID, Integer> depths) {
+        queueDepth(taskType, "cloudmesh.sync.queue.depth")
+                .set(depths.values().stream().mapToInt(Integer::intValue).sum());
+        queueDepth(taskType, "cloudmesh.sync.queue.tenants")
+                .set(depths.size());
+        queueDepth(taskType, "cloudmesh.sync.tenant.queue.depth.max")
+                .set(depths.values().stream().mapToInt(Integer::intValue).max().orElse(0));
+    }
+
+    private AtomicInteger queueDepth(String taskType, String name) {
+        return queueDepths.computeIfAbsent(taskType + ":" + name, key -> registry.gauge(
+                name, Tags.of("type", taskType), new AtomicInteger(0)));
+    }
+
+    /**
+     * Record how long a sync task waited between becoming due and being claimed.
+     */
+    public void recordQueueWait(String taskType, long waitMs) {
+        Timer.builder("cloudmesh.sync.queue.wait")
+                .tag("type", taskType)
+                .description("Time sync tasks wait between becoming due and being claimed")
+                .register(registry)
+                .record(waitMs, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Record resource sync duration.
      */
@@ -73,6 +167,65 @@ public class MetricsService {
                 .record(durationMs, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Record how long a sync write transaction held its database connection.
+     */
+    public void recordConnectionHoldTime(String provider, long durationMs) {
+        Timer.builder("cloudmesh.sync.connection.hold")
+                .tag("provider", provider)
+                .description("Time a resource sync held a database connection")
+                .register(registry)
+                .record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record time a resource sync spent in one stage (auth, list, map, write, rules).
+     */
+    public void recordSyncStage(String provider, String stage, long durationMs) {
+        Timer.builder("cloudmesh.sync.stage")
+                .tag("provider", provider)
+                .tag("stage", stage)
+                .description("Resource sync time by stage")
+                .register(registry)
+                .record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record provider pages listed by a resource sync and how many provider
+     * calls were throttled.
+     */
+    public void recordSyncPages(String provider, long pages, long throttles) {
+        Counter.builder("cloudmesh.sync.pages")
+                .tag("provider", provider)
+                .description("Provider pages listed by resource sync")
+                .register(registry)
+                .increment(pages);
+        Counter.builder("cloudmesh.sync.throttles")
+                .tag("provider", provider)
+                .description("Provider calls rejected as rate limited during resource sync")
+                .register(registry)
+                .increment(throttles);
+    }
+
+    /**
+     * Record the inventory delta produced by a resource sync.
+     */
+    public void recordSyncChanges(String provider, SyncResult result) {
+        recordSyncChange(provider, "added", result.added());
+        recordSyncChange(provider, "changed", result.changed());
+        recordSyncChange(provider, "removed", result.removed());
+        recordSyncChange(provider, "unchanged", result.unchanged());
+    }
+
+    private void recordSyncChange(String provider, String change, int count) {
+        Counter.builder("cloudmesh.sync.resources")
+                .tag("provider", provider)
+                .tag("change", change)
+                .description("Resources seen by sync, by kind of change")
+                .register(registry)
+                .increment(count);
+    }
+
     /**
      * Record successful cost sync.
      */
@@ -126,6 +279,32 @@ public class MetricsService {
                 .increment();
     }
 
+    /**
+     * Publish a freshness aggregate: per provider, the age of the oldest
+     * active credential's last successful sync and how many credentials are
+     * past the freshness SLO; across tenants, quantiles of each tenant's
+     * oldest age; and the credential total and estimated resource and project totals.
+     */
+    public void recordInventoryFreshness(InventoryFreshness freshness) {
+        int activeCredentials = 0;
+        for (CloudProvider provider : CloudProvider.values()) {
+            InventoryFreshness.ProviderFreshness providerFreshness = freshness.providers().get(provider);
+            oldestSyncAges.get(provider).set(providerFreshness != null ? providerFreshness.oldestSeconds() : 0);
+            staleCredentials.get(provider).set(providerFreshness != null ? providerFreshness.staleCredentials() : 0);
+            activeCredentials += providerFreshness != null ? providerFreshness.activeCredentials() : 0;
+        }
+
+        InventoryFreshness.TenantFreshness tenants = freshness.tenants();
+        tenantSyncAges.get("0.5").set(tenants.p50Seconds());
+        tenantSyncAges.get("0.95").set(tenants.p95Seconds());
+        tenantSyncAges.get("0.99").set(tenants.p99Seconds());
+        tenantSyncAges.get("1.0").set(tenants.maxSeconds());
+
+        updateActiveCredentials(activeCredentials);
+        updateTotalResources((int) Math.min(freshness.totalResources(), Integer.MAX_VALUE));
+        updateTotalProjects((int) Math.min(freshness.totalProjects(), Integer.MAX_VALUE));
+    }
+
     /**
      * Update active credentials count.
      */
@@ -0,0 +1,23 @@
+package app.cmesh.project;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for rule-based resource assignment.
+ * Bound from application.properties under cloudmesh.assignment.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cloudmesh.assignment")
+@Getter
+@Setter
+public class AssignmentProperties {
+
+    /**
+     * Resources assigned per statement, and per transaction, when all rules
+     * are re-applied in the database or applied to the resources a sync wrote.
+     */
+    private int chunkSize = 5000;
+}
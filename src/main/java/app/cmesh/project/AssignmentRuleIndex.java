@@ -0,0 +1,47 @@
+package app.cmesh.project;
+
+import app.cmesh.project.repository.ResourceAssignmentRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the {@link CompiledRules} of the enabled assignment rules.
+ * Every lookup compares the rules table's {@link RuleSetVersion} with the
+ * one the index was built from and recompiles on a difference, so rule
+ * changes made on any node are picked up. A rebuilt index replaces the old
+ * one in a single write; readers see either the old or the new index.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AssignmentRuleIndex {
+
+    private final ResourceAssignmentRuleRepository ruleRepository;
+
+    private volatile Compiled compiled;
+
+    private record Compiled(RuleSetVersion version, CompiledRules rules) {
+    }
+
+    CompiledRules current() {
+        RuleSetVersion version = ruleRepository.currentVersion();
+        Compiled current = compiled;
+        if (current != null && current.version().equals(version)) {
+            return current.rules();
+        }
+        synchronized (this) {
+            current = compiled;
+            if (current != null && current.version().equals(version)) {
+                return current.rules();
+            }
+            long startTime = System.currentTimeMillis();
+            // Read after the version: a change in between only causes one more rebuild
+            CompiledRules rules = CompiledRules.compile(ruleRepository.findByEnabledTrueOrderByPriorityDesc());
+            compiled = new Compiled(version, rules);
+            log.info("[ResourceAssignment] Compiled {} rules in {}ms", rules.size(),
+                    System.currentTimeMillis() - startTime);
+            return rules;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package app.cmesh.project;
+
+import java.util.UUID;
+
+/**
+ * Published when an assignment rule is created, deleted or re-prioritized.
+ */
+public record AssignmentRulesChangedEvent(UUID ruleId) {
+}
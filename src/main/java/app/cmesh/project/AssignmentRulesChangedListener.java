@@ -0,0 +1,33 @@
+package app.cmesh.project;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Runs a full rule re-evaluation after a rule change has been committed.
+ * Kept separate from {@link ResourceAssignmentService} so the call goes
+ * through the transactional proxy; REQUIRES_NEW because the publishing
+ * transaction has already committed when this runs.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AssignmentRulesChangedListener {
+
+    private final ResourceAssignmentService assignmentService;
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onRulesChanged(AssignmentRulesChangedEvent event) {
+        log.info("[ResourceAssignment] Rule {} changed, re-evaluating all resources", event.ruleId());
+        try {
+            assignmentService.applyAssignmentRules();
+        } catch (Exception e) {
+            log.warn("[ResourceAssignment] Failed to re-apply rules after change: {}", e.getMessage());
+        }
+    }
+}
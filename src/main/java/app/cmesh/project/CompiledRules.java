@@ -0,0 +1,302 @@
+package app.cmesh.project;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Immutable index of enabled assignment rules for first-match lookups.
+ * Each rule is filed under one of its conditions, its anchor, that a
+ * resource's tags must satisfy for the rule to match:
+ * <ul>
+ *   <li>the key=value pair of its exact conditions the fewest rules share,</li>
+ *   <li>else every value of its smallest IN predicate,</li>
+ *   <li>else the prefixes of a PREFIX predicate, in a trie per tag key,</li>
+ *   <li>else the key of a MATCHES predicate.</li>
+ * </ul>
+ * A resource only checks the rules anchored on one of its own tags, so
+ * finding its first match costs about the number of its tags rather than
+ * the number of rules. Rules made only of ABSENT predicates have no anchor
+ * and are checked for every resource.
+ */
+final class CompiledRules {
+
+    static final CompiledRules EMPTY = new CompiledRules(List.of(), Map.of(), Map.of(), Map.of(), List.of());
+
+    private final List<CompiledRule> rules;
+    // Tag key -> tag value -> rules anchored on that pair, by ascending rank
+    private final Map<String, Map<String, List<CompiledRule>>> byAnchor;
+    private final Map<String, PrefixTrie<CompiledRule>> byPrefix;
+    private final Map<String, List<CompiledRule>> byKey;
+    private final List<CompiledRule> unanchored;
+
+    private CompiledRules(List<CompiledRule> rules,
+                          Map<String, Map<String, List<CompiledRule>>> byAnchor,
+                          Map<String, PrefixTrie<CompiledRule>> byPrefix,
+                          Map<String, List<CompiledRule>> byKey,
+                          List<CompiledRule> unanchored) {
+        this.rules = rules;
+        this.byAnchor = byAnchor;
+        this.byPrefix = byPrefix;
+        this.byKey = byKey;
+        this.unanchored = unanchored;
+    }
+
+    /**
+     * A rule reduced to what matching needs. rank is the rule's position in
+     * priority order; the lowest-ranked match wins.
+     *
+     * @param predicates the rule's tag predicates, keyed the same way as
+     *                   matchers; empty for rules of exact conditions only
+     */
+    record CompiledRule(int rank, UUID ruleId, UUID projectId, Map<String, String> conditions,
+                        List<TagPredicate> predicates, List<TagMatcher> matchers) {
+
+        /**
+         * Null tags are no tags, as in {@link #firstMatch}, so a preview and
+         * a sync agree on every resource.
+         */
+        boolean matches(Map<String, String> tags) {
+            Map<String, String> present = tags != null ? tags : Map.of();
+            for (Map.Entry<String, String> condition : conditions.entrySet()) {
+                if (!condition.getValue().equals(present.get(condition.getKey()))) {
+                    return false;
+                }
+            }
+            for (TagMatcher matcher : matchers) {
+                if (!matcher.test().test(present.get(matcher.key()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Tag keys a matching resource must have, beyond those of its exact conditions.
+         */
+        List<String> requiredKeys() {
+            return predicates.stream()
+                    .filter(predicate -> predicate.op() != TagPredicate.Operator.ABSENT)
+                    .map(TagPredicate::key)
+                    .distinct()
+                    .toList();
+        }
+    }
+
+    record TagMatcher(String key, Predicate<String> test) {
+    }
+
+    /**
+     * @param rules enabled rules, highest priority first. Rules that
+     *              can't match (see {@link #canMatch}) are left out.
+     */
+    static CompiledRules compile(List<ResourceAssignmentRule> rules) {
+        List<CompiledRule> compiled = new ArrayList<>(rules.size());
+        Map<String, Map<String, Integer>> pairCounts = new HashMap<>();
+        for (ResourceAssignmentRule rule : rules) {
+            if (!canMatch(rule)) {
+                continue;
+            }
+            Map<String, String> conditions = conditionsOf(rule);
+            List<TagPredicate> predicates = predicatesOf(rule);
+            List<TagMatcher> matchers = predicates.stream()
+                    .map(predicate -> new TagMatcher(predicate.key(), predicate.toMatcher()))
+                    .toList();
+            compiled.add(new CompiledRule(compiled.size(), rule.getRuleId(),
+                    rule.getProject().getProjectId(), conditions, predicates, matchers));
+            conditions.forEach((key, value) -> pairCounts
+                    .computeIfAbsent(key, k -> new HashMap<>())
+                    .merge(value, 1, Integer::sum));
+        }
+
+        // Rules are visited in rank order, so every list below stays sorted by rank
+        Map<String, Map<String, List<CompiledRule>>> byAnchor = new HashMap<>();
+        Map<String, PrefixTrie<CompiledRule>> byPrefix = new HashMap<>();
+        Map<String, List<CompiledRule>> byKey = new HashMap<>();
+        List<CompiledRule> unanchored = new ArrayList<>();
+        for (CompiledRule rule : compiled) {
+            Map.Entry<String, String> anchor = rarestCondition(rule, pairCounts);
+            if (anchor != null) {
+                anchorOn(byAnchor, anchor.getKey(), anchor.getValue(), rule);
+                continue;
+            }
+            TagPredicate in = rule.predicates().stream()
+                    .filter(predicate -> predicate.op() == TagPredicate.Operator.IN)
+                    .min(Comparator.comparingInt(predicate -> predicate.values().size()))
+                    .orElse(null);
+            if (in != null) {
+                // A set may repeat a value; anchor once per distinct value
+                in.values().stream().distinct().forEach(value -> anchorOn(byAnchor, in.key(), value, rule));
+                continue;
+            }
+            TagPredicate prefix = firstOf(rule, TagPredicate.Operator.PREFIX);
+            if (prefix != null) {
+                PrefixTrie<CompiledRule> trie = byPrefix.computeIfAbsent(prefix.key(), k -> new PrefixTrie<>());
+                prefix.values().stream().distinct().forEach(value -> trie.put(value, rule));
+                continue;
+            }
+            TagPredicate pattern = firstOf(rule, TagPredicate.Operator.MATCHES);
+            if (pattern != null) {
+                byKey.computeIfAbsent(pattern.key(), k -> new ArrayList<>()).add(rule);
+                continue;
+            }
+            unanchored.add(rule);
+        }
+
+        Map<String, Map<String, List<CompiledRule>>> frozen = new HashMap<>();
+        byAnchor.forEach((key, values) -> {
+            Map<String, List<CompiledRule>> frozenValues = new HashMap<>();
+            values.forEach((value, anchored) -> frozenValues.put(value, List.copyOf(anchored)));
+            frozen.put(key, Map.copyOf(frozenValues));
+        });
+        Map<String, List<CompiledRule>> frozenKeys = new HashMap<>();
+        byKey.forEach((key, anchored) -> frozenKeys.put(key, List.copyOf(anchored)));
+        return new CompiledRules(List.copyOf(compiled), Map.copyOf(frozen), Map.copyOf(byPrefix),
+                Map.copyOf(frozenKeys), List.copyOf(unanchored));
+    }
+
+    private static Map.Entry<String, String> rarestCondition(CompiledRule rule,
+                                                             Map<String, Map<String, Integer>> pairCounts) {
+        Map.Entry<String, String> anchor = null;
+        int anchorCount = Integer.MAX_VALUE;
+        for (Map.Entry<String, String> condition : rule.conditions().entrySet()) {
+            int count = pairCounts.get(condition.getKey()).get(condition.getValue());
+            if (count < anchorCount) {
+                anchor = condition;
+                anchorCount = count;
+            }
+        }
+        return anchor;
+    }
+
+    private static TagPredicate firstOf(CompiledRule rule, TagPredicate.Operator op) {
+        for (TagPredicate predicate : rule.predicates()) {
+            if (predicate.op() == op) {
+                return predicate;
+            }
+        }
+        return null;
+    }
+
+    private static void anchorOn(Map<String, Map<String, List<CompiledRule>>> byAnchor,
+                                 String key, String value, CompiledRule rule) {
+        byAnchor.computeIfAbsent(key, k -> new HashMap<>())
+                .computeIfAbsent(value, v -> new ArrayList<>())
+                .add(rule);
+    }
+
+    /**
+     * False for rules with neither conditions nor predicates, with a null
+     * condition key or value, or with a predicate that fails
+     * {@link TagPredicate#validate()}.
+     */
+    static boolean canMatch(ResourceAssignmentRule rule) {
+        Map<String, String> conditions = rule.getTagConditions();
+        List<TagPredicate> predicates = rule.getTagPredicates();
+        boolean noConditions = conditions == null || conditions.isEmpty();
+        boolean noPredicates = predicates == null || predicates.isEmpty();
+        if (noConditions && noPredicates) {
+            return false;
+        }
+        if (!noConditions) {
+            for (Map.Entry<String, String> condition : conditions.entrySet()) {
+                if (condition.getKey() == null || condition.getValue() == null) {
+                    return false;
+                }
+            }
+        }
+        if (!noPredicates) {
+            for (TagPredicate predicate : predicates) {
+                try {
+                    if (predicate == null) {
+                        return false;
+                    }
+                    predicate.validate();
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, String> conditionsOf(ResourceAssignmentRule rule) {
+        return rule.getTagConditions() != null ? Map.copyOf(rule.getTagConditions()) : Map.of();
+    }
+
+    private static List<TagPredicate> predicatesOf(ResourceAssignmentRule rule) {
+        return rule.getTagPredicates() != null ? List.copyOf(rule.getTagPredicates()) : List.of();
+    }
+
+    /**
+     * The highest priority rule whose conditions and predicates all hold for the tags, or null.
+     */
+    CompiledRule firstMatch(Map<String, String> tags) {
+        Map<String, String> present = tags != null ? tags : Map.of();
+        Search search = new Search(present);
+        for (Map.Entry<String, String> tag : present.entrySet()) {
+            String value = tag.getValue();
+            if (value == null) {
+                continue;
+            }
+            Map<String, List<CompiledRule>> values = byAnchor.get(tag.getKey());
+            if (values != null) {
+                search.offer(values.get(value));
+            }
+            PrefixTrie<CompiledRule> trie = byPrefix.get(tag.getKey());
+            if (trie != null) {
+                trie.forEachPrefixOf(value, search::offer);
+            }
+            search.offer(byKey.get(tag.getKey()));
+        }
+        search.offer(unanchored);
+        return search.best;
+    }
+
+    /**
+     * Best match so far while the candidate lists of one resource are offered.
+     */
+    private static final class Search {
+
+        private final Map<String, String> tags;
+        private CompiledRule best;
+
+        private Search(Map<String, String> tags) {
+            this.tags = tags;
+        }
+
+        void offer(List<CompiledRule> candidates) {
+            if (candidates == null) {
+                return;
+            }
+            for (CompiledRule rule : candidates) {
+                if (best != null && rule.rank() >= best.rank()) {
+                    return;
+                }
+                if (rule.matches(tags)) {
+                    best = rule;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiled rules in rank order.
+     */
+    List<CompiledRule> rules() {
+        return rules;
+    }
+
+    int size() {
+        return rules.size();
+    }
+
+    boolean isEmpty() {
+        return rules.isEmpty();
+    }
+}
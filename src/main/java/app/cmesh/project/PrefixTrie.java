@@ -0,0 +1,51 @@
+package app.cmesh.project;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Character trie from string prefixes to the values filed under them.
+ * Finding every value whose prefix starts a string walks the string once,
+ * however many prefixes are stored. Not thread-safe while being built;
+ * read-only use after publication is.
+ */
+final class PrefixTrie<T> {
+
+    private final Node<T> root = new Node<>();
+
+    private static final class Node<T> {
+        private final Map<Character, Node<T>> children = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+    }
+
+    void put(String prefix, T value) {
+        Node<T> node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node<>());
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Passes the values filed under each prefix of text to visitor, shortest
+     * prefix first, in the order they were put.
+     */
+    void forEachPrefixOf(String text, Consumer<List<T>> visitor) {
+        Node<T> node = root;
+        if (!node.values.isEmpty()) {
+            visitor.accept(node.values);
+        }
+        for (int i = 0; i < text.length(); i++) {
+            node = node.children.get(text.charAt(i));
+            if (node == null) {
+                return;
+            }
+            if (!node.values.isEmpty()) {
+                visitor.accept(node.values);
+            }
+        }
+    }
+}
@@ -5,15 +5,19 @@ import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 /**
  * Entity representing a tag-based rule for automatically assigning resources to
  * projects.
+ * A resource matches when its tags contain every exact tag condition and
+ * satisfy every {@link TagPredicate}.
  * Rules are evaluated in priority order (higher priority first).
  */
 @Data
@@ -37,6 +41,10 @@ public class ResourceAssignmentRule {
     @Column(name = "tag_conditions", columnDefinition = "jsonb", nullable = false)
     private Map<String, String> tagConditions; // Tags that resource must have to match
 
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "tag_predicates", columnDefinition = "jsonb")
+    private List<TagPredicate> tagPredicates; // Further conditions, e.g. IN, PREFIX; null for none
+
     @Column(nullable = false)
     private Integer priority = 0; // Higher priority rules evaluated first
 
@@ -49,4 +57,8 @@ public class ResourceAssignmentRule {
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt; // Null for rules last written before the column existed
 }
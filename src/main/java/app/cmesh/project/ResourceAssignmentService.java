@@ -3,13 +3,21 @@ package app.cmesh.project;
 import app.cmesh.dashboard.Project;
 import app.cmesh.dashboard.Resource;
 import app.cmesh.dashboard.repository.ProjectRepository;
+import app.cmesh.dashboard.repository.ResourceBulkRepository;
 import app.cmesh.dashboard.repository.ResourceRepository;
+import app.cmesh.project.dto.BulkAssignmentResult;
+import app.cmesh.project.dto.RulePreview;
 import app.cmesh.project.repository.ResourceAssignmentRuleRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -20,49 +28,326 @@ import java.util.UUID;
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class ResourceAssignmentService {
 
     private final ResourceRepository resourceRepository;
     private final ProjectRepository projectRepository;
     private final ResourceAssignmentRuleRepository ruleRepository;
+    private final AssignmentRuleIndex ruleIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AssignmentProperties properties;
+    private final TransactionTemplate chunkTransaction;
+
+    public ResourceAssignmentService(ResourceRepository resourceRepository,
+                                     ProjectRepository projectRepository,
+                                     ResourceAssignmentRuleRepository ruleRepository,
+                                     AssignmentRuleIndex ruleIndex,
+                                     ApplicationEventPublisher eventPublisher,
+                                     AssignmentProperties properties,
+                                     PlatformTransactionManager transactionManager) {
+        this.resourceRepository = resourceRepository;
+        this.projectRepository = projectRepository;
+        this.ruleRepository = ruleRepository;
+        this.ruleIndex = ruleIndex;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     /**
-     * Apply all assignment rules to resources.
+     * Apply all assignment rules to all resources, in the database.
      * Only affects resources that are not manually assigned.
+     * Rules run highest priority first, each as a chunked UPDATE matching
+     * tags by jsonb containment, skipping resources a higher priority rule
+     * matches. Each chunk commits on its own, so neither the heap nor a
+     * transaction ever holds the whole inventory.
+     * Once a rule with tag predicates is reached, the database can no longer
+     * tell which rule comes first, so from there on it only narrows each
+     * rule's candidates and the compiled rules pick the ones it wins.
+     * This is a full re-evaluation; sync uses {@link #applyAssignmentRules(Collection)}.
      */
-    @Transactional
     public void applyAssignmentRules() {
         log.info("[ResourceAssignment] Starting rule application");
         long startTime = System.currentTimeMillis();
 
-        List<ResourceAssignmentRule> rules = ruleRepository.findByEnabledTrueOrderByPriorityDesc();
+        CompiledRules rules = ruleIndex.current();
         log.info("[ResourceAssignment] Found {} enabled rules", rules.size());
 
-        // Get all resources that are not manually assigned
-        List<Resource> resources = resourceRepository.findAll().stream()
-                .filter(r -> r.getManuallyAssigned() == null || !r.getManuallyAssigned())
-                .toList();
+        int chunkSize = properties.getChunkSize();
+        int assignedCount = 0;
+        boolean setBased = true;
+        List<Map<String, String>> higherPriority = new ArrayList<>();
+        for (CompiledRules.CompiledRule rule : rules.rules()) {
+            setBased &= rule.predicates().isEmpty();
+            if (setBased) {
+                List<Map<String, String>> excluded = List.copyOf(higherPriority);
+                int assigned;
+                do {
+                    assigned = chunkTransaction.execute(status -> resourceRepository.assignMatching(
+                            rule.projectId(), rule.conditions(), excluded, chunkSize));
+                    assignedCount += assigned;
+                } while (assigned == chunkSize);
+                higherPriority.add(rule.conditions());
+            } else {
+                assignedCount += assignCandidates(rule, rules, chunkSize);
+            }
+        }
 
-        log.info("[ResourceAssignment] Processing {} auto-assignable resources", resources.size());
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("[ResourceAssignment] Completed in {}ms - {} resources assigned", duration, assignedCount);
+    }
 
+    /**
+     * Page through the resources the database finds for the rule and assign
+     * those whose first match it is, one transaction per page.
+     */
+    private int assignCandidates(CompiledRules.CompiledRule rule, CompiledRules rules, int chunkSize) {
+        List<String> keys = rule.requiredKeys();
         int assignedCount = 0;
-        for (Resource resource : resources) {
-            // Try to match against rules (highest priority first)
-            for (ResourceAssignmentRule rule : rules) {
-                if (matchesRule(resource, rule)) {
-                    resource.setProject(rule.getProject());
-                    resourceRepository.save(resource);
-                    assignedCount++;
-                    log.debug("[ResourceAssignment] Assigned resource {} to project {} via rule {}",
-                            resource.getResourceName(), rule.getProject().getProjectName(), rule.getRuleId());
-                    break; // Stop at first matching rule
+        UUID after = null;
+        List<ResourceBulkRepository.TaggedResource> page;
+        do {
+            UUID pageAfter = after;
+            page = resourceRepository.findAssignable(rule.projectId(), rule.conditions(), keys, pageAfter, chunkSize);
+            List<UUID> won = new ArrayList<>();
+            for (ResourceBulkRepository.TaggedResource candidate : page) {
+                if (rules.firstMatch(candidate.tags()) == rule) {
+                    won.add(candidate.resourceId());
                 }
             }
+            if (!won.isEmpty()) {
+                assignedCount += chunkTransaction.execute(status ->
+                        resourceRepository.assignProject(rule.projectId(), won));
+            }
+            if (!page.isEmpty()) {
+                after = page.getLast().resourceId();
+            }
+        } while (page.size() == chunkSize);
+        return assignedCount;
+    }
+
+    /**
+     * Apply all assignment rules to the given resources only.
+     * Used after a sync so that only added or changed resources are evaluated.
+     * The resources are loaded and saved a chunk at a time, each chunk in its
+     * own transaction, so a first sync of a large account neither binds every
+     * id in one statement nor holds every entity in one persistence context.
+     */
+    public void applyAssignmentRules(Collection<UUID> resourceIds) {
+        long startTime = System.currentTimeMillis();
+
+        CompiledRules rules = ruleIndex.current();
+        if (rules.isEmpty()) {
+            return;
+        }
+
+        List<UUID> ids = List.copyOf(resourceIds);
+        int chunkSize = properties.getChunkSize();
+        int assignedCount = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            assignedCount += chunkTransaction.execute(status ->
+                    assign(resourceRepository.findAllById(chunk), rules));
         }
 
         long duration = System.currentTimeMillis() - startTime;
-        log.info("[ResourceAssignment] Completed in {}ms - {} resources assigned", duration, assignedCount);
+        log.info("[ResourceAssignment] Evaluated {} changed resources in {}ms - {} resources assigned",
+                resourceIds.size(), duration, assignedCount);
+    }
+
+    /**
+     * Create a rule and re-evaluate all resources once the rule is committed.
+     *
+     * @throws IllegalArgumentException if the project doesn't exist or a predicate is invalid
+     */
+    @Transactional
+    public ResourceAssignmentRule createRule(UUID projectId, Map<String, String> tagConditions,
+                                             List<TagPredicate> tagPredicates, Integer priority,
+                                             String description) {
+        validatePredicates(tagPredicates);
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new IllegalArgumentException("Project not found: " + projectId));
+
+        ResourceAssignmentRule rule = new ResourceAssignmentRule();
+        rule.setProject(project);
+        rule.setTagConditions(tagConditions != null ? tagConditions : Map.of());
+        rule.setTagPredicates(tagPredicates == null || tagPredicates.isEmpty() ? null : tagPredicates);
+        rule.setPriority(priority != null ? priority : 0);
+        rule.setDescription(description);
+        rule.setEnabled(true);
+
+        ResourceAssignmentRule saved = ruleRepository.save(rule);
+        eventPublisher.publishEvent(new AssignmentRulesChangedEvent(saved.getRuleId()));
+
+        log.info("[ResourceAssignment] Created rule {} for project {}", saved.getRuleId(), project.getProjectName());
+        return saved;
+    }
+
+    /**
+     * Evaluate a proposed rule against the current inventory, ranked among
+     * the enabled rules by its priority, without writing anything. Only the
+     * resources the database finds for the rule's exact conditions and
+     * predicate keys are read, a chunk at a time, and only the requested
+     * page of affected resources is kept.
+     *
+     * @param page zero-based page of the affected resources to return
+     * @throws IllegalArgumentException if the project doesn't exist or the rule can never match
+     */
+    @Transactional(readOnly = true)
+    public RulePreview previewRule(UUID projectId, Map<String, String> tagConditions,
+                                   List<TagPredicate> tagPredicates, Integer priority, int page, int size) {
+        validatePredicates(tagPredicates);
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new IllegalArgumentException("Project not found: " + projectId));
+
+        ResourceAssignmentRule proposed = new ResourceAssignmentRule();
+        proposed.setRuleId(UUID.randomUUID());
+        proposed.setProject(project);
+        proposed.setTagConditions(tagConditions);
+        proposed.setTagPredicates(tagPredicates);
+        proposed.setPriority(priority != null ? priority : 0);
+        if (!CompiledRules.canMatch(proposed)) {
+            throw new IllegalArgumentException("Rule has no conditions that can match");
+        }
+
+        // The proposed rule ranks after enabled rules of the same priority
+        List<ResourceAssignmentRule> ordered = new ArrayList<>();
+        boolean ranked = false;
+        for (ResourceAssignmentRule rule : ruleRepository.findByEnabledTrueOrderByPriorityDesc()) {
+            if (!ranked && rule.getPriority() < proposed.getPriority()) {
+                ordered.add(proposed);
+                ranked = true;
+            }
+            ordered.add(rule);
+        }
+        if (!ranked) {
+            ordered.add(proposed);
+        }
+        CompiledRules rules = CompiledRules.compile(ordered);
+        CompiledRules.CompiledRule candidateRule = rules.rules().stream()
+                .filter(rule -> rule.ruleId().equals(proposed.getRuleId()))
+                .findFirst()
+                .orElseThrow();
+
+        long matched = 0;
+        long claimed = 0;
+        long reassigned = 0;
+        long unchanged = 0;
+        long shadowed = 0;
+        long manual = 0;
+        long firstAffected = (long) page * size;
+        List<RulePreview.AffectedResource> affected = new ArrayList<>();
+        List<String> keys = candidateRule.requiredKeys();
+        int chunkSize = properties.getChunkSize();
+        UUID after = null;
+        List<ResourceBulkRepository.RuleCandidate> chunk;
+        do {
+            chunk = resourceRepository.findRuleCandidates(candidateRule.conditions(), keys, after, chunkSize);
+            for (ResourceBulkRepository.RuleCandidate candidate : chunk) {
+                if (!candidateRule.matches(candidate.tags())) {
+                    continue;
+                }
+                matched++;
+                if (candidate.manuallyAssigned()) {
+                    manual++;
+                } else if (rules.firstMatch(candidate.tags()) != candidateRule) {
+                    shadowed++;
+                } else if (projectId.equals(candidate.projectId())) {
+                    unchanged++;
+                } else {
+                    if (claimed + reassigned >= firstAffected && affected.size() < size) {
+                        affected.add(new RulePreview.AffectedResource(candidate.resourceId(),
+                                candidate.resourceName(), candidate.provider(), candidate.projectId()));
+                    }
+                    if (candidate.projectId() == null) {
+                        claimed++;
+                    } else {
+                        reassigned++;
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                after = chunk.getLast().resourceId();
+            }
+        } while (chunk.size() == chunkSize);
+
+        return new RulePreview(matched, claimed, reassigned, unchanged, shadowed, manual, page, size, affected);
+    }
+
+    private static void validatePredicates(List<TagPredicate> tagPredicates) {
+        if (tagPredicates == null) {
+            return;
+        }
+        for (TagPredicate predicate : tagPredicates) {
+            if (predicate == null) {
+                throw new IllegalArgumentException("Null tag predicate");
+            }
+            predicate.validate();
+        }
+    }
+
+    /**
+     * Delete a rule and re-evaluate all resources once the deletion is committed.
+     */
+    @Transactional
+    public void deleteRule(UUID ruleId) {
+        if (!ruleRepository.existsById(ruleId)) {
+            throw new IllegalArgumentException("Rule not found: " + ruleId);
+        }
+
+        ruleRepository.deleteById(ruleId);
+        eventPublisher.publishEvent(new AssignmentRulesChangedEvent(ruleId));
+
+        log.info("[ResourceAssignment] Deleted rule {}", ruleId);
+    }
+
+    /**
+     * Change a rule's priority and re-evaluate all resources once committed.
+     */
+    @Transactional
+    public ResourceAssignmentRule updateRulePriority(UUID ruleId, int priority) {
+        ResourceAssignmentRule rule = ruleRepository.findById(ruleId)
+                .orElseThrow(() -> new IllegalArgumentException("Rule not found: " + ruleId));
+
+        if (rule.getPriority() != null && rule.getPriority() == priority) {
+            return rule;
+        }
+
+        rule.setPriority(priority);
+        ResourceAssignmentRule saved = ruleRepository.save(rule);
+        eventPublisher.publishEvent(new AssignmentRulesChangedEvent(ruleId));
+
+        log.info("[ResourceAssignment] Rule {} priority changed to {}", ruleId, priority);
+        return saved;
+    }
+
+    /**
+     * Assign each auto-assignable resource to the project of its first matching rule.
+     * Resources that already belong to that project are not saved again.
+     */
+    private int assign(List<Resource> resources, CompiledRules rules) {
+        List<Resource> changed = new ArrayList<>();
+        for (Resource resource : resources) {
+            if (Boolean.TRUE.equals(resource.getManuallyAssigned())) {
+                continue;
+            }
+
+            CompiledRules.CompiledRule rule = rules.firstMatch(resource.getTags());
+            if (rule == null) {
+                continue;
+            }
+            Project current = resource.getProject();
+            if (current == null || !current.getProjectId().equals(rule.projectId())) {
+                resource.setProject(projectRepository.getReferenceById(rule.projectId()));
+                changed.add(resource);
+                log.debug("[ResourceAssignment] Assigned resource {} to project {} via rule {}",
+                        resource.getResourceName(), rule.projectId(), rule.ruleId());
+            }
+        }
+
+        resourceRepository.saveAll(changed);
+        return changed.size();
     }
 
     /**
@@ -104,29 +389,57 @@ public class ResourceAssignmentService {
     }
 
     /**
-     * Check if a resource matches a rule's tag conditions.
-     * Resource must have ALL tags specified in the rule.
+     * Manually assign many resources to a project with one statement.
+     * The project is looked up once; unknown resource ids are reported, not fatal.
+     *
+     * @throws IllegalArgumentException if the project doesn't exist
      */
-    private boolean matchesRule(Resource resource, ResourceAssignmentRule rule) {
-        Map<String, String> resourceTags = resource.getTags();
-        Map<String, String> ruleConditions = rule.getTagConditions();
+    @Transactional
+    public BulkAssignmentResult manuallyAssignAll(UUID projectId, Collection<UUID> resourceIds) {
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new IllegalArgumentException("Project not found: " + projectId));
 
-        if (resourceTags == null || resourceTags.isEmpty()) {
-            return false;
-        }
+        BulkAssignmentResult result = summarize(projectId, resourceIds,
+                resourceIds.isEmpty() ? Map.of() : resourceRepository.assignManually(projectId, resourceIds));
 
-        if (ruleConditions == null || ruleConditions.isEmpty()) {
-            return false;
-        }
+        log.info("[ResourceAssignment] Manually assigned {} of {} resources to project {}",
+                result.updated(), result.requested(), project.getProjectName());
+        return result;
+    }
+
+    /**
+     * Remove the manual assignment of many resources with one statement.
+     * The resources become eligible for auto-assignment again.
+     */
+    @Transactional
+    public BulkAssignmentResult removeManualAssignments(Collection<UUID> resourceIds) {
+        BulkAssignmentResult result = summarize(null, resourceIds,
+                resourceIds.isEmpty() ? Map.of() : resourceRepository.releaseManualAssignments(resourceIds));
+
+        log.info("[ResourceAssignment] Removed manual assignment from {} of {} resources",
+                result.updated(), result.requested());
+        return result;
+    }
 
-        // Resource must have ALL tags from rule with exact values
-        for (Map.Entry<String, String> condition : ruleConditions.entrySet()) {
-            String resourceValue = resourceTags.get(condition.getKey());
-            if (resourceValue == null || !resourceValue.equals(condition.getValue())) {
-                return false;
+    /**
+     * @param resourceIds distinct ids, in the order they were requested
+     */
+    private static BulkAssignmentResult summarize(UUID projectId, Collection<UUID> resourceIds,
+                                                  Map<UUID, BulkAssignmentResult.Outcome> outcomes) {
+        List<BulkAssignmentResult.Item> items = new ArrayList<>(resourceIds.size());
+        int updated = 0;
+        int unchanged = 0;
+        int notFound = 0;
+        for (UUID resourceId : resourceIds) {
+            BulkAssignmentResult.Outcome outcome =
+                    outcomes.getOrDefault(resourceId, BulkAssignmentResult.Outcome.NOT_FOUND);
+            switch (outcome) {
+                case UPDATED -> updated++;
+                case UNCHANGED -> unchanged++;
+                case NOT_FOUND -> notFound++;
             }
+            items.add(new BulkAssignmentResult.Item(resourceId, outcome));
         }
-
-        return true;
+        return new BulkAssignmentResult(projectId, resourceIds.size(), updated, unchanged, notFound, items);
     }
 }
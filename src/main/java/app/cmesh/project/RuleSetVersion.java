@@ -0,0 +1,12 @@
+package app.cmesh.project;
+
+import java.time.Instant;
+
+/**
+ * Cheap summary of the assignment rules table that changes whenever a rule
+ * is created, updated or deleted.
+ *
+ * @param lastUpdated newest rule update, or null if no rule has one
+ */
+public record RuleSetVersion(Long rules, Instant lastUpdated) {
+}
@@ -0,0 +1,92 @@
+package app.cmesh.project;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A condition on one tag beyond exact equality, stored on a
+ * {@link ResourceAssignmentRule} next to its exact tag conditions.
+ * For example {"key": "env", "op": "IN", "values": ["prod", "staging"]},
+ * {"key": "team", "op": "PREFIX", "values": ["data-"]},
+ * {"key": "Name", "op": "MATCHES", "values": ["^web-\\d+$"]} or
+ * {"key": "owner", "op": "ABSENT"}.
+ *
+ * @param values IN: the accepted values; PREFIX: the accepted prefixes;
+ *               MATCHES: a single regular expression the whole value must
+ *               match; ABSENT: unused
+ */
+public record TagPredicate(String key, Operator op, List<String> values) {
+
+    public enum Operator {
+        IN,
+        PREFIX,
+        MATCHES,
+        ABSENT
+    }
+
+    /**
+     * @throws IllegalArgumentException if the predicate can't be evaluated,
+     *                                  e.g. it lacks values or has a malformed pattern
+     */
+    public void validate() {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("Tag predicate without a key");
+        }
+        if (op == null) {
+            throw new IllegalArgumentException("Tag predicate on " + key + " without an op");
+        }
+        if (op == Operator.ABSENT) {
+            return;
+        }
+        if (values == null || values.isEmpty()) {
+            throw new IllegalArgumentException(op + " predicate on " + key + " needs values");
+        }
+        for (String value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException(op + " predicate on " + key + " has a null value");
+            }
+        }
+        if (op == Operator.MATCHES) {
+            if (values.size() != 1) {
+                throw new IllegalArgumentException("MATCHES predicate on " + key + " takes a single pattern");
+            }
+            Pattern.compile(values.getFirst());
+        }
+    }
+
+    /**
+     * Compiles the predicate into a test on the tag's value, which is null
+     * when the resource lacks the tag. Membership is a hash set lookup and
+     * patterns are compiled here, once.
+     */
+    Predicate<String> toMatcher() {
+        return switch (op) {
+            case IN -> {
+                Set<String> accepted = Set.copyOf(values);
+                yield value -> value != null && accepted.contains(value);
+            }
+            case PREFIX -> {
+                List<String> prefixes = List.copyOf(values);
+                yield value -> {
+                    if (value == null) {
+                        return false;
+                    }
+                    for (String prefix : prefixes) {
+                        if (value.startsWith(prefix)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            case MATCHES -> {
+                Pattern pattern = Pattern.compile(values.getFirst());
+                yield value -> value != null && pattern.matcher(value).matches();
+            }
+            case ABSENT -> Objects::isNull;
+        };
+    }
+}
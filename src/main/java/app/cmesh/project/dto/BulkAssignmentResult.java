@@ -0,0 +1,28 @@
+package app.cmesh.project.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of a bulk manual assignment or unassignment.
+ *
+ * @param projectId the project resources were assigned to, or null for an unassignment
+ * @param items     one entry per distinct requested resource, in request order
+ */
+public record BulkAssignmentResult(
+        UUID projectId,
+        int requested,
+        int updated,
+        int unchanged,
+        int notFound,
+        List<Item> items) {
+
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED, // Already assigned (or released) that way
+        NOT_FOUND
+    }
+
+    public record Item(UUID resourceId, Outcome outcome) {
+    }
+}
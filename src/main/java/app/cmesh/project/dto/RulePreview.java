@@ -0,0 +1,40 @@
+package app.cmesh.project.dto;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * What a proposed assignment rule would do to the current inventory if it
+ * were created and the rules applied.
+ *
+ * @param matched    resources whose tags satisfy the rule
+ * @param claimed    matched resources without a project that would join it
+ * @param reassigned matched resources that would move over from another project
+ * @param unchanged  matched resources already in the project
+ * @param shadowed   matched resources a higher priority rule keeps
+ * @param manual     matched resources left alone because they were assigned by hand
+ * @param affected   page of the claimed and reassigned resources, by resource id
+ */
+public record RulePreview(
+        long matched,
+        long claimed,
+        long reassigned,
+        long unchanged,
+        long shadowed,
+        long manual,
+        int page,
+        int size,
+        List<AffectedResource> affected) {
+
+    /**
+     * @param currentProjectId the project the resource would leave, or null if it has none
+     */
+    public record AffectedResource(
+            UUID resourceId,
+            String resourceName,
+            CloudProvider provider,
+            UUID currentProjectId) {
+    }
+}
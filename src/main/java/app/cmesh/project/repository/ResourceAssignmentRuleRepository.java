@@ -2,7 +2,9 @@ package app.cmesh.project.repository;
 
 import app.cmesh.dashboard.Project;
 import app.cmesh.project.ResourceAssignmentRule;
+import app.cmesh.project.RuleSetVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -28,4 +30,10 @@ public interface ResourceAssignmentRuleRepository extends JpaRepository<Resource
      * Find all enabled rules for a project.
      */
     List<ResourceAssignmentRule> findByProjectAndEnabledTrue(Project project);
+
+    /**
+     * Rule count and newest update; any create, update or delete changes one of them.
+     */
+    @Query("SELECT new app.cmesh.project.RuleSetVersion(count(r), max(r.updatedAt)) FROM ResourceAssignmentRule r")
+    RuleSetVersion currentVersion();
 }
@@ -0,0 +1,59 @@
+package app.cmesh.sync;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/**
+ * Decides when a credential should be synced next, based on whether its
+ * recent syncs found changes.
+ * Busy accounts converge towards minInterval, quiet ones back off
+ * exponentially up to maxInterval. A random jitter spreads due times so
+ * credentials released together are not due together again.
+ */
+@Component
+public class AdaptiveSyncSchedule {
+
+    private final SyncProperties properties;
+    private final RandomGenerator random;
+
+    public AdaptiveSyncSchedule(SyncProperties properties) {
+        this(properties, new Random());
+    }
+
+    AdaptiveSyncSchedule(SyncProperties properties, RandomGenerator random) {
+        this.properties = properties;
+        this.random = random;
+    }
+
+    /**
+     * Next interval after a sync. Halves the interval when the sync found
+     * changes, multiplies it by the backoff factor when it did not, and keeps
+     * it as is when the sync failed (result is null).
+     */
+    public long nextInterval(Long currentIntervalMs, SyncResult result) {
+        long current = currentIntervalMs != null ? currentIntervalMs : properties.getInterval();
+        long next;
+        if (result == null) {
+            next = current;
+        } else if (result.hasChanges()) {
+            next = current / 2;
+        } else {
+            next = (long) (current * properties.getBackoffMultiplier());
+        }
+        long min = properties.getMinInterval().toMillis();
+        long max = properties.getMaxInterval().toMillis();
+        return Math.clamp(next, min, max);
+    }
+
+    /**
+     * Due time for the given interval, with up to +/- jitter applied.
+     */
+    public Instant dueAt(Instant now, long intervalMs) {
+        double jitter = properties.getJitter();
+        double factor = jitter > 0 ? 1.0 + random.nextDouble(-jitter, jitter) : 1.0;
+        return now.plusMillis((long) (intervalMs * factor));
+    }
+}
@@ -0,0 +1,422 @@
+package app.cmesh.sync;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Streaming ingestion for one credential: provider pages flow through a
+ * bounded queue into a mapper and a batch writer.
+ * Pages are produced on virtual threads; when the queue is full a
+ * producer blocks inside the provider's page callback, so no further page is
+ * fetched until the writer catches up. Batches are flushed every batchSize
+ * snapshots or every flushInterval, whichever comes first.
+ * Every batch carries a checkpoint of each source's pages that it completes,
+ * so a later run can resume a source from its last written page.
+ * Time spent listing, mapping and writing, and the pages listed, are added
+ * to the run's {@link SyncRunStats}.
+ */
+@Slf4j
+public final class IngestPipeline {
+
+    /**
+     * Pages through a provider listing from startToken (null for the first
+     * page), handing each page to the consumer together with the token of the
+     * page after it, or null after the last page.
+     * The consumer blocks while the pipeline queue is full.
+     */
+    @FunctionalInterface
+    public interface PageSource<T> {
+        void forEachPage(String startToken, BiConsumer<List<T>, String> pageConsumer) throws Exception;
+    }
+
+    /**
+     * Writes one batch of snapshots together with the checkpoints it
+     * completes, and reports what was added or changed.
+     */
+    @FunctionalInterface
+    public interface BatchWriter {
+        SyncResult write(List<ResourceSnapshot> batch, List<Checkpoint> checkpoints);
+
+        /**
+         * Called with each batch's result once write returned, outside the
+         * WRITE stage's time. The batch's ids are not kept after this.
+         */
+        default void written(SyncResult result) {
+        }
+    }
+
+    /**
+     * A provider listing plus the mapping of its items to snapshots.
+     * The mapper may return null to skip an item.
+     */
+    public record Source<T>(String name, PageSource<T> pages, Function<T, ResourceSnapshot> mapper,
+                            String startToken) {
+
+        public Source(String name, PageSource<T> pages, Function<T, ResourceSnapshot> mapper) {
+            this(name, pages, mapper, null);
+        }
+
+        public Source<T> resumingFrom(String token) {
+            return new Source<>(name, pages, mapper, token);
+        }
+    }
+
+    /**
+     * Progress of one source: every page before nextToken has been written.
+     * A null nextToken means the source has been listed completely.
+     */
+    public record Checkpoint(String source, String nextToken) {
+        public boolean completed() {
+            return nextToken == null;
+        }
+    }
+
+    /**
+     * Totals for a run. seenIds holds every provider resource id reported,
+     * for tombstoning. complete is false when the run was stopped early with
+     * {@link #requestStop()}; what was listed until then has been written.
+     */
+    public record IngestResult(int added, int changed, int unchanged, Set<String> seenIds, boolean complete) {
+    }
+
+    private record Page(Source<?> source, List<?> items, String nextToken, Instant listedAt) {
+        static final Page END = new Page(null, null, null, null);
+    }
+
+    // How often a producer waiting on the full queue checks whether the run was cancelled
+    private static final long ENQUEUE_POLL_MILLIS = 100;
+    // How long cancelled producers get to stop before run() returns without them
+    private static final Duration STOP_GRACE = Duration.ofSeconds(1);
+
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int sourceConcurrency;
+    private volatile boolean stopRequested;
+
+    public IngestPipeline(int queueCapacity, int batchSize, Duration flushInterval, int sourceConcurrency) {
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.sourceConcurrency = sourceConcurrency;
+    }
+
+    /**
+     * Ask a running pipeline to stop: no further pages are fetched, pages
+     * already queued are written with their checkpoints, and run() returns
+     * an incomplete result.
+     */
+    public void requestStop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Streams all sources through the writer. Each source is paged on its own
+     * virtual thread, at most sourceConcurrency at a time, so a run takes
+     * about as long as its slowest source.
+     * The producers are scoped to this call: the first failure cancels the
+     * remaining sources and is rethrown once they have all stopped, so callers
+     * never tombstone against a partial listing.
+     * If the run is still going after timeout, the producers are interrupted
+     * and a {@link SyncTimeoutException} is thrown.
+     * Cancelled producers never block on the queue; run() waits a short
+     * grace period for them to stop and then returns without them, so a
+     * provider call that ignores interrupts can't hold the run past its deadline.
+     */
+    public IngestResult run(List<Source<?>> sources, BatchWriter writer, Duration timeout)
+            throws InterruptedException {
+        return run(sources, writer, timeout, new SyncRunStats());
+    }
+
+    /**
+     * Like {@link #run(List, BatchWriter, Duration)}, adding LIST, MAP and
+     * WRITE time and the number of pages to stats. LIST time excludes time a
+     * producer spent blocked on the full queue.
+     */
+    public IngestResult run(List<Source<?>> sources, BatchWriter writer, Duration timeout, SyncRunStats stats)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        BlockingQueue<Page> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> producerFailure = new AtomicReference<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Semaphore permits = new Semaphore(sourceConcurrency);
+        List<Thread> producers = new ArrayList<>(sources.size());
+
+        for (Source<?> source : sources) {
+            producers.add(Thread.ofVirtual().name("ingest-" + source.name()).unstarted(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        if (!cancelled.get()) {
+                            produce(source, queue, stats, cancelled);
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                } catch (Throwable t) {
+                    if (t instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    if (!stopRequested && !cancelled.get() && producerFailure.compareAndSet(null, t)) {
+                        log.warn("[ResourceSync] Listing {} failed, cancelling remaining sources: {}",
+                                source.name(), t.getMessage());
+                        cancel(producers, cancelled);
+                    }
+                } finally {
+                    if (!cancelled.get()) {
+                        enqueue(queue, Page.END, cancelled);
+                    } else {
+                        // Nobody counts END markers any more; this one only wakes a waiting consumer
+                        queue.offer(Page.END);
+                    }
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+
+        Totals totals = new Totals(stats);
+        boolean complete;
+        try {
+            complete = consume(queue, writer, totals, producers, producerFailure, cancelled, deadline);
+        } catch (Throwable t) {
+            cancel(producers, cancelled);
+            throw t;
+        } finally {
+            queue.clear();
+            // Producers that finished normally are only returning; cancelled ones get the grace period
+            long graceEnd = System.nanoTime() + STOP_GRACE.toNanos();
+            join(producers, cancelled.get() || graceEnd - deadline > 0 ? graceEnd : deadline);
+        }
+
+        Throwable failure = producerFailure.get();
+        if (complete && failure != null) {
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Provider listing failed: " + failure.getMessage(), failure);
+        }
+
+        return new IngestResult(
+                totals.added,
+                totals.changed,
+                totals.seenIds.size() - totals.added - totals.changed,
+                totals.seenIds,
+                complete);
+    }
+
+    private static void cancel(List<Thread> producers, AtomicBoolean cancelled) {
+        cancelled.set(true);
+        for (Thread producer : producers) {
+            if (producer != Thread.currentThread()) {
+                producer.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits for the producers until untilNanos; any still running after that
+     * are cancelled already and left to finish on their own.
+     */
+    private static void join(List<Thread> producers, long untilNanos) throws InterruptedException {
+        int abandoned = 0;
+        for (Thread producer : producers) {
+            long remaining = untilNanos - System.nanoTime();
+            if (!producer.join(Duration.ofNanos(Math.max(remaining, 0)))) {
+                abandoned++;
+            }
+        }
+        if (abandoned > 0) {
+            log.warn("[ResourceSync] {} listings did not stop after cancellation, abandoning them", abandoned);
+        }
+    }
+
+    /**
+     * Puts the page on the queue, waiting while it is full unless the run is cancelled.
+     *
+     * @return false if the page was dropped because the run was cancelled
+     */
+    private static boolean enqueue(BlockingQueue<Page> queue, Page page, AtomicBoolean cancelled) {
+        try {
+            while (!cancelled.get()) {
+                if (queue.offer(page, ENQUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private <T> void produce(Source<T> source, BlockingQueue<Page> queue, SyncRunStats stats,
+                             AtomicBoolean cancelled) throws Exception {
+        long start = System.nanoTime();
+        long[] blockedNanos = {0};
+        // A source requests its next page once the callback returns; the page shows no earlier state than that
+        Instant[] requestedAt = {Instant.now()};
+        try {
+            source.pages().forEachPage(source.startToken(), (items, nextToken) -> {
+                long putStart = System.nanoTime();
+                try {
+                    if (!enqueue(queue, new Page(source, items, nextToken, requestedAt[0]), cancelled)) {
+                        throw new CancellationException("Ingest of " + source.name() + " cancelled");
+                    }
+                } finally {
+                    blockedNanos[0] += System.nanoTime() - putStart;
+                    requestedAt[0] = Instant.now();
+                }
+            });
+        } finally {
+            stats.addTime(SyncStage.LIST, System.nanoTime() - start - blockedNanos[0]);
+        }
+    }
+
+    /**
+     * @return true if every source finished, false if the run was stopped early
+     */
+    private boolean consume(BlockingQueue<Page> queue, BatchWriter writer, Totals totals, List<Thread> producers,
+                            AtomicReference<Throwable> producerFailure, AtomicBoolean cancelled, long deadline)
+            throws InterruptedException {
+        List<ResourceSnapshot> buffer = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+        int finished = 0;
+
+        while (finished < producers.size()) {
+            if (stopRequested) {
+                // Stop fetching, but keep what was already fetched
+                cancel(producers, cancelled);
+                List<Page> queued = new ArrayList<>();
+                queue.drainTo(queued);
+                for (Page page : queued) {
+                    if (page != Page.END) {
+                        add(page, buffer, writer, totals);
+                    }
+                }
+                flush(buffer, writer, totals);
+                return false;
+            }
+
+            if (producerFailure.get() != null) {
+                // The run is going to fail; don't write anything further. Producers
+                // still blocked on the full queue give up once cancelled.
+                cancel(producers, cancelled);
+                return true;
+            }
+
+            long now = System.nanoTime();
+            if (now - deadline >= 0) {
+                throw new SyncTimeoutException("Listing did not finish within the sync deadline");
+            }
+
+            long elapsed = now - lastFlush;
+            if (elapsed >= flushIntervalNanos) {
+                flush(buffer, writer, totals);
+                lastFlush = System.nanoTime();
+                continue;
+            }
+
+            long wait = Math.min(flushIntervalNanos - elapsed, deadline - now);
+            Page page = queue.poll(wait, TimeUnit.NANOSECONDS);
+            if (page == null) {
+                continue;
+            }
+            if (page == Page.END) {
+                finished++;
+                continue;
+            }
+
+            if (add(page, buffer, writer, totals)) {
+                lastFlush = System.nanoTime();
+            }
+        }
+
+        flush(buffer, writer, totals);
+        return true;
+    }
+
+    /**
+     * Buffers a page, flushing whenever the buffer reaches batchSize.
+     * The page's checkpoint only becomes pending once all of its items are
+     * buffered, so a flush in the middle of a page never skips its remainder on resume.
+     *
+     * @return true if a batch was flushed
+     */
+    private boolean add(Page page, List<ResourceSnapshot> buffer, BatchWriter writer, Totals totals) {
+        boolean flushed = false;
+        long mapStart = System.nanoTime();
+        List<ResourceSnapshot> snapshots = map(page);
+        totals.stats.addTime(SyncStage.MAP, System.nanoTime() - mapStart);
+        totals.stats.recordPage(snapshots.size());
+        for (ResourceSnapshot snapshot : snapshots) {
+            totals.seenIds.add(snapshot.providerResourceId());
+            buffer.add(snapshot);
+            if (buffer.size() >= batchSize) {
+                flush(buffer, writer, totals);
+                flushed = true;
+            }
+        }
+        totals.pendingCheckpoints.put(page.source().name(), page.nextToken());
+        return flushed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ResourceSnapshot> map(Page page) {
+        Function<Object, ResourceSnapshot> mapper = (Function<Object, ResourceSnapshot>) page.source().mapper();
+        List<ResourceSnapshot> snapshots = new ArrayList<>(page.items().size());
+        for (Object item : page.items()) {
+            ResourceSnapshot snapshot = mapper.apply(item);
+            if (snapshot != null) {
+                snapshots.add(snapshot.withListedAt(page.listedAt()));
+            }
+        }
+        return snapshots;
+    }
+
+    private void flush(List<ResourceSnapshot> buffer, BatchWriter writer, Totals totals) {
+        if (buffer.isEmpty() && totals.pendingCheckpoints.isEmpty()) {
+            return;
+        }
+        List<Checkpoint> checkpoints = new ArrayList<>(totals.pendingCheckpoints.size());
+        totals.pendingCheckpoints.forEach((source, nextToken) -> checkpoints.add(new Checkpoint(source, nextToken)));
+
+        long writeStart = System.nanoTime();
+        SyncResult written = writer.write(List.copyOf(buffer), checkpoints);
+        totals.stats.addTime(SyncStage.WRITE, System.nanoTime() - writeStart);
+        totals.added += written.added();
+        totals.changed += written.changed();
+        log.debug("[ResourceSync] Flushed batch of {} snapshots, {} checkpoints", buffer.size(), checkpoints.size());
+        buffer.clear();
+        totals.pendingCheckpoints.clear();
+        writer.written(written);
+    }
+
+    private static final class Totals {
+        private final SyncRunStats stats;
+        private int added;
+        private int changed;
+        private final Set<String> seenIds = new HashSet<>();
+        // Source name -> token of its next unwritten page; values may be null
+        private final Map<String, String> pendingCheckpoints = new LinkedHashMap<>();
+
+        private Totals(SyncRunStats stats) {
+            this.stats = stats;
+        }
+    }
+}
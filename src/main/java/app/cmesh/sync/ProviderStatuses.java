@@ -0,0 +1,70 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.enums.ResourceStatus;
+
+/**
+ * Maps provider lifecycle states to {@link ResourceStatus}, shared by full
+ * syncs and change events so both agree on what a state means.
+ */
+public final class ProviderStatuses {
+
+    private ProviderStatuses() {
+    }
+
+    /**
+     * @param state EC2 instance state name
+     * @return the status, or null if the state is unknown
+     */
+    public static ResourceStatus ec2(String state) {
+        return switch (state != null ? state : "") {
+            case "pending" -> ResourceStatus.PENDING;
+            case "running" -> ResourceStatus.RUNNING;
+            case "stopping", "stopped", "shutting-down" -> ResourceStatus.STOPPED;
+            case "terminated" -> ResourceStatus.DESTROYED;
+            default -> null;
+        };
+    }
+
+    /**
+     * A TERMINATED Compute Engine instance is stopped, not deleted.
+     *
+     * @param status Compute Engine instance status
+     * @return the status, or null if the status is unknown
+     */
+    public static ResourceStatus gce(String status) {
+        return switch (status != null ? status : "") {
+            case "PROVISIONING", "STAGING", "REPAIRING" -> ResourceStatus.PENDING;
+            case "RUNNING" -> ResourceStatus.RUNNING;
+            case "STOPPING", "STOPPED", "SUSPENDING", "SUSPENDED", "TERMINATED" -> ResourceStatus.STOPPED;
+            default -> null;
+        };
+    }
+
+    /**
+     * Uses the power state when the listing carried one, and the provisioning
+     * state otherwise. A Succeeded provisioning state says nothing about
+     * whether the VM runs, since a deallocated VM is Succeeded too, so
+     * without a power state it maps to null.
+     *
+     * @param powerState        power state without the PowerState/ prefix, or null
+     * @param provisioningState Azure provisioning state
+     * @return the status, or null if neither state is known
+     */
+    public static ResourceStatus azureVm(String powerState, String provisioningState) {
+        ResourceStatus status = switch (powerState != null ? powerState : "") {
+            case "starting" -> ResourceStatus.PENDING;
+            case "running" -> ResourceStatus.RUNNING;
+            case "stopping", "stopped", "deallocating", "deallocated" -> ResourceStatus.STOPPED;
+            default -> null;
+        };
+        if (status != null) {
+            return status;
+        }
+        return switch (provisioningState != null ? provisioningState : "") {
+            case "Creating", "Updating", "Migrating" -> ResourceStatus.PENDING;
+            case "Deleting" -> ResourceStatus.STOPPED;
+            case "Failed" -> ResourceStatus.FAILED;
+            default -> null;
+        };
+    }
+}
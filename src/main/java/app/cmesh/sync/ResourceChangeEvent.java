@@ -0,0 +1,71 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.enums.ResourceStatus;
+import app.cmesh.sync.dto.AwsStateChangeEvent;
+import app.cmesh.sync.dto.DigitalOceanActionEvent;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A provider notification that one resource changed status, normalised
+ * from the provider's payload.
+ * eventId is the provider's id for the event and is used for deduplication;
+ * occurredAt orders events of the same resource.
+ * account and region are where the provider says the resource lives, and
+ * are checked against the credential and the stored row; account is null
+ * for providers whose payloads don't carry one.
+ */
+public record ResourceChangeEvent(
+        String eventId,
+        CloudProvider provider,
+        UUID credentialId,
+        String account,
+        String providerResourceId,
+        String region,
+        ResourceStatus status,
+        Instant occurredAt) {
+
+    /**
+     * @return the event, or null if the payload is not an EC2 state change
+     */
+    public static ResourceChangeEvent of(UUID credentialId, AwsStateChangeEvent event) {
+        if (event.id() == null || event.detail() == null || event.detail().instanceId() == null
+                || event.time() == null || event.account() == null || event.region() == null) {
+            return null;
+        }
+        ResourceStatus status = ProviderStatuses.ec2(event.detail().state());
+        if (status == null) {
+            return null;
+        }
+        return new ResourceChangeEvent("aws:" + event.id(), CloudProvider.AWS, credentialId, event.account(),
+                event.detail().instanceId(), event.region(), status, event.time());
+    }
+
+    /**
+     * Only completed droplet actions that change power state are events;
+     * anything else (snapshots, resizes in progress, ...) maps to null.
+     */
+    public static ResourceChangeEvent of(UUID credentialId, DigitalOceanActionEvent event) {
+        DigitalOceanActionEvent.Action action = event.action();
+        if (action == null || !"droplet".equals(action.resourceType()) || !"completed".equals(action.status())) {
+            return null;
+        }
+        ResourceStatus status = switch (action.type() != null ? action.type() : "") {
+            case "power_on", "reboot", "power_cycle", "restore", "rebuild" -> ResourceStatus.RUNNING;
+            case "power_off", "shutdown" -> ResourceStatus.STOPPED;
+            case "destroy" -> ResourceStatus.DESTROYED;
+            default -> null;
+        };
+        if (status == null) {
+            return null;
+        }
+        Instant occurredAt = action.completedAt() != null ? action.completedAt() : action.startedAt();
+        if (occurredAt == null) {
+            return null;
+        }
+        return new ResourceChangeEvent("do:" + action.id(), CloudProvider.DIGITALOCEAN, credentialId, null,
+                String.valueOf(action.resourceId()), action.regionSlug(), status, occurredAt);
+    }
+}
@@ -0,0 +1,51 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.dto.ResourceChangePage;
+import app.cmesh.dashboard.repository.ResourceChangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Serves the resource changes feed written by the sync write path, and
+ * expires old change records.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ResourceChangeService {
+
+    private final ResourceChangeRepository changeRepository;
+    private final SyncProperties properties;
+
+    /**
+     * Next batch of changes to the user's resources after the cursor.
+     * The batch size is capped at cloudmesh.sync.change-feed-max-batch.
+     *
+     * @throws IllegalArgumentException if the cursor or limit is invalid
+     */
+    @Transactional(readOnly = true)
+    public ResourceChangePage changes(UUID userId, String after, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return changeRepository.readAfter(userId, after, Math.min(limit, properties.getChangeFeedMaxBatch()));
+    }
+
+    /**
+     * Delete change records older than cloudmesh.sync.change-retention.
+     */
+    @Scheduled(fixedDelayString = "${cloudmesh.sync.change-purge-interval:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = changeRepository.deleteChangedBefore(Instant.now().minus(properties.getChangeRetention()));
+        if (purged > 0) {
+            log.info("[ResourceChanges] Purged {} expired change records", purged);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity recording a received provider change event, keyed by the
+ * provider's event id so redeliveries are recognised.
+ * Purged after cloudmesh.events.retention.
+ */
+@Data
+@Entity
+@Table(name = "resource_events", indexes = {
+        @Index(name = "idx_resource_event_received", columnList = "received_at")
+})
+public class ResourceEvent {
+
+    @Id
+    @Column(name = "event_id", updatable = false, nullable = false, length = 200)
+    private String eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CloudProvider provider;
+
+    @Column(name = "credential_id", nullable = false)
+    private UUID credentialId;
+
+    @Column(name = "provider_resource_id", nullable = false)
+    private String providerResourceId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+}
@@ -0,0 +1,13 @@
+package app.cmesh.sync;
+
+/**
+ * What happened to a received provider change event.
+ */
+public enum ResourceEventOutcome {
+    APPLIED,          // The resource row was updated
+    DUPLICATE,        // The event id was already received
+    STALE,            // A newer event for the resource was already applied
+    UNKNOWN_RESOURCE, // Not in the inventory yet; the credential's next sync was brought forward
+    IGNORED,          // Not a status change this service tracks
+    REJECTED          // From another cloud account than the credential's
+}
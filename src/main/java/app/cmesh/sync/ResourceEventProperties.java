@@ -0,0 +1,30 @@
+package app.cmesh.sync;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings for provider change event ingestion.
+ * Bound from application.properties under cloudmesh.events.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cloudmesh.events")
+@Getter
+@Setter
+public class ResourceEventProperties {
+
+    /**
+     * Interval between full syncs of a credential that is receiving events;
+     * the full sync then only reconciles what events missed.
+     */
+    private Duration reconcileInterval = Duration.ofHours(6);
+
+    /**
+     * How long received event ids are kept for deduplication.
+     */
+    private Duration retention = Duration.ofDays(7);
+}
@@ -0,0 +1,141 @@
+package app.cmesh.sync;
+
+import app.cmesh.credentials.CloudCredentialService;
+import app.cmesh.dashboard.CloudCredentials;
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.repository.CloudCredentialsRepository;
+import app.cmesh.dashboard.repository.ResourceRepository;
+import app.cmesh.observability.MetricsService;
+import app.cmesh.sync.repository.ResourceEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Applies provider change events to single {@link app.cmesh.dashboard.Resource}
+ * rows, so status changes show up without waiting for a full sync.
+ * Events are deduplicated by the provider's event id and ordered per
+ * resource by the time they occurred; full syncs of credentials that
+ * receive events back off to cloudmesh.events.reconcile-interval.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ResourceEventService {
+
+    private final CloudCredentialsRepository credentialsRepository;
+    private final CloudCredentialService credentialService;
+    private final ResourceRepository resourceRepository;
+    private final ResourceEventRepository eventRepository;
+    private final SyncTaskQueue taskQueue;
+    private final ResourceEventProperties properties;
+    private final MetricsService metricsService;
+
+    /**
+     * Whether token is the event token issued for the credential.
+     * Unknown credentials and credentials without a token never authenticate.
+     */
+    @Transactional(readOnly = true)
+    public boolean authenticate(UUID credentialId, String token) {
+        return credentialsRepository.findById(credentialId)
+                .map(credential -> credentialService.isEventToken(credential, token))
+                .orElse(false);
+    }
+
+    /**
+     * Applies one event to every copy of the resource held by credentials on
+     * the same cloud account. Events from another account than the
+     * credential's are rejected.
+     *
+     * @throws IllegalArgumentException if the credential doesn't exist or belongs to another provider
+     */
+    @Transactional
+    public ResourceEventOutcome apply(ResourceChangeEvent event) {
+        CloudCredentials credential = credentialsRepository.findById(event.credentialId())
+                .filter(found -> found.getProvider() == event.provider())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No " + event.provider() + " credential " + event.credentialId()));
+
+        ResourceEventOutcome outcome;
+        if (isCredentialAccount(event, credential)) {
+            outcome = applyToOwners(event, credential);
+        } else {
+            log.warn("[ResourceEvents] Rejected {} from account {} for credential {}",
+                    event.eventId(), event.account(), event.credentialId());
+            outcome = ResourceEventOutcome.REJECTED;
+        }
+        metricsService.recordResourceEvent(event.provider().name(), outcome.name(),
+                Math.max(0, Duration.between(event.occurredAt(), Instant.now()).toMillis()));
+        log.debug("[ResourceEvents] {} {} for {} -> {}",
+                event.eventId(), event.status(), event.providerResourceId(), outcome);
+        return outcome;
+    }
+
+    private ResourceEventOutcome applyToOwners(ResourceChangeEvent event, CloudCredentials credential) {
+        int inserted = eventRepository.insertIfAbsent(event.eventId(), event.provider().name(),
+                event.credentialId(), event.providerResourceId(), event.occurredAt());
+        if (inserted == 0) {
+            return ResourceEventOutcome.DUPLICATE;
+        }
+
+        List<UUID> ownerIds = credentialService.accountOwners(credential).stream()
+                .map(CloudCredentials::getCredentialId)
+                .toList();
+        int updated = resourceRepository.applyStatusEvent(event.provider(), ownerIds,
+                event.providerResourceId(), event.region(), event.status(), event.occurredAt());
+        if (updated > 0) {
+            taskQueue.recordEvent(ownerIds, SyncTaskType.RESOURCE, false);
+            return ResourceEventOutcome.APPLIED;
+        }
+
+        boolean known = resourceRepository.findByProviderAndCredentialIdAndProviderResourceId(
+                        event.provider(), event.credentialId(), event.providerResourceId())
+                .filter(resource -> event.region() == null || event.region().equals(resource.getResourceRegion()))
+                .isPresent();
+        if (known) {
+            taskQueue.recordEvent(ownerIds, SyncTaskType.RESOURCE, false);
+            return ResourceEventOutcome.STALE;
+        }
+
+        // An event can't create the row (it lacks name, tags, ...); let a full sync pick it up now
+        taskQueue.recordEvent(ownerIds, SyncTaskType.RESOURCE, true);
+        return ResourceEventOutcome.UNKNOWN_RESOURCE;
+    }
+
+    /**
+     * AWS events name the account they came from; it must be the one in the
+     * credential's role ARN (arn:aws:iam::<account>:role/...). Other
+     * providers' payloads carry no account, so the credential's token is all
+     * that ties them to it.
+     */
+    private static boolean isCredentialAccount(ResourceChangeEvent event, CloudCredentials credential) {
+        if (event.provider() != CloudProvider.AWS) {
+            return true;
+        }
+        Object roleArn = credential.getProviderConfig() != null ? credential.getProviderConfig().get("roleArn") : null;
+        if (!(roleArn instanceof String arn) || event.account() == null) {
+            return false;
+        }
+        String[] parts = arn.split(":", 6);
+        return parts.length == 6 && parts[4].equals(event.account());
+    }
+
+    /**
+     * Forget event ids older than cloudmesh.events.retention.
+     */
+    @Scheduled(fixedDelayString = "${cloudmesh.events.purge-interval:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = eventRepository.deleteReceivedBefore(Instant.now().minus(properties.getRetention()));
+        if (purged > 0) {
+            log.info("[ResourceEvents] Purged {} expired events", purged);
+        }
+    }
+}
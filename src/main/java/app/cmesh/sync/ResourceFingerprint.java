@@ -0,0 +1,62 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.enums.ResourceStatus;
+import app.cmesh.dashboard.enums.ResourceType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Content hash of the provider-owned fields of a resource.
+ * Two snapshots with the same fingerprint need no write.
+ */
+public final class ResourceFingerprint {
+
+    private static final char SEPARATOR = '\u001f';
+
+    private ResourceFingerprint() {
+    }
+
+    /**
+     * Fingerprint of a snapshot: status, region, type and tags, plus name and cost
+     * so that renames and price changes are not silently skipped, and instance
+     * type and launch time where the provider reports them.
+     * Tags are hashed in key order, so map iteration order does not matter.
+     */
+    public static String of(ResourceSnapshot snapshot) {
+        return of(snapshot.resourceName(), snapshot.resourceType(), snapshot.resourceStatus(),
+                snapshot.resourceRegion(), snapshot.resourceCost(), snapshot.tags(),
+                snapshot.instanceType(), snapshot.launchedAt());
+    }
+
+    public static String of(String name, ResourceType type, ResourceStatus status,
+                            String region, Double cost, Map<String, String> tags,
+                            String instanceType, Instant launchedAt) {
+        StringBuilder content = new StringBuilder()
+                .append(name).append(SEPARATOR)
+                .append(type).append(SEPARATOR)
+                .append(status).append(SEPARATOR)
+                .append(region).append(SEPARATOR)
+                .append(cost != null ? cost : 0.0).append(SEPARATOR);
+        if (tags != null) {
+            new TreeMap<>(tags).forEach((key, value) ->
+                    content.append(key).append('=').append(value).append(SEPARATOR));
+        }
+        // Only appended when present, so fingerprints of snapshots without them stay as they were
+        if (instanceType != null || launchedAt != null) {
+            content.append(SEPARATOR).append(instanceType).append(SEPARATOR).append(launchedAt);
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.enums.ResourceStatus;
+import app.cmesh.dashboard.enums.ResourceType;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Provider-neutral view of a single resource as reported by a cloud provider
+ * during sync. Written to the resources table in bulk by
+ * {@link app.cmesh.dashboard.repository.ResourceBulkRepository}.
+ * instanceType and launchedAt are null where the provider's listing doesn't report them.
+ * listedAt is when the page holding the snapshot was requested, set by
+ * {@link IngestPipeline}; the snapshot shows the resource as of no earlier than that.
+ */
+public record ResourceSnapshot(
+        String providerResourceId,
+        String resourceName,
+        ResourceType resourceType,
+        ResourceStatus resourceStatus,
+        String resourceRegion,
+        Double resourceCost,
+        Map<String, String> tags,
+        String instanceType, // Size or machine type, e.g. t3.micro
+        Instant launchedAt,
+        Instant listedAt) {
+
+    public ResourceSnapshot(String providerResourceId, String resourceName, ResourceType resourceType,
+                            ResourceStatus resourceStatus, String resourceRegion, Double resourceCost,
+                            Map<String, String> tags, String instanceType, Instant launchedAt) {
+        this(providerResourceId, resourceName, resourceType, resourceStatus, resourceRegion, resourceCost,
+                tags, instanceType, launchedAt, null);
+    }
+
+    public ResourceSnapshot(String providerResourceId, String resourceName, ResourceType resourceType,
+                            ResourceStatus resourceStatus, String resourceRegion, Double resourceCost,
+                            Map<String, String> tags) {
+        this(providerResourceId, resourceName, resourceType, resourceStatus, resourceRegion, resourceCost,
+                tags, null, null);
+    }
+
+    public ResourceSnapshot withListedAt(Instant listedAt) {
+        return new ResourceSnapshot(providerResourceId, resourceName, resourceType, resourceStatus, resourceRegion,
+                resourceCost, tags, instanceType, launchedAt, listedAt);
+    }
+}
@@ -2,24 +2,37 @@ package app.cmesh.sync;
 
 import app.cmesh.aws.*;
 import app.cmesh.azure.*;
+import app.cmesh.credentials.CloudCredentialService;
 import app.cmesh.dashboard.CloudCredentials;
-import app.cmesh.dashboard.Resource;
 import app.cmesh.dashboard.enums.CloudProvider;
 import app.cmesh.dashboard.enums.ResourceStatus;
 import app.cmesh.dashboard.enums.ResourceType;
 import app.cmesh.dashboard.repository.CloudCredentialsRepository;
-import app.cmesh.dashboard.repository.ResourceRepository;
 import app.cmesh.docean.*;
+import app.cmesh.docean.internal.DoApiException;
 import app.cmesh.docean.model.Droplet;
 import app.cmesh.gcp.*;
+import app.cmesh.sync.dto.SyncResultDTO;
+import app.cmesh.sync.dto.SyncRunDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Background service that periodically syncs cloud resources from all
@@ -32,7 +45,8 @@ import java.util.*;
 public class ResourceSyncService {
 
     private final CloudCredentialsRepository credentialsRepository;
-    private final ResourceRepository resourceRepository;
+    private final CloudCredentialService credentialService;
+    private final ResourceSyncWriter syncWriter;
 
     // AWS services
     private final AwsEc2Service awsEc2Service;
@@ -51,157 +65,591 @@ public class ResourceSyncService {
     // Metrics
     private final app.cmesh.observability.MetricsService metricsService;
 
+    private final SyncConcurrencyLimiter concurrencyLimiter;
+    private final SyncTaskQueue taskQueue;
+    private final SyncProperties properties;
+    private final AdaptiveSyncSchedule schedule;
+    private final SyncRunService runService;
+    private final ResourceEventProperties eventProperties;
+
+    // Pipelines currently running on this node, stopped on shutdown
+    private final Set<IngestPipeline> activePipelines = ConcurrentHashMap.newKeySet();
+    private volatile boolean shuttingDown;
+
+    // Runs in progress on this node by credential; on-demand triggers join these
+    private final Map<UUID, CompletableFuture<SyncResultDTO>> inFlight = new ConcurrentHashMap<>();
+
+    // DigitalOcean caps per_page at 200
+    private static final int DROPLET_PAGE_SIZE = 200;
+    // Retries of a rate limited DigitalOcean call, backing off 1s, 2s, 4s, 8s
+    private static final int DO_THROTTLE_RETRIES = 4;
+
     /**
-     * Scheduled sync job - runs every 15 minutes by default.
-     * Can be configured via application.properties: cloudmesh.sync.interval
+     * Scheduled sync job - polls the shared task queue every 30 seconds by default.
+     * Can be configured via application.properties: cloudmesh.sync.poll-interval
+     * Each credential is synced by whichever replica claims its task first,
+     * at an interval {@link AdaptiveSyncSchedule} adapts to how often it changes. Claimed credentials are synced concurrently
+     * on virtual threads, bounded by the limits in {@link SyncProperties}.
+     * A new task is claimed as soon as a sync finishes and frees its slot, so
+     * one slow credential doesn't hold back the rest of the queue.
      */
-    @Scheduled(fixedDelayString = "${cloudmesh.sync.interval:900000}")
+    @Scheduled(fixedDelayString = "${cloudmesh.sync.poll-interval:30000}")
     public void syncAllResources() {
-        log.info("[ResourceSync] Starting scheduled resource sync");
         long startTime = System.currentTimeMillis();
 
-        List<CloudCredentials> activeCredentials = credentialsRepository
-                .findByStatus(CloudCredentials.CredentialStatus.ACTIVE);
+        taskQueue.enqueueMissing(SyncTaskType.RESOURCE, EnumSet.allOf(CloudProvider.class));
+
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger failureCount = new AtomicInteger();
+        int claimedCount = 0;
+
+        Semaphore slots = new Semaphore(properties.getMaxConcurrency());
+        // close() blocks until every submitted sync has finished
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (!shuttingDown) {
+                // Wait for a slot, then claim for it and any others freed meanwhile
+                int free;
+                try {
+                    slots.acquire();
+                    free = 1 + slots.drainPermits();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                List<SyncTask> claimed = shuttingDown ? List.of() : taskQueue.claim(SyncTaskType.RESOURCE, free);
+                slots.release(free - claimed.size());
+                if (claimed.isEmpty()) {
+                    break;
+                }
+                if (claimedCount == 0) {
+                    log.info("[ResourceSync] Starting resource sync on node {}", taskQueue.nodeId());
+                }
+                claimedCount += claimed.size();
+                syncClaimedTasks(claimed, executor, slots, successCount, failureCount);
+            }
+        }
 
-        log.info("[ResourceSync] Found {} active credentials to sync", activeCredentials.size());
+        if (claimedCount == 0) {
+            log.debug("[ResourceSync] No credentials due for sync");
+            return;
+        }
 
-        int successCount = 0;
-        int failureCount = 0;
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("[ResourceSync] Completed in {}ms - {} claimed, {} success, {} failed",
+                duration, claimedCount, successCount.get(), failureCount.get());
+    }
 
-        for (CloudCredentials credential : activeCredentials) {
-            long credentialStartTime = System.currentTimeMillis();
-            String provider = credential.getProvider().name();
+    /**
+     * Starts a sync for each claimed task, each holding one of the slots, and
+     * releases each lease with the next due time once its credential is done.
+     * A task that isn't synced gives its slot back straight away.
+     */
+    private void syncClaimedTasks(List<SyncTask> tasks, ExecutorService executor, Semaphore slots,
+                                  AtomicInteger successCount, AtomicInteger failureCount) {
+        Map<UUID, CloudCredentials> credentials = new HashMap<>();
+        for (CloudCredentials credential : credentialsRepository.findAllById(
+                tasks.stream().map(SyncTask::getCredentialId).toList())) {
+            credentials.put(credential.getCredentialId(), credential);
+        }
 
-            try {
-                syncCredential(credential);
-                successCount++;
-                metricsService.recordResourceSyncSuccess(provider);
-            } catch (Exception e) {
-                failureCount++;
-                metricsService.recordResourceSyncFailure(provider);
-                log.error("[ResourceSync] Failed to sync credential {}: {}",
-                        credential.getFriendlyName(), e.getMessage(), e);
-
-                // Update credential with failure status
-                credential.setLastSyncAt(LocalDateTime.now());
-                credential.setLastSyncStatus("FAILED");
-                credential.setLastSyncError(e.getMessage());
-                credentialsRepository.save(credential);
-            } finally {
-                long credentialDuration = System.currentTimeMillis() - credentialStartTime;
-                metricsService.recordSyncDuration(provider, credentialDuration);
+        for (SyncTask task : tasks) {
+            CloudCredentials credential = credentials.get(task.getCredentialId());
+            if (credential == null || credential.getStatus() != CloudCredentials.CredentialStatus.ACTIVE) {
+                taskQueue.release(task, Instant.now().plusMillis(properties.getInterval()));
+                slots.release();
+                continue;
             }
+
+            List<CloudCredentials> owners = credentialService.accountOwners(credential);
+            if (!owners.getFirst().getCredentialId().equals(credential.getCredentialId())) {
+                // The account's first credential syncs it and fans the listing out to this one
+                log.debug("[ResourceSync] Credential {} shares its account with {}, skipping",
+                        credential.getFriendlyName(), owners.getFirst().getFriendlyName());
+                taskQueue.release(task, Instant.now().plusMillis(properties.getInterval()));
+                slots.release();
+                continue;
+            }
+
+            if (task.getDueAt() != null) {
+                metricsService.recordQueueWait(SyncTaskType.RESOURCE.name(),
+                        Math.max(0, Duration.between(task.getDueAt(), Instant.now()).toMillis()));
+            }
+
+            // Registered so on-demand triggers for this credential await this run
+            CompletableFuture<SyncResultDTO> completion = new CompletableFuture<>();
+            inFlight.putIfAbsent(credential.getCredentialId(), completion);
+
+            executor.submit(() -> {
+                try {
+                    if (runTask(task, owners, SyncPriority.BACKGROUND, completion) != null) {
+                        successCount.incrementAndGet();
+                    } else {
+                        failureCount.incrementAndGet();
+                    }
+                } finally {
+                    slots.release();
+                }
+            });
         }
+    }
 
-        long duration = System.currentTimeMillis() - startTime;
-        log.info("[ResourceSync] Completed in {}ms - {} success, {} failed",
-                duration, successCount, failureCount);
+    /**
+     * Triggers a sync of one credential now, in the USER priority lane.
+     * Concurrent triggers for the same credential, and a scheduled sync of it
+     * already running on this node, coalesce into one run whose future every
+     * caller shares. If another node is syncing the credential, the returned
+     * future is already completed as IN_PROGRESS.
+     * A credential sharing its cloud account with an older one is synced
+     * through that credential's run.
+     */
+    public CompletableFuture<SyncResultDTO> syncNow(UUID credentialId) {
+        CompletableFuture<SyncResultDTO> running = inFlight.get(credentialId);
+        if (running != null) {
+            return running;
+        }
+
+        CloudCredentials credential = credentialsRepository.findById(credentialId)
+                .orElseThrow(() -> new IllegalArgumentException("Credential not found: " + credentialId));
+        if (credential.getStatus() != CloudCredentials.CredentialStatus.ACTIVE) {
+            throw new IllegalArgumentException("Credential is not active: " + credentialId);
+        }
+        if (shuttingDown) {
+            // Another node picks it up once this one is gone
+            return CompletableFuture.completedFuture(SyncResultDTO.inProgress(credentialId));
+        }
+
+        List<CloudCredentials> owners = credentialService.accountOwners(credential);
+        UUID accountOwnerId = owners.getFirst().getCredentialId();
+        if (!accountOwnerId.equals(credentialId)) {
+            return syncNow(accountOwnerId).thenApply(result -> result.forCredential(credentialId));
+        }
+
+        CompletableFuture<SyncResultDTO> completion = new CompletableFuture<>();
+        running = inFlight.putIfAbsent(credentialId, completion);
+        if (running != null) {
+            return running;
+        }
+
+        taskQueue.enqueueMissing(SyncTaskType.RESOURCE, EnumSet.of(credential.getProvider()));
+        Optional<SyncTask> task = taskQueue.claimNow(credentialId, SyncTaskType.RESOURCE);
+        if (task.isEmpty()) {
+            inFlight.remove(credentialId, completion);
+            completion.complete(SyncResultDTO.inProgress(credentialId));
+            return completion;
+        }
+
+        log.info("[ResourceSync] On-demand sync of credential {} requested", credential.getFriendlyName());
+        Thread.ofVirtual().name("sync-now-" + credentialId)
+                .start(() -> runTask(task.get(), owners, SyncPriority.USER, completion));
+        return completion;
+    }
+
+    /**
+     * Most recent sync runs of a credential, newest first. A credential
+     * sharing its cloud account with an older one is synced through that
+     * credential's runs, so those are returned.
+     *
+     * @throws IllegalArgumentException if the credential doesn't exist or limit is not positive
+     */
+    public List<SyncRunDTO> runHistory(UUID credentialId, int limit) {
+        CloudCredentials credential = credentialsRepository.findById(credentialId)
+                .orElseThrow(() -> new IllegalArgumentException("Credential not found: " + credentialId));
+        UUID accountOwnerId = credentialService.accountOwners(credential).getFirst().getCredentialId();
+        return runService.history(accountOwnerId, limit);
     }
 
     /**
-     * Syncs resources for a single credential.
+     * Syncs a leased task's account once a permit in its priority lane is
+     * free, releases the lease with the next due time, and completes the
+     * run's future for anyone awaiting it.
+     *
+     * @param owners credentials on the task's cloud account, the task's own first
+     * @return the sync result, or null if the sync failed or did not run
      */
-    @Transactional
-    protected void syncCredential(CloudCredentials credential) {
-        log.info("[ResourceSync] Syncing credential: {} ({})",
-                credential.getFriendlyName(), credential.getProvider());
+    private SyncResult runTask(SyncTask task, List<CloudCredentials> owners, SyncPriority priority,
+                               CompletableFuture<SyncResultDTO> completion) {
+        CloudCredentials credential = owners.getFirst();
+        AtomicReference<SyncResult> result = new AtomicReference<>();
+        AtomicBoolean started = new AtomicBoolean();
+        try {
+            concurrencyLimiter.run(credential.getProvider(), priority, () -> {
+                if (shuttingDown) {
+                    return;
+                }
+                started.set(true);
+                // A sync stuck past its deadline must not keep the task leased forever
+                taskQueue.limitHeartbeats(task, properties.credentialTimeoutFor(credential.getProvider()));
+                result.set(syncCredentialWithMetrics(owners));
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[ResourceSync] Interrupted while waiting to sync credential {}",
+                    credential.getFriendlyName());
+        } finally {
+            if (shuttingDown) {
+                // Due right away so another node resumes from the checkpoints
+                taskQueue.release(task, Instant.now());
+            } else {
+                long intervalMs = schedule.nextInterval(task.getCurrentIntervalMs(), result.get());
+                taskQueue.release(task, schedule.dueAt(Instant.now(), fullSyncInterval(task, intervalMs)), intervalMs);
+            }
+            inFlight.remove(credential.getCredentialId(), completion);
+            completion.complete(started.get()
+                    ? toDTO(credential, result.get())
+                    : SyncResultDTO.inProgress(credential.getCredentialId()));
+        }
+        return result.get();
+    }
 
-        credential.setLastSyncAt(LocalDateTime.now());
-        credential.setLastSyncStatus("IN_PROGRESS");
-        credentialsRepository.save(credential);
+    /**
+     * While a credential receives change events, full syncs only reconcile
+     * what the events missed, so they run at most every reconcile interval.
+     */
+    private long fullSyncInterval(SyncTask task, long intervalMs) {
+        long reconcileMs = eventProperties.getReconcileInterval().toMillis();
+        Instant lastEventAt = task.getLastEventAt();
+        if (lastEventAt != null && lastEventAt.isAfter(Instant.now().minusMillis(reconcileMs))) {
+            return Math.max(intervalMs, reconcileMs);
+        }
+        return intervalMs;
+    }
 
+    private SyncResultDTO toDTO(CloudCredentials credential, SyncResult result) {
+        if (result == null) {
+            return new SyncResultDTO(credential.getCredentialId(), credential.getLastSyncStatus(),
+                    0, 0, 0, 0, credential.getLastSyncError());
+        }
+        return new SyncResultDTO(credential.getCredentialId(), credential.getLastSyncStatus(),
+                result.added(), result.changed(), result.removed(), result.unchanged(), null);
+    }
+
+    /**
+     * Stops running syncs when the application shuts down. Pages already
+     * fetched are written with their checkpoints and the runs are marked
+     * INTERRUPTED, so the node that next claims a credential resumes it.
+     * Waits up to cloudmesh.sync.shutdown-drain-timeout for the flushes.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        shuttingDown = true;
+        if (activePipelines.isEmpty()) {
+            return;
+        }
+
+        log.info("[ResourceSync] Shutting down, flushing {} in-flight syncs", activePipelines.size());
+        activePipelines.forEach(IngestPipeline::requestStop);
+
+        long deadline = System.nanoTime() + properties.getShutdownDrainTimeout().toNanos();
         try {
-            switch (credential.getProvider()) {
-                case AWS -> syncAwsResources(credential);
-                case GCP -> syncGcpResources(credential);
-                case AZURE -> syncAzureResources(credential);
-                case DIGITALOCEAN -> syncDigitalOceanResources(credential);
+            while (!activePipelines.isEmpty() && System.nanoTime() - deadline < 0) {
+                Thread.sleep(100);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!activePipelines.isEmpty()) {
+            log.warn("[ResourceSync] {} syncs still running at shutdown; they resume from their last checkpoint",
+                    activePipelines.size());
+        }
+    }
 
-            credential.setLastSyncStatus("SUCCESS");
-            credential.setLastSyncError(null);
-        } catch (Exception e) {
-            credential.setLastSyncStatus("FAILED");
-            credential.setLastSyncError(e.getMessage());
-            throw e;
+    /**
+     * Syncs a single cloud account and records its success/failure and duration.
+     * Duration only covers the sync itself, not time spent waiting for a permit.
+     * Only owners whose own credential passes the AUTH stage this sync get
+     * the listing. If the listing owner's sync fails, the next owner lists
+     * the account instead; each owner that failed keeps its own error.
+     * Timeouts and interruptions apply to the account and don't fail over.
+     *
+     * @return the sync result, or null if the sync failed or timed out
+     */
+    private SyncResult syncCredentialWithMetrics(List<CloudCredentials> owners) {
+        CloudCredentials credential = owners.getFirst();
+        long credentialStartTime = System.currentTimeMillis();
+        String provider = credential.getProvider().name();
+
+        try {
+            List<CloudCredentials> remaining = new ArrayList<>(ownersWithAccess(owners));
+            while (true) {
+                CloudCredentials lister = remaining.getFirst();
+                try {
+                    SyncResult result = syncCredential(remaining);
+                    metricsService.recordResourceSyncSuccess(provider);
+                    return result;
+                } catch (SyncTimeoutException e) {
+                    // syncCredential already marked the owners TIMED_OUT
+                    metricsService.recordResourceSyncTimeout(provider);
+                    log.warn("[ResourceSync] Sync of credential {} timed out after {}",
+                            lister.getFriendlyName(), properties.credentialTimeoutFor(lister.getProvider()));
+                    return null;
+                } catch (Exception e) {
+                    // syncCredential already marked the lister FAILED with its error
+                    metricsService.recordResourceSyncFailure(provider);
+                    log.error("[ResourceSync] Failed to sync credential {}: {}",
+                            lister.getFriendlyName(), e.getMessage(), e);
+                    remaining.removeFirst();
+                    if (remaining.isEmpty() || shuttingDown || Thread.currentThread().isInterrupted()) {
+                        markFailed(remaining, e.getMessage());
+                        return null;
+                    }
+                    log.info("[ResourceSync] Failing over sync of {}'s account to {}",
+                            lister.getFriendlyName(), remaining.getFirst().getFriendlyName());
+                }
+            }
         } finally {
-            credentialsRepository.save(credential);
+            long credentialDuration = System.currentTimeMillis() - credentialStartTime;
+            metricsService.recordSyncDuration(provider, credentialDuration);
         }
+    }
 
-        // Apply assignment rules after successful sync
-        if ("SUCCESS".equals(credential.getLastSyncStatus())) {
+    /**
+     * The first owner, whose own sync checks its access, plus every other
+     * owner whose credential passes the same AUTH stage now. Sharing a listing
+     * is only safe between credentials that could each have listed it.
+     * Owners that fail are marked FAILED with their own error.
+     */
+    private List<CloudCredentials> ownersWithAccess(List<CloudCredentials> owners) {
+        List<CloudCredentials> passed = new ArrayList<>(owners.size());
+        passed.add(owners.getFirst());
+        for (CloudCredentials owner : owners.subList(1, owners.size())) {
             try {
-                assignmentService.applyAssignmentRules();
+                sources(owner, new SyncRunStats());
+                passed.add(owner);
             } catch (Exception e) {
-                log.warn("[ResourceSync] Failed to apply assignment rules: {}", e.getMessage());
+                log.warn("[ResourceSync] Credential {} failed its access check, not sharing the listing with it: {}",
+                        owner.getFriendlyName(), e.getMessage());
+                markFailed(List.of(owner), e.getMessage());
             }
         }
+        return passed;
     }
 
-    private void syncAwsResources(CloudCredentials credential) {
-        Map<String, Object> config = credential.getProviderConfig();
-        ConnectedAwsAccount account = new ConnectedAwsAccount(
-                null, // id
-                (String) config.get("roleArn"),
-                (String) config.get("externalId"),
-                (String) config.getOrDefault("region", "us-east-1"));
-
-        int ec2Count = syncAwsEc2Instances(credential, account);
-        int s3Count = syncAwsS3Buckets(credential, account);
-
-        log.info("[ResourceSync] AWS sync complete: {} EC2, {} S3", ec2Count, s3Count);
+    private void markFailed(List<CloudCredentials> owners, String error) {
+        if (owners.isEmpty()) {
+            return;
+        }
+        for (CloudCredentials owner : owners) {
+            owner.setLastSyncAt(LocalDateTime.now());
+            owner.setLastSyncStatus("FAILED");
+            owner.setLastSyncError(error);
+        }
+        credentialsRepository.saveAll(owners);
     }
 
-    private int syncAwsEc2Instances(CloudCredentials credential, ConnectedAwsAccount account) {
-        // For now, just get instance IDs - we'll enhance this later with full details
-        List<String> instanceIds = awsEc2Service.listInstanceIds(account);
+    /**
+     * Syncs resources for a single credential by streaming provider pages
+     * through an {@link IngestPipeline}: provider calls run without a
+     * transaction, and {@link ResourceSyncWriter} applies each batch in its own
+     * short write transaction as it arrives.
+     * Only resources whose fingerprint changed are written, and once the
+     * listing is complete, resources the provider no longer reports are
+     * tombstoned as DESTROYED.
+     * Progress is checkpointed per source with every batch; a run cut short
+     * by a restart is resumed from those checkpoints. A resumed run didn't
+     * list the pages written before the restart, so it skips tombstoning and
+     * leaves that to the next complete run.
+     * The account is listed with the first owner's credential, and every
+     * write is fanned out to all owners, each of which keeps its own copy of
+     * the inventory. If the sync fails, only the first owner is marked
+     * FAILED, so the caller can fail over to the next; any other outcome is
+     * recorded on every owner.
+     * Time spent per {@link SyncStage}, pages, items and throttled calls are
+     * recorded on the {@link SyncRun}.
+     */
+    protected SyncResult syncCredential(List<CloudCredentials> owners) {
+        CloudCredentials credential = owners.getFirst();
+        log.info("[ResourceSync] Syncing credential: {} ({}) for {} owners",
+                credential.getFriendlyName(), credential.getProvider(), owners.size());
+
+        for (CloudCredentials owner : owners) {
+            owner.setLastSyncAt(LocalDateTime.now());
+            owner.setLastSyncStatus("IN_PROGRESS");
+        }
+        credentialsRepository.saveAll(owners);
+
+        SyncRun run = runService.begin(credential.getCredentialId());
+        IngestPipeline pipeline = new IngestPipeline(
+                properties.getPipelineQueueCapacity(),
+                properties.getWriteBatchSize(),
+                properties.getFlushInterval(),
+                properties.getSourceConcurrency());
+        activePipelines.add(pipeline);
+
+        String provider = credential.getProvider().name();
+        SyncRunStats stats = new SyncRunStats();
+        AtomicReference<String> rulesError = new AtomicReference<>();
+        SyncRunStatus status;
+        SyncResult result;
+        boolean credentialFailed = false;
+        try {
+            List<IngestPipeline.Source<?>> sources = stats.time(SyncStage.AUTH, () -> resume(
+                    sources(credential, stats), runService.checkpoints(run)));
+
+            IngestPipeline.IngestResult ingested = pipeline.run(
+                    sources,
+                    new IngestPipeline.BatchWriter() {
+                        @Override
+                        public SyncResult write(List<ResourceSnapshot> batch,
+                                                List<IngestPipeline.Checkpoint> checkpoints) {
+                            return syncWriter.writeBatch(owners, run, batch, checkpoints);
+                        }
+
+                        @Override
+                        public void written(SyncResult written) {
+                            applyAssignmentRules(written, stats, rulesError);
+                        }
+                    },
+                    properties.credentialTimeoutFor(credential.getProvider()),
+                    stats);
+
+            int removed = 0;
+            if (!ingested.complete()) {
+                status = SyncRunStatus.INTERRUPTED;
+                credential.setLastSyncStatus("INTERRUPTED");
+            } else {
+                if (run.getResumeCount() == 0) {
+                    // Every page of this run was listed, so the seen set is complete
+                    removed = stats.time(SyncStage.WRITE, () -> syncWriter.tombstoneMissing(owners, ingested.seenIds()));
+                } else {
+                    log.info("[ResourceSync] Resumed run for {} skips tombstoning", credential.getFriendlyName());
+                }
+                status = SyncRunStatus.COMPLETED;
+                credential.setLastSyncStatus("SUCCESS");
+                Instant succeededAt = Instant.now();
+                owners.forEach(owner -> owner.setLastSuccessAt(succeededAt));
+            }
+            result = new SyncResult(ingested.added(), ingested.changed(), removed, ingested.unchanged(), List.of());
 
-        for (String instanceId : instanceIds) {
-            Resource resource = resourceRepository
-                    .findByProviderResourceId(instanceId)
-                    .orElse(new Resource());
+            credential.setLastSyncError(null);
+        } catch (SyncTimeoutException e) {
+            runService.finish(run, SyncRunStatus.TIMED_OUT, provider, stats, null, e.getMessage());
+            credential.setLastSyncStatus("TIMED_OUT");
+            credential.setLastSyncError(e.getMessage());
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            runService.finish(run, SyncRunStatus.INTERRUPTED, provider, stats, null, "Sync interrupted");
+            credential.setLastSyncStatus("FAILED");
+            credential.setLastSyncError("Sync interrupted");
+            throw new IllegalStateException("Sync of " + credential.getFriendlyName() + " interrupted", e);
+        } catch (Exception e) {
+            runService.finish(run, SyncRunStatus.FAILED, provider, stats, null, e.getMessage());
+            credential.setLastSyncStatus("FAILED");
+            credential.setLastSyncError(e.getMessage());
+            credentialFailed = true;
+            throw e;
+        } finally {
+            activePipelines.remove(pipeline);
+            if (!credentialFailed) {
+                for (CloudCredentials owner : owners) {
+                    owner.setLastSyncStatus(credential.getLastSyncStatus());
+                    owner.setLastSyncError(credential.getLastSyncError());
+                }
+            }
+            credentialsRepository.saveAll(owners);
+        }
 
-            resource.setProviderResourceId(instanceId);
-            resource.setResourceName(instanceId);
-            resource.setProvider(CloudProvider.AWS);
-            resource.setResourceType(ResourceType.EC2_INSTANCE);
-            resource.setResourceStatus(ResourceStatus.RUNNING);
-            resource.setResourceRegion(account.region());
-            resource.setResourceCost(0.0);
-            resource.setLastSyncedAt(LocalDateTime.now());
+        log.info("[ResourceSync] Credential {} synced - {} added, {} changed, {} removed, {} unchanged",
+                credential.getFriendlyName(), result.added(), result.changed(), result.removed(), result.unchanged());
+        metricsService.recordSyncChanges(provider, result);
 
-            // TODO: Set project - for now skip if no project
-            // resourceRepository.save(resource);
-        }
+        runService.finish(run, status, provider, stats, result, rulesError.get());
+        return result;
+    }
 
-        return instanceIds.size();
+    /**
+     * Applies assignment rules to what one written batch added or changed, as
+     * soon as it is committed, so a run never holds the ids of everything it
+     * wrote. Untouched resources already reflect the current rules. A failure
+     * is kept as the run's error and doesn't stop the sync.
+     */
+    private void applyAssignmentRules(SyncResult written, SyncRunStats stats, AtomicReference<String> rulesError) {
+        if (written.writtenResourceIds().isEmpty()) {
+            return;
+        }
+        long rulesStart = System.nanoTime();
+        try {
+            assignmentService.applyAssignmentRules(written.writtenResourceIds());
+        } catch (Exception e) {
+            log.warn("[ResourceSync] Failed to apply assignment rules: {}", e.getMessage());
+            rulesError.compareAndSet(null, "Failed to apply assignment rules: " + e.getMessage());
+        } finally {
+            stats.addTime(SyncStage.RULES, System.nanoTime() - rulesStart);
+        }
     }
 
-    private int syncAwsS3Buckets(CloudCredentials credential, ConnectedAwsAccount account) {
-        List<String> bucketNames = awsS3Service.listBuckets(account);
+    /**
+     * The AUTH stage: resolves the credential's access and what to list.
+     */
+    private List<IngestPipeline.Source<?>> sources(CloudCredentials credential, SyncRunStats stats) {
+        return switch (credential.getProvider()) {
+            case AWS -> awsSources(credential);
+            case GCP -> gcpSources(credential);
+            case AZURE -> azureSources(credential);
+            case DIGITALOCEAN -> digitalOceanSources(credential, stats);
+        };
+    }
 
-        for (String bucketName : bucketNames) {
-            Resource resource = resourceRepository
-                    .findByProviderResourceId(bucketName)
-                    .orElse(new Resource());
+    /**
+     * Drops sources a resumed run already completed and starts the others
+     * from their checkpointed page.
+     */
+    private List<IngestPipeline.Source<?>> resume(List<IngestPipeline.Source<?>> sources,
+                                                  Map<String, SyncCheckpoint> checkpoints) {
+        if (checkpoints.isEmpty()) {
+            return sources;
+        }
+        List<IngestPipeline.Source<?>> remaining = new ArrayList<>(sources.size());
+        for (IngestPipeline.Source<?> source : sources) {
+            SyncCheckpoint checkpoint = checkpoints.get(source.name());
+            if (checkpoint == null) {
+                remaining.add(source);
+            } else if (!checkpoint.isCompleted()) {
+                remaining.add(source.resumingFrom(checkpoint.getNextToken()));
+            }
+        }
+        log.info("[ResourceSync] Resuming {} of {} sources from checkpoints", remaining.size(), sources.size());
+        return remaining;
+    }
 
-            resource.setProviderResourceId(bucketName);
-            resource.setResourceName(bucketName);
-            resource.setProvider(CloudProvider.AWS);
-            resource.setResourceType(ResourceType.S3_BUCKET);
-            resource.setResourceStatus(ResourceStatus.RUNNING);
-            resource.setResourceRegion(account.region());
-            resource.setResourceCost(0.0);
-            resource.setLastSyncedAt(LocalDateTime.now());
+    private List<IngestPipeline.Source<?>> awsSources(CloudCredentials credential) {
+        Map<String, Object> config = credential.getProviderConfig();
+        ConnectedAwsAccount account = new ConnectedAwsAccount(
+                null, // id
+                (String) config.get("roleArn"),
+                (String) config.get("externalId"),
+                (String) config.getOrDefault("region", "us-east-1"));
 
-            // TODO: Set project
-            // resourceRepository.save(resource);
+        // Discover regions up front; each region is then listed as its own
+        // source so the pipeline pages them concurrently alongside S3
+        List<String> regions = awsEc2Service.listEnabledRegions(account);
+        log.debug("[ResourceSync] AWS account has {} enabled regions", regions.size());
+
+        List<IngestPipeline.Source<?>> sources = new ArrayList<>(regions.size() + 1);
+        for (String region : regions) {
+            sources.add(new IngestPipeline.Source<Ec2InstanceSummary>(
+                    "EC2 " + region,
+                    (startToken, pageConsumer) ->
+                            awsEc2Service.forEachInstancePage(account, region, startToken, pageConsumer),
+                    instance -> toSnapshot(instance, region)));
         }
 
-        return bucketNames.size();
+        sources.add(new IngestPipeline.Source<String>(
+                "S3",
+                (startToken, pageConsumer) -> awsS3Service.forEachBucketNamePage(account, startToken, pageConsumer),
+                bucketName -> new ResourceSnapshot(
+                        bucketName,
+                        bucketName,
+                        ResourceType.S3_BUCKET,
+                        ResourceStatus.RUNNING,
+                        account.region(),
+                        0.0,
+                        null)));
+
+        return sources;
     }
 
-    private void syncGcpResources(CloudCredentials credential) {
+    private List<IngestPipeline.Source<?>> gcpSources(CloudCredentials credential) {
         Map<String, Object> config = credential.getProviderConfig();
         String projectId = (String) config.get("projectId");
         ConnectedGcpAccount account = new ConnectedGcpAccount(
@@ -211,16 +659,16 @@ public class ResourceSyncService {
                 null // serviceAccountJson - using default credentials
         );
 
-        try {
-            List<String> instanceIds = gcpComputeService.listInstanceIds(account);
-            log.info("[ResourceSync] GCP sync complete: {} instances", instanceIds.size());
-            // TODO: Map to Resource entities
-        } catch (java.io.IOException e) {
-            throw new RuntimeException("Failed to sync GCP resources: " + e.getMessage(), e);
-        }
+        String defaultRegion = (String) config.getOrDefault("region", "global");
+
+        return List.of(new IngestPipeline.Source<GcpInstanceSummary>(
+                "GCE",
+                (startToken, pageConsumer) ->
+                        gcpComputeService.forEachInstancePage(account, startToken, pageConsumer),
+                instance -> toSnapshot(instance, defaultRegion)));
     }
 
-    private void syncAzureResources(CloudCredentials credential) {
+    private List<IngestPipeline.Source<?>> azureSources(CloudCredentials credential) {
         Map<String, Object> config = credential.getProviderConfig();
         ConnectedAzureAccount account = new ConnectedAzureAccount(
                 (String) config.get("subscriptionId"),
@@ -231,22 +679,137 @@ public class ResourceSyncService {
                 null // friendlyName
         );
 
-        List<String> vmNames = azureComputeService.listVmNames(account);
-        log.info("[ResourceSync] Azure sync complete: {} VMs", vmNames.size());
+        String defaultRegion = (String) config.getOrDefault("region", "unknown");
 
-        // TODO: Map to Resource entities
+        return List.of(new IngestPipeline.Source<AzureVmSummary>(
+                "Azure VM",
+                (startToken, pageConsumer) -> azureComputeService.forEachVmPage(account, startToken, pageConsumer),
+                vm -> toSnapshot(vm, defaultRegion)));
     }
 
-    private void syncDigitalOceanResources(CloudCredentials credential) {
+    private List<IngestPipeline.Source<?>> digitalOceanSources(CloudCredentials credential, SyncRunStats stats) {
         Map<String, Object> config = credential.getProviderConfig();
         String apiToken = (String) config.get("apiToken");
         DigitalOceanClient client = DigitalOceanClient.builder()
                 .token(apiToken)
+                .timeout(properties.callTimeoutFor(CloudProvider.DIGITALOCEAN))
                 .build();
 
-        List<Droplet> droplets = client.droplets().list();
-        log.info("[ResourceSync] DigitalOcean sync complete: {} droplets", droplets.size());
+        return List.of(new IngestPipeline.Source<Droplet>(
+                "Droplets",
+                (startToken, pageConsumer) -> {
+                    // DO pages are 1-based and the page number is the token; a short page is the last one
+                    for (int page = startToken == null ? 1 : Integer.parseInt(startToken); ; page++) {
+                        List<Droplet> droplets = listDroplets(client, page, stats);
+                        boolean last = droplets.size() < DROPLET_PAGE_SIZE;
+                        pageConsumer.accept(droplets, last ? null : String.valueOf(page + 1));
+                        if (last) {
+                            break;
+                        }
+                    }
+                },
+                this::toSnapshot));
+    }
+
+    /**
+     * Lists one page of droplets, backing off and retrying while DigitalOcean
+     * answers 429 Too Many Requests.
+     */
+    private List<Droplet> listDroplets(DigitalOceanClient client, int page, SyncRunStats stats)
+            throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return client.droplets().list(page, DROPLET_PAGE_SIZE);
+            } catch (DoApiException e) {
+                if (e.statusCode() != 429 || attempt == DO_THROTTLE_RETRIES) {
+                    throw e;
+                }
+                stats.recordThrottle();
+                log.debug("[ResourceSync] DigitalOcean rate limited droplet page {}, retry {}", page, attempt + 1);
+                Thread.sleep(1000L << attempt);
+            }
+        }
+    }
+
+    /**
+     * Everything comes from the DescribeInstances page; no per-instance calls.
+     * Cost stays 0.0 as pricing isn't part of the listing.
+     */
+    private ResourceSnapshot toSnapshot(Ec2InstanceSummary instance, String region) {
+        ResourceStatus status = ProviderStatuses.ec2(instance.state());
+        return new ResourceSnapshot(
+                instance.instanceId(),
+                instance.name() != null && !instance.name().isBlank() ? instance.name() : instance.instanceId(),
+                ResourceType.EC2_INSTANCE,
+                status != null ? status : ResourceStatus.PENDING,
+                region,
+                0.0,
+                instance.tags(),
+                instance.instanceType(),
+                instance.launchTime());
+    }
+
+    /**
+     * Keyed by the numeric instance id, as names are only unique per zone.
+     */
+    private ResourceSnapshot toSnapshot(GcpInstanceSummary instance, String defaultRegion) {
+        ResourceStatus status = ProviderStatuses.gce(instance.status());
+        return new ResourceSnapshot(
+                instance.id(),
+                instance.name(),
+                ResourceType.COMPUTE_INSTANCE,
+                status != null ? status : ResourceStatus.PENDING,
+                instance.region() != null ? instance.region() : defaultRegion,
+                0.0,
+                instance.labels(),
+                instance.machineType(),
+                instance.startedAt());
+    }
+
+    /**
+     * Keyed by the ARM resource id, as names are only unique per resource group.
+     */
+    private ResourceSnapshot toSnapshot(AzureVmSummary vm, String defaultRegion) {
+        ResourceStatus status = ProviderStatuses.azureVm(vm.powerState(), vm.provisioningState());
+        return new ResourceSnapshot(
+                vm.id(),
+                vm.name(),
+                ResourceType.VIRTUAL_MACHINE,
+                status != null ? status : ResourceStatus.PENDING,
+                vm.region() != null ? vm.region() : defaultRegion,
+                0.0,
+                vm.tags(),
+                vm.vmSize(),
+                vm.createdAt());
+    }
+
+    private ResourceSnapshot toSnapshot(Droplet droplet) {
+        ResourceStatus status = switch (droplet.status() != null ? droplet.status() : "") {
+            case "active" -> ResourceStatus.RUNNING;
+            case "off", "archive" -> ResourceStatus.STOPPED;
+            default -> ResourceStatus.PENDING;
+        };
+
+        // DO tags are flat strings; treat "key:value" as a key/value pair
+        Map<String, String> tags = new HashMap<>();
+        if (droplet.tags() != null) {
+            for (String tag : droplet.tags()) {
+                int separator = tag.indexOf(':');
+                if (separator > 0) {
+                    tags.put(tag.substring(0, separator), tag.substring(separator + 1));
+                } else {
+                    tags.put(tag, "");
+                }
+            }
+        }
 
-        // TODO: Map to Resource entities
+        return new ResourceSnapshot(
+                String.valueOf(droplet.id()),
+                droplet.name(),
+                ResourceType.DROPLET,
+                status,
+                droplet.region() != null ? droplet.region() : "unknown",
+                0.0,
+                tags);
     }
 }
@@ -0,0 +1,110 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.CloudCredentials;
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.repository.ResourceRepository;
+import app.cmesh.observability.MetricsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Write phase of a resource sync.
+ * Snapshots are fetched from the provider without a transaction; this class
+ * applies each batch in its own short transaction bounded by
+ * cloudmesh.sync.write-timeout.
+ * A listing of a cloud account is fanned out to every credential connected
+ * to that account; the first owner is the one that was synced.
+ */
+@Component
+@Slf4j
+public class ResourceSyncWriter {
+
+    private final ResourceRepository resourceRepository;
+    private final SyncRunService runService;
+    private final MetricsService metricsService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ResourceSyncWriter(ResourceRepository resourceRepository,
+                              SyncRunService runService,
+                              MetricsService metricsService,
+                              PlatformTransactionManager transactionManager,
+                              SyncProperties properties) {
+        this.resourceRepository = resourceRepository;
+        this.runService = runService;
+        this.metricsService = metricsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout((int) properties.getWriteTimeout().toSeconds());
+    }
+
+    /**
+     * Upserts one batch of snapshots for every owner, and the checkpoints it
+     * completes, in their own short transaction.
+     * Counts are the first owner's; written ids cover every owner, so
+     * assignment rules run against each owner's copy.
+     */
+    public SyncResult writeBatch(List<CloudCredentials> owners, SyncRun run, List<ResourceSnapshot> batch,
+                                 List<IngestPipeline.Checkpoint> checkpoints) {
+        CloudCredentials credential = owners.getFirst();
+        CloudProvider provider = credential.getProvider();
+        return inTransaction(credential, () -> {
+            SyncResult result = SyncResult.empty();
+            if (!batch.isEmpty()) {
+                List<UUID> writtenResourceIds = new ArrayList<>();
+                for (CloudCredentials owner : owners) {
+                    SyncResult written = resourceRepository.upsertAll(provider, owner.getCredentialId(), batch);
+                    writtenResourceIds.addAll(written.writtenResourceIds());
+                    if (owner == credential) {
+                        result = written;
+                    }
+                }
+                result = new SyncResult(result.added(), result.changed(), result.removed(),
+                        result.unchanged(), writtenResourceIds);
+            }
+            runService.saveCheckpoints(run.getRunId(), checkpoints);
+            return result;
+        });
+    }
+
+    /**
+     * Tombstones everything the provider no longer reports, for every owner.
+     * Only call this after a complete listing.
+     *
+     * @return the number of the first owner's resources tombstoned
+     */
+    public int tombstoneMissing(List<CloudCredentials> owners, Set<String> seenIds) {
+        CloudCredentials credential = owners.getFirst();
+        CloudProvider provider = credential.getProvider();
+        return inTransaction(credential, () -> {
+            int removed = 0;
+            for (CloudCredentials owner : owners) {
+                int tombstoned = resourceRepository.tombstoneMissing(provider, owner.getCredentialId(), seenIds);
+                if (owner == credential) {
+                    removed = tombstoned;
+                }
+            }
+            return removed;
+        });
+    }
+
+    private <T> T inTransaction(CloudCredentials credential, Supplier<T> work) {
+        return transactionTemplate.execute(status -> {
+            long holdStart = System.currentTimeMillis();
+            try {
+                return work.get();
+            } finally {
+                long holdMs = System.currentTimeMillis() - holdStart;
+                metricsService.recordConnectionHoldTime(credential.getProvider().name(), holdMs);
+                log.debug("[ResourceSync] Write transaction for {} held a connection for {}ms",
+                        credential.getFriendlyName(), holdMs);
+            }
+        });
+    }
+}
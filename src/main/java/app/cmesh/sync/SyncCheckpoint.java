@@ -0,0 +1,40 @@
+package app.cmesh.sync;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity recording how far one source of a {@link SyncRun} has been written,
+ * e.g. the EC2 listing of one region.
+ * Saved in the same transaction as the batch it completes.
+ */
+@Data
+@Entity
+@Table(name = "sync_checkpoints", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sync_checkpoint_run_source", columnNames = {"run_id", "source_name"})
+})
+public class SyncCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "checkpoint_id", updatable = false, nullable = false)
+    private UUID checkpointId;
+
+    @Column(name = "run_id", nullable = false)
+    private UUID runId;
+
+    @Column(name = "source_name", nullable = false, length = 100)
+    private String sourceName;
+
+    @Column(name = "next_token", columnDefinition = "TEXT")
+    private String nextToken; // Provider page token to resume from, null once completed
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,112 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds how many credential syncs run at once, both globally and per provider.
+ * Provider permits are taken before the global permit so a sync waiting on a
+ * busy provider never holds a global slot another provider could use.
+ * Waiting USER syncs are handed permits before waiting BACKGROUND syncs,
+ * but never more permits than the limits allow.
+ */
+@Component
+@Slf4j
+public class SyncConcurrencyLimiter {
+
+    private final PriorityPermits globalPermits;
+    private final Map<CloudProvider, PriorityPermits> providerPermits = new EnumMap<>(CloudProvider.class);
+
+    public SyncConcurrencyLimiter(SyncProperties properties) {
+        this.globalPermits = new PriorityPermits(properties.getMaxConcurrency());
+        for (CloudProvider provider : CloudProvider.values()) {
+            providerPermits.put(provider, new PriorityPermits(properties.concurrencyFor(provider)));
+        }
+        log.info("[ResourceSync] Concurrency limits: global={}, perProvider={}",
+                properties.getMaxConcurrency(), properties.getProviderConcurrency());
+    }
+
+    /**
+     * Run the task once both a provider and a global permit are available.
+     */
+    public void run(CloudProvider provider, SyncPriority priority, Runnable task) throws InterruptedException {
+        PriorityPermits providerSemaphore = providerPermits.get(provider);
+        providerSemaphore.acquire(priority);
+        try {
+            globalPermits.acquire(priority);
+            try {
+                task.run();
+            } finally {
+                globalPermits.release();
+            }
+        } finally {
+            providerSemaphore.release();
+        }
+    }
+
+    /**
+     * Counting semaphore with two lanes: a BACKGROUND waiter only gets a
+     * permit when no USER waiter is queued.
+     */
+    static final class PriorityPermits {
+
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final Condition userLane = lock.newCondition();
+        private final Condition backgroundLane = lock.newCondition();
+        private int available;
+        private int waitingUsers;
+
+        PriorityPermits(int permits) {
+            this.available = permits;
+        }
+
+        void acquire(SyncPriority priority) throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                if (priority == SyncPriority.USER) {
+                    waitingUsers++;
+                    try {
+                        while (available == 0) {
+                            userLane.await();
+                        }
+                    } finally {
+                        waitingUsers--;
+                        if (waitingUsers == 0) {
+                            // Background waiters may have skipped a free permit for us
+                            backgroundLane.signalAll();
+                        }
+                    }
+                } else {
+                    while (available == 0 || waitingUsers > 0) {
+                        backgroundLane.await();
+                    }
+                }
+                available--;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release() {
+            lock.lock();
+            try {
+                available++;
+                // Waiters re-check their lane's condition; signalAll means a
+                // waiter that gives up on interrupt can't swallow the wakeup
+                if (waitingUsers > 0) {
+                    userLane.signalAll();
+                } else {
+                    backgroundLane.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
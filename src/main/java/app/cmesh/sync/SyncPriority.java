@@ -0,0 +1,10 @@
+package app.cmesh.sync;
+
+/**
+ * Lane a credential sync waits in for a concurrency permit.
+ * USER syncs get the next free permit ahead of any waiting BACKGROUND sync.
+ */
+public enum SyncPriority {
+    USER,
+    BACKGROUND
+}
@@ -0,0 +1,186 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tuning knobs for the background resource sync.
+ * Bound from application.properties under cloudmesh.sync.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cloudmesh.sync")
+@Getter
+@Setter
+public class SyncProperties {
+
+    /**
+     * Starting interval between two syncs of the same credential in milliseconds.
+     * Adaptive scheduling moves each credential between minInterval and maxInterval from here.
+     */
+    private long interval = 900000;
+
+    /**
+     * Shortest interval adaptive scheduling will use for a credential that keeps changing.
+     */
+    private Duration minInterval = Duration.ofMinutes(2);
+
+    /**
+     * Longest interval adaptive scheduling will back off to for a credential that never changes.
+     */
+    private Duration maxInterval = Duration.ofHours(6);
+
+    /**
+     * Factor applied to a credential's interval after a sync that found no changes.
+     */
+    private double backoffMultiplier = 2.0;
+
+    /**
+     * Fraction of the interval used as random jitter, e.g. 0.1 for +/- 10%.
+     */
+    private double jitter = 0.1;
+
+    /**
+     * Identifies this replica in sync task leases. Defaults to hostname plus a random suffix.
+     */
+    private String nodeId;
+
+    /**
+     * How long a claimed sync task stays leased without a heartbeat.
+     */
+    private Duration leaseDuration = Duration.ofMinutes(5);
+
+    /**
+     * Sync tasks one tenant (credential owner) of weight 1 may have leased
+     * across all replicas before its further tasks queue behind every other
+     * tenant's, so no tenant monopolises workers while others wait.
+     */
+    private int tenantConcurrency = 8;
+
+    /**
+     * Per-tenant share of sync work relative to the default weight of 1, keyed by user id, e.g.
+     * cloudmesh.sync.tenant-weight[3f2c...]=2
+     */
+    private Map<UUID, Double> tenantWeight = new HashMap<>();
+
+    /**
+     * How long resource change records are kept for the changes feed.
+     * Consumers further behind than this must re-read the inventory.
+     */
+    private Duration changeRetention = Duration.ofDays(7);
+
+    /**
+     * Largest batch the resource changes feed returns per request.
+     */
+    private int changeFeedMaxBatch = 1000;
+
+    /**
+     * Age of a credential's last successful sync beyond which its inventory
+     * counts as stale in cloudmesh.sync.freshness.stale. Keep it above
+     * max-interval, which quiet credentials back off to.
+     */
+    private Duration freshnessSlo = Duration.ofHours(8);
+
+    /**
+     * Maximum number of credentials synced at the same time across all providers.
+     */
+    private int maxConcurrency = 32;
+
+    /**
+     * Per-provider cap on concurrent credential syncs, e.g.
+     * cloudmesh.sync.provider-concurrency.AWS=16
+     */
+    private Map<CloudProvider, Integer> providerConcurrency = new EnumMap<>(CloudProvider.class);
+
+    /**
+     * Cap used for providers without an explicit entry in providerConcurrency.
+     */
+    private int defaultProviderConcurrency = 8;
+
+    /**
+     * Upper bound on the write transaction that applies a fetched snapshot.
+     */
+    private Duration writeTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Number of provider pages buffered between the pagers and the writer.
+     * Pagers block when the queue is full.
+     */
+    private int pipelineQueueCapacity = 4;
+
+    /**
+     * Snapshots written per batch by the ingest pipeline.
+     */
+    private int writeBatchSize = 500;
+
+    /**
+     * Longest time a partial batch waits before it is written anyway.
+     */
+    private Duration flushInterval = Duration.ofSeconds(2);
+
+    /**
+     * Listings paged concurrently within one credential, such as the EC2
+     * regions of an AWS account.
+     */
+    private int sourceConcurrency = 6;
+
+    /**
+     * How long a "sync now" request waits for its run before answering
+     * IN_PROGRESS; the run itself carries on.
+     */
+    private Duration onDemandWait = Duration.ofSeconds(60);
+
+    /**
+     * How long an unfinished sync run stays resumable from its checkpoints.
+     * Older runs are abandoned and the credential is listed from scratch.
+     */
+    private Duration resumeWindow = Duration.ofHours(1);
+
+    /**
+     * How long shutdown waits for in-flight syncs to flush their last batch.
+     */
+    private Duration shutdownDrainTimeout = Duration.ofSeconds(20);
+
+    /**
+     * Per-provider upper bound on a whole credential sync, e.g.
+     * cloudmesh.sync.credential-timeout.AZURE=5m
+     * Past it, the remaining listings are cancelled and the credential is marked TIMED_OUT.
+     */
+    private Map<CloudProvider, Duration> credentialTimeout = new EnumMap<>(CloudProvider.class);
+
+    /**
+     * Credential timeout for providers without an explicit entry in credentialTimeout.
+     */
+    private Duration defaultCredentialTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Per-provider upper bound on a single provider API call, retries included, e.g.
+     * cloudmesh.sync.call-timeout.DIGITALOCEAN=30s
+     */
+    private Map<CloudProvider, Duration> callTimeout = new EnumMap<>(CloudProvider.class);
+
+    /**
+     * Call timeout for providers without an explicit entry in callTimeout.
+     */
+    private Duration defaultCallTimeout = Duration.ofSeconds(60);
+
+    public int concurrencyFor(CloudProvider provider) {
+        return providerConcurrency.getOrDefault(provider, defaultProviderConcurrency);
+    }
+
+    public Duration credentialTimeoutFor(CloudProvider provider) {
+        return credentialTimeout.getOrDefault(provider, defaultCredentialTimeout);
+    }
+
+    public Duration callTimeoutFor(CloudProvider provider) {
+        return callTimeout.getOrDefault(provider, defaultCallTimeout);
+    }
+}
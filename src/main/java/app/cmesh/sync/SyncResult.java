@@ -0,0 +1,24 @@
+package app.cmesh.sync;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of syncing one credential, expressed as a delta against the
+ * previously stored inventory.
+ */
+public record SyncResult(
+        int added,
+        int changed,
+        int removed,
+        int unchanged,
+        List<UUID> writtenResourceIds) { // ids of added and changed resources of one written batch; empty for a run
+
+    public static SyncResult empty() {
+        return new SyncResult(0, 0, 0, 0, List.of());
+    }
+
+    public boolean hasChanges() {
+        return added > 0 || changed > 0 || removed > 0;
+    }
+}
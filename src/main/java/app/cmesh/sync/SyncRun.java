@@ -0,0 +1,86 @@
+package app.cmesh.sync;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity representing one resource sync of a credential.
+ * A run left RUNNING by a crashed node or INTERRUPTED by a shutdown is
+ * picked up again by the next sync of the credential, which resumes each
+ * source from its {@link SyncCheckpoint}.
+ * Stage timings and counts add up over every attempt of the run.
+ */
+@Data
+@Entity
+@Table(name = "sync_runs", indexes = {
+        @Index(name = "idx_sync_run_credential", columnList = "credential_id,started_at")
+})
+public class SyncRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "run_id", updatable = false, nullable = false)
+    private UUID runId;
+
+    @Column(name = "credential_id", nullable = false)
+    private UUID credentialId;
+
+    @Column(name = "node_id", length = 100)
+    private String nodeId; // Node that last worked on the run
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private SyncRunStatus status;
+
+    @Column(name = "resume_count", nullable = false)
+    private int resumeCount;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    // Milliseconds spent per SyncStage
+    @Column(name = "auth_ms", nullable = false)
+    private long authMs;
+
+    @Column(name = "list_ms", nullable = false)
+    private long listMs;
+
+    @Column(name = "map_ms", nullable = false)
+    private long mapMs;
+
+    @Column(name = "write_ms", nullable = false)
+    private long writeMs;
+
+    @Column(name = "rules_ms", nullable = false)
+    private long rulesMs;
+
+    @Column(name = "pages", nullable = false)
+    private long pages;
+
+    @Column(name = "items", nullable = false)
+    private long items; // Resources reported by the provider
+
+    @Column(name = "added", nullable = false)
+    private int added;
+
+    @Column(name = "changed", nullable = false)
+    private int changed;
+
+    @Column(name = "removed", nullable = false)
+    private int removed;
+
+    @Column(name = "unchanged", nullable = false)
+    private int unchanged;
+
+    @Column(name = "throttles", nullable = false)
+    private long throttles; // Provider calls rejected as rate limited and retried
+
+    @Column(name = "error", length = 1000)
+    private String error;
+}
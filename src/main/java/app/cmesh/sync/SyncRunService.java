@@ -0,0 +1,178 @@
+package app.cmesh.sync;
+
+import app.cmesh.observability.MetricsService;
+import app.cmesh.sync.dto.SyncRunDTO;
+import app.cmesh.sync.repository.SyncCheckpointRepository;
+import app.cmesh.sync.repository.SyncRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Persists resource sync runs and their per-source checkpoints, so a sync
+ * cut short by a restart or a rolling deploy resumes where it stopped
+ * instead of listing everything again.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SyncRunService {
+
+    private static final EnumSet<SyncRunStatus> RESUMABLE = EnumSet.of(SyncRunStatus.RUNNING, SyncRunStatus.INTERRUPTED);
+    private static final int MAX_HISTORY = 100;
+
+    private final SyncRunRepository runRepository;
+    private final SyncCheckpointRepository checkpointRepository;
+    private final SyncTaskQueue taskQueue;
+    private final SyncProperties properties;
+    private final MetricsService metricsService;
+
+    /**
+     * Start a sync run for a credential, resuming the latest unfinished run
+     * if it started within cloudmesh.sync.resume-window. Older unfinished
+     * runs are marked ABANDONED.
+     * Only one node works on a credential at a time (see {@link SyncTaskQueue}),
+     * so a RUNNING run found here was left behind by a node that died.
+     */
+    @Transactional
+    public SyncRun begin(UUID credentialId) {
+        Instant now = Instant.now();
+        Instant resumableSince = now.minus(properties.getResumeWindow());
+
+        SyncRun resumed = null;
+        for (SyncRun run : runRepository.findByCredentialIdAndStatusInOrderByStartedAtDesc(credentialId, RESUMABLE)) {
+            if (resumed == null && run.getStartedAt().isAfter(resumableSince)) {
+                resumed = run;
+            } else {
+                run.setStatus(SyncRunStatus.ABANDONED);
+                run.setFinishedAt(now);
+                runRepository.save(run);
+            }
+        }
+
+        if (resumed != null) {
+            log.info("[ResourceSync] Resuming sync run {} of credential {} (previously on {})",
+                    resumed.getRunId(), credentialId, resumed.getNodeId());
+            resumed.setStatus(SyncRunStatus.RUNNING);
+            resumed.setFinishedAt(null);
+            resumed.setNodeId(taskQueue.nodeId());
+            resumed.setResumeCount(resumed.getResumeCount() + 1);
+            return runRepository.save(resumed);
+        }
+
+        SyncRun run = new SyncRun();
+        run.setCredentialId(credentialId);
+        run.setNodeId(taskQueue.nodeId());
+        run.setStatus(SyncRunStatus.RUNNING);
+        run.setStartedAt(now);
+        return runRepository.save(run);
+    }
+
+    /**
+     * Checkpoints of a run by source name.
+     */
+    public Map<String, SyncCheckpoint> checkpoints(SyncRun run) {
+        Map<String, SyncCheckpoint> checkpoints = new HashMap<>();
+        for (SyncCheckpoint checkpoint : checkpointRepository.findByRunId(run.getRunId())) {
+            checkpoints.put(checkpoint.getSourceName(), checkpoint);
+        }
+        return checkpoints;
+    }
+
+    /**
+     * Record source progress. Called inside the transaction that writes the
+     * batch these checkpoints complete, so progress and data commit together.
+     */
+    public void saveCheckpoints(UUID runId, List<IngestPipeline.Checkpoint> checkpoints) {
+        Instant now = Instant.now();
+        for (IngestPipeline.Checkpoint progress : checkpoints) {
+            SyncCheckpoint checkpoint = checkpointRepository.findByRunIdAndSourceName(runId, progress.source())
+                    .orElseGet(() -> {
+                        SyncCheckpoint created = new SyncCheckpoint();
+                        created.setRunId(runId);
+                        created.setSourceName(progress.source());
+                        return created;
+                    });
+            checkpoint.setNextToken(progress.nextToken());
+            checkpoint.setCompleted(progress.completed());
+            checkpoint.setUpdatedAt(now);
+            checkpointRepository.save(checkpoint);
+        }
+    }
+
+    /**
+     * Record how a run ended, adding this attempt's stage timings and counts
+     * to the run and to the cloudmesh.sync.stage timers.
+     *
+     * @param result the attempt's changes, or null if it failed before ingesting
+     * @param error  why the attempt failed, or null
+     */
+    public void finish(SyncRun run, SyncRunStatus status, String provider,
+                       SyncRunStats stats, SyncResult result, String error) {
+        run.setStatus(status);
+        run.setFinishedAt(Instant.now());
+        run.setAuthMs(run.getAuthMs() + stats.millis(SyncStage.AUTH));
+        run.setListMs(run.getListMs() + stats.millis(SyncStage.LIST));
+        run.setMapMs(run.getMapMs() + stats.millis(SyncStage.MAP));
+        run.setWriteMs(run.getWriteMs() + stats.millis(SyncStage.WRITE));
+        run.setRulesMs(run.getRulesMs() + stats.millis(SyncStage.RULES));
+        run.setPages(run.getPages() + stats.pages());
+        run.setItems(run.getItems() + stats.items());
+        run.setThrottles(run.getThrottles() + stats.throttles());
+        if (result != null) {
+            run.setAdded(run.getAdded() + result.added());
+            run.setChanged(run.getChanged() + result.changed());
+            run.setRemoved(run.getRemoved() + result.removed());
+            run.setUnchanged(run.getUnchanged() + result.unchanged());
+        }
+        run.setError(error == null || error.length() <= 1000 ? error : error.substring(0, 1000));
+        runRepository.save(run);
+
+        stats.millisByStage().forEach((stage, millis) -> metricsService.recordSyncStage(provider, stage.name(), millis));
+        metricsService.recordSyncPages(provider, stats.pages(), stats.throttles());
+    }
+
+    /**
+     * A credential's most recent runs, newest first.
+     *
+     * @throws IllegalArgumentException if limit is not positive
+     */
+    public List<SyncRunDTO> history(UUID credentialId, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return runRepository.findByCredentialIdOrderByStartedAtDesc(
+                        credentialId, PageRequest.of(0, Math.min(limit, MAX_HISTORY)))
+                .stream()
+                .map(run -> new SyncRunDTO(
+                        run.getRunId(),
+                        run.getCredentialId(),
+                        run.getStatus(),
+                        run.getStartedAt(),
+                        run.getFinishedAt(),
+                        run.getResumeCount(),
+                        run.getAuthMs(),
+                        run.getListMs(),
+                        run.getMapMs(),
+                        run.getWriteMs(),
+                        run.getRulesMs(),
+                        run.getPages(),
+                        run.getItems(),
+                        run.getAdded(),
+                        run.getChanged(),
+                        run.getRemoved(),
+                        run.getUnchanged(),
+                        run.getThrottles(),
+                        run.getError()))
+                .toList();
+    }
+}
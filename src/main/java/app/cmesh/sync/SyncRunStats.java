@@ -0,0 +1,78 @@
+package app.cmesh.sync;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time per {@link SyncStage} and page, item and throttle counts of one sync run.
+ * Updated concurrently by the ingest pipeline's producer threads.
+ */
+public final class SyncRunStats {
+
+    private final AtomicLongArray stageNanos = new AtomicLongArray(SyncStage.values().length);
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong throttles = new AtomicLong();
+
+    public void addTime(SyncStage stage, long nanos) {
+        stageNanos.addAndGet(stage.ordinal(), nanos);
+    }
+
+    /**
+     * Runs the work and adds its duration to the stage.
+     */
+    public <T, E extends Exception> T time(SyncStage stage, ThrowingSupplier<T, E> work) throws E {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            addTime(stage, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * A provider page was listed and mapped to the given number of snapshots.
+     */
+    public void recordPage(int mapped) {
+        pages.incrementAndGet();
+        items.addAndGet(mapped);
+    }
+
+    /**
+     * A provider call was rejected as throttled and retried.
+     */
+    public void recordThrottle() {
+        throttles.incrementAndGet();
+    }
+
+    public long millis(SyncStage stage) {
+        return stageNanos.get(stage.ordinal()) / 1_000_000;
+    }
+
+    public Map<SyncStage, Long> millisByStage() {
+        Map<SyncStage, Long> millis = new EnumMap<>(SyncStage.class);
+        for (SyncStage stage : SyncStage.values()) {
+            millis.put(stage, millis(stage));
+        }
+        return millis;
+    }
+
+    public long pages() {
+        return pages.get();
+    }
+
+    public long items() {
+        return items.get();
+    }
+
+    public long throttles() {
+        return throttles.get();
+    }
+
+    @FunctionalInterface
+    public interface ThrowingSupplier<T, E extends Exception> {
+        T get() throws E;
+    }
+}
@@ -0,0 +1,10 @@
+package app.cmesh.sync;
+
+public enum SyncRunStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    TIMED_OUT,
+    INTERRUPTED, // Stopped by a graceful shutdown, resumable
+    ABANDONED // Too old to resume
+}
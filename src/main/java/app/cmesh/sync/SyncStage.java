@@ -0,0 +1,12 @@
+package app.cmesh.sync;
+
+/**
+ * Stages a resource sync spends its time in.
+ */
+public enum SyncStage {
+    AUTH,  // Resolving provider credentials and discovering what to list (STS, enabled regions, ...)
+    LIST,  // Waiting on provider list calls, summed over sources listed in parallel
+    MAP,   // Mapping provider objects to snapshots
+    WRITE, // Upserting batches and checkpoints, and tombstoning
+    RULES  // Applying assignment rules to written resources
+}
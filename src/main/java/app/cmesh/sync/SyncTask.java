@@ -0,0 +1,56 @@
+package app.cmesh.sync;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity representing one unit of recurring sync work for a credential.
+ * Replicas claim due tasks with FOR UPDATE SKIP LOCKED and hold a lease
+ * while they work on them; an expired lease makes the task claimable again.
+ */
+@Data
+@Entity
+@Table(name = "sync_tasks", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sync_task_credential_type", columnNames = {"credential_id", "task_type"})
+}, indexes = {
+        @Index(name = "idx_sync_task_due", columnList = "task_type,due_at")
+})
+public class SyncTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "task_id", updatable = false, nullable = false)
+    private UUID taskId;
+
+    @Column(name = "credential_id", nullable = false)
+    private UUID credentialId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "task_type", nullable = false, length = 20)
+    private SyncTaskType taskType;
+
+    @Column(name = "due_at", nullable = false)
+    private Instant dueAt;
+
+    @Column(name = "current_interval_ms")
+    private Long currentIntervalMs; // Adaptive interval, see AdaptiveSyncSchedule
+
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner; // Node currently working on the task, null when idle
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(name = "heartbeat_at")
+    private Instant heartbeatAt;
+
+    @Column(name = "last_finished_at")
+    private Instant lastFinishedAt;
+
+    @Column(name = "last_event_at")
+    private Instant lastEventAt; // Newest provider change event received for the credential
+
+}
@@ -0,0 +1,164 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.observability.MetricsService;
+import app.cmesh.sync.repository.SyncTaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Database-backed queue of sync work shared by all backend replicas.
+ * Each node claims due tasks under its own node id, keeps the leases alive
+ * with heartbeats while it works, and releases them with the next due time.
+ * Leases of a crashed node stop being renewed and expire, after which any
+ * node can claim the task again. So do leases of a sync that overran its
+ * deadline without stopping, see {@link #limitHeartbeats}.
+ */
+@Service
+@Slf4j
+public class SyncTaskQueue {
+
+    private final SyncTaskRepository taskRepository;
+    private final SyncProperties properties;
+    private final MetricsService metricsService;
+    private final String nodeId;
+
+    // Tasks this node holds -> time after which their leases are no longer extended
+    private final Map<UUID, Instant> heartbeatUntil = new ConcurrentHashMap<>();
+
+    public SyncTaskQueue(SyncTaskRepository taskRepository, SyncProperties properties,
+                         MetricsService metricsService) {
+        this.taskRepository = taskRepository;
+        this.properties = properties;
+        this.metricsService = metricsService;
+        this.nodeId = properties.getNodeId() != null && !properties.getNodeId().isBlank()
+                ? properties.getNodeId()
+                : defaultNodeId();
+        log.info("[SyncQueue] Using node id {}", nodeId);
+    }
+
+    /**
+     * Make sure every active credential of the given providers has a task of this type.
+     */
+    public void enqueueMissing(SyncTaskType taskType, Collection<CloudProvider> providers) {
+        int created = taskRepository.enqueueMissing(taskType, providers);
+        if (created > 0) {
+            log.info("[SyncQueue] Enqueued {} new {} tasks", created, taskType);
+        }
+    }
+
+    /**
+     * Lease up to limit due tasks for this node, shared fairly between tenants.
+     */
+    public List<SyncTask> claim(SyncTaskType taskType, int limit) {
+        List<SyncTask> claimed = taskRepository.claimDue(taskType, nodeId, properties.getLeaseDuration(), limit,
+                properties.getTenantConcurrency(), properties.getTenantWeight());
+        claimed.forEach(this::hold);
+        return claimed;
+    }
+
+    /**
+     * Lease one credential's task for an on-demand sync, ignoring its due time.
+     *
+     * @return the leased task, or empty if the credential is already being synced
+     */
+    public Optional<SyncTask> claimNow(UUID credentialId, SyncTaskType taskType) {
+        Optional<SyncTask> claimed = taskRepository.claimCredential(credentialId, taskType, nodeId,
+                properties.getLeaseDuration());
+        claimed.ifPresent(this::hold);
+        return claimed;
+    }
+
+    private void hold(SyncTask task) {
+        heartbeatUntil.put(task.getTaskId(), Instant.MAX);
+    }
+
+    /**
+     * Stop extending the task's lease once deadline has passed, counted from
+     * now. A sync that is still running by then is stuck; its lease runs out
+     * one lease duration later and another node can claim the task.
+     */
+    public void limitHeartbeats(SyncTask task, Duration deadline) {
+        heartbeatUntil.computeIfPresent(task.getTaskId(), (taskId, until) -> Instant.now().plus(deadline));
+    }
+
+    /**
+     * Release a task this node holds and schedule its next run.
+     */
+    public void release(SyncTask task, Instant nextDueAt) {
+        heartbeatUntil.remove(task.getTaskId());
+        taskRepository.release(task.getTaskId(), nodeId, nextDueAt, null);
+    }
+
+    /**
+     * Release a task this node holds with a new adaptive interval.
+     */
+    public void release(SyncTask task, Instant nextDueAt, long intervalMs) {
+        heartbeatUntil.remove(task.getTaskId());
+        taskRepository.release(task.getTaskId(), nodeId, nextDueAt, intervalMs);
+    }
+
+    /**
+     * Note that the credentials receive change events, which stretches their
+     * full sync interval to the reconcile interval.
+     *
+     * @param dueNow also bring their next sync forward to now, e.g. for an event about an unknown resource
+     */
+    public void recordEvent(Collection<UUID> credentialIds, SyncTaskType taskType, boolean dueNow) {
+        taskRepository.recordEvent(credentialIds, taskType, dueNow);
+    }
+
+    /**
+     * Extend the leases of the tasks this node is working on that are within their deadline.
+     */
+    @Scheduled(fixedDelayString = "${cloudmesh.sync.heartbeat-interval:60000}")
+    public void heartbeat() {
+        Instant now = Instant.now();
+        List<UUID> taskIds = heartbeatUntil.entrySet().stream()
+                .filter(entry -> entry.getValue().isAfter(now))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        int extended = taskRepository.heartbeat(nodeId, taskIds, properties.getLeaseDuration());
+        if (extended > 0) {
+            log.debug("[SyncQueue] Extended {} leases", extended);
+        }
+    }
+
+    /**
+     * Publish how many resource sync tasks each tenant has waiting.
+     */
+    @Scheduled(fixedDelayString = "${cloudmesh.sync.queue-metrics-interval:30000}")
+    public void sampleQueueDepth() {
+        Map<UUID, Integer> depths = taskRepository.countDueByTenant(SyncTaskType.RESOURCE);
+        metricsService.recordTenantQueueDepths(SyncTaskType.RESOURCE.name(), depths);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,6 @@
+package app.cmesh.sync;
+
+public enum SyncTaskType {
+    RESOURCE,
+    COST
+}
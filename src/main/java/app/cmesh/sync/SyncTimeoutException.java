@@ -0,0 +1,11 @@
+package app.cmesh.sync;
+
+/**
+ * Thrown when a credential sync runs past its deadline and its remaining
+ * provider listings have been cancelled.
+ */
+public class SyncTimeoutException extends RuntimeException {
+    public SyncTimeoutException(String message) {
+        super(message);
+    }
+}
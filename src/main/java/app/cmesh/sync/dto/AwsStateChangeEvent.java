@@ -0,0 +1,25 @@
+package app.cmesh.sync.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * EventBridge envelope of an "EC2 Instance State-change Notification",
+ * as delivered by an API destination.
+ */
+public record AwsStateChangeEvent(
+        String id,
+        @JsonProperty("detail-type") String detailType,
+        String source,
+        String account,
+        Instant time,
+        String region,
+        Detail detail
+) {
+    public record Detail(
+            @JsonProperty("instance-id") String instanceId,
+            String state
+    ) {
+    }
+}
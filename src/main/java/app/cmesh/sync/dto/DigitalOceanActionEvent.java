@@ -0,0 +1,23 @@
+package app.cmesh.sync.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * A DigitalOcean action object, as relayed by a droplet action webhook.
+ */
+public record DigitalOceanActionEvent(Action action) {
+
+    public record Action(
+            long id,
+            String status,
+            String type,
+            @JsonProperty("started_at") Instant startedAt,
+            @JsonProperty("completed_at") Instant completedAt,
+            @JsonProperty("resource_id") long resourceId,
+            @JsonProperty("resource_type") String resourceType,
+            @JsonProperty("region_slug") String regionSlug
+    ) {
+    }
+}
@@ -0,0 +1,30 @@
+package app.cmesh.sync.dto;
+
+import java.util.UUID;
+
+/**
+ * Outcome of an on-demand credential sync.
+ * status is the credential's sync status (SUCCESS, FAILED, TIMED_OUT,
+ * INTERRUPTED), or IN_PROGRESS if the sync is still running elsewhere or
+ * did not finish while the caller waited.
+ */
+public record SyncResultDTO(
+        UUID credentialId,
+        String status,
+        int added,
+        int changed,
+        int removed,
+        int unchanged,
+        String error
+) {
+    public static SyncResultDTO inProgress(UUID credentialId) {
+        return new SyncResultDTO(credentialId, "IN_PROGRESS", 0, 0, 0, 0, null);
+    }
+
+    /**
+     * The same outcome reported for another credential on the same cloud account.
+     */
+    public SyncResultDTO forCredential(UUID credentialId) {
+        return new SyncResultDTO(credentialId, status, added, changed, removed, unchanged, error);
+    }
+}
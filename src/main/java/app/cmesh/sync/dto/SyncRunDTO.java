@@ -0,0 +1,33 @@
+package app.cmesh.sync.dto;
+
+import app.cmesh.sync.SyncRunStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One resource sync run of a credential's cloud account, with the time
+ * spent per stage in milliseconds and what the run listed and wrote.
+ */
+public record SyncRunDTO(
+        UUID runId,
+        UUID credentialId,
+        SyncRunStatus status,
+        Instant startedAt,
+        Instant finishedAt,
+        int resumeCount,
+        long authMs,
+        long listMs,
+        long mapMs,
+        long writeMs,
+        long rulesMs,
+        long pages,
+        long items,
+        int added,
+        int changed,
+        int removed,
+        int unchanged,
+        long throttles,
+        String error
+) {
+}
@@ -0,0 +1,44 @@
+package app.cmesh.sync.repository;
+
+import app.cmesh.sync.ResourceEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Repository for ResourceEvent entities.
+ */
+@Repository
+public interface ResourceEventRepository extends JpaRepository<ResourceEvent, String> {
+
+    /**
+     * Record an event unless its id was already received.
+     * Concurrent deliveries of the same event are decided by the primary key.
+     *
+     * @return 1 if the event is new, 0 if it is a duplicate
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO resource_events (event_id, provider, credential_id, provider_resource_id,
+                                         occurred_at, received_at)
+            VALUES (:eventId, :provider, :credentialId, :providerResourceId, :occurredAt, now())
+            ON CONFLICT (event_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("eventId") String eventId,
+                       @Param("provider") String provider,
+                       @Param("credentialId") UUID credentialId,
+                       @Param("providerResourceId") String providerResourceId,
+                       @Param("occurredAt") Instant occurredAt);
+
+    /**
+     * Delete events received before the given time.
+     */
+    @Modifying
+    @Query("DELETE FROM ResourceEvent e WHERE e.receivedAt < :before")
+    int deleteReceivedBefore(@Param("before") Instant before);
+}
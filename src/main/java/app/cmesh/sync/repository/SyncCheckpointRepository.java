@@ -0,0 +1,26 @@
+package app.cmesh.sync.repository;
+
+import app.cmesh.sync.SyncCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for SyncCheckpoint entities.
+ */
+@Repository
+public interface SyncCheckpointRepository extends JpaRepository<SyncCheckpoint, UUID> {
+
+    /**
+     * Find all checkpoints of a run.
+     */
+    List<SyncCheckpoint> findByRunId(UUID runId);
+
+    /**
+     * Find the checkpoint of one source of a run.
+     */
+    Optional<SyncCheckpoint> findByRunIdAndSourceName(UUID runId, String sourceName);
+}
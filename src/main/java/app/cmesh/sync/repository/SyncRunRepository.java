@@ -0,0 +1,29 @@
+package app.cmesh.sync.repository;
+
+import app.cmesh.sync.SyncRun;
+import app.cmesh.sync.SyncRunStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for SyncRun entities.
+ */
+@Repository
+public interface SyncRunRepository extends JpaRepository<SyncRun, UUID> {
+
+    /**
+     * Find a credential's runs in the given statuses, newest first.
+     */
+    List<SyncRun> findByCredentialIdAndStatusInOrderByStartedAtDesc(UUID credentialId,
+                                                                   Collection<SyncRunStatus> statuses);
+
+    /**
+     * Find a credential's most recent runs, newest first.
+     */
+    List<SyncRun> findByCredentialIdOrderByStartedAtDesc(UUID credentialId, Pageable pageable);
+}
@@ -0,0 +1,74 @@
+package app.cmesh.sync.repository;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.sync.SyncTask;
+import app.cmesh.sync.SyncTaskType;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Lease operations on the sync task queue. Each method is a single statement,
+ * so no surrounding transaction is needed.
+ */
+public interface SyncTaskLeaseRepository {
+
+    /**
+     * Create a task, due immediately, for every active credential of the given
+     * providers that does not have one yet.
+     *
+     * @return number of tasks created
+     */
+    int enqueueMissing(SyncTaskType taskType, Collection<CloudProvider> providers);
+
+    /**
+     * Lease up to limit due tasks that are not leased by anyone else,
+     * interleaving tenants by weighted fair queuing.
+     * Rows locked by a concurrent claim on another node are skipped.
+     *
+     * @param tenantLimit   leases one tenant of weight 1 may hold across all nodes before its
+     *                      further tasks wait for every other tenant's
+     * @param tenantWeights weight by tenant (credential owner); absent tenants weigh 1
+     */
+    List<SyncTask> claimDue(SyncTaskType taskType, String owner, Duration lease, int limit,
+                            int tenantLimit, Map<UUID, Double> tenantWeights);
+
+    /**
+     * Number of due, unleased tasks per tenant.
+     */
+    Map<UUID, Integer> countDueByTenant(SyncTaskType taskType);
+
+    /**
+     * Lease one credential's task right away, whether or not it is due.
+     *
+     * @return the leased task, or empty if another node or sync holds the lease
+     */
+    Optional<SyncTask> claimCredential(UUID credentialId, SyncTaskType taskType, String owner, Duration lease);
+
+    /**
+     * Note that a provider change event arrived for the given credentials,
+     * and optionally make their tasks due now.
+     *
+     * @return number of tasks updated
+     */
+    int recordEvent(Collection<UUID> credentialIds, SyncTaskType taskType, boolean dueNow);
+
+    /**
+     * Extend the owner's leases on the given tasks.
+     *
+     * @return number of leases extended
+     */
+    int heartbeat(String owner, Collection<UUID> taskIds, Duration lease);
+
+    /**
+     * Give up the lease on a task and schedule its next run.
+     *
+     * @param intervalMs interval the next due time was derived from, or null to keep the current one
+     */
+    void release(UUID taskId, String owner, Instant nextDueAt, Long intervalMs);
+}
@@ -0,0 +1,205 @@
+package app.cmesh.sync.repository;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.sync.SyncTask;
+import app.cmesh.sync.SyncTaskType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Postgres implementation of {@link SyncTaskLeaseRepository}.
+ */
+@RequiredArgsConstructor
+public class SyncTaskLeaseRepositoryImpl implements SyncTaskLeaseRepository {
+
+    private static final String ENQUEUE_SQL = """
+            INSERT INTO sync_tasks (task_id, credential_id, task_type, due_at)
+            SELECT gen_random_uuid(), c.credential_id, ?, now()
+            FROM cloud_credentials c
+            WHERE c.status = 'ACTIVE' AND c.provider = ANY (?::text[])
+            ON CONFLICT (credential_id, task_type) DO NOTHING
+            """;
+
+    // Weighted fair queuing across tenants (credential owners). A tenant's
+    // n-th due task gets the virtual finish time (running + n) / weight, so
+    // tenants are served round-robin in proportion to their weight. Tasks
+    // past a tenant's ceil(tenantLimit * weight) leases sort after every task
+    // within its tenant's share, so the cap only holds a tenant back while
+    // others are waiting and free slots are never left idle.
+    // Window functions can't be combined with FOR UPDATE, so the fair pick is
+    // made first and the innermost SELECT then locks it, skipping rows
+    // another node is claiming right now.
+    private static final String CLAIM_SQL = """
+            WITH leased AS (
+                SELECT c.user_id, count(*) AS running
+                FROM sync_tasks l
+                JOIN cloud_credentials c ON c.credential_id = l.credential_id
+                WHERE l.task_type = ? AND l.lease_expires_at >= now()
+                GROUP BY c.user_id
+            ), weights AS (
+                SELECT * FROM unnest(?::uuid[], ?::float8[]) AS w(user_id, weight)
+            ), ranked AS (
+                SELECT t.task_id, t.due_at,
+                       COALESCE(w.weight, 1) AS weight,
+                       COALESCE(l.running, 0) AS running,
+                       row_number() OVER (PARTITION BY c.user_id ORDER BY t.due_at) AS rn
+                FROM sync_tasks t
+                JOIN cloud_credentials c ON c.credential_id = t.credential_id
+                LEFT JOIN leased l ON l.user_id = c.user_id
+                LEFT JOIN weights w ON w.user_id = c.user_id
+                WHERE t.task_type = ?
+                  AND t.due_at <= now()
+                  AND (t.lease_expires_at IS NULL OR t.lease_expires_at < now())
+            ), fair AS (
+                SELECT task_id FROM ranked
+                ORDER BY running + rn > ceil(? * weight), (running + rn) / weight, due_at
+                LIMIT ?
+            )
+            UPDATE sync_tasks t
+            SET lease_owner = ?, lease_expires_at = now() + make_interval(secs => ?), heartbeat_at = now()
+            WHERE t.task_id IN (
+                SELECT task_id FROM sync_tasks
+                WHERE task_id IN (SELECT task_id FROM fair)
+                  AND (lease_expires_at IS NULL OR lease_expires_at < now())
+                FOR UPDATE SKIP LOCKED)
+            RETURNING t.*
+            """;
+
+    private static final String DEPTH_SQL = """
+            SELECT c.user_id, count(*) AS depth
+            FROM sync_tasks t
+            JOIN cloud_credentials c ON c.credential_id = t.credential_id
+            WHERE t.task_type = ?
+              AND t.due_at <= now()
+              AND (t.lease_expires_at IS NULL OR t.lease_expires_at < now())
+            GROUP BY c.user_id
+            """;
+
+    private static final String CLAIM_CREDENTIAL_SQL = """
+            UPDATE sync_tasks
+            SET lease_owner = ?, lease_expires_at = now() + make_interval(secs => ?), heartbeat_at = now()
+            WHERE credential_id = ? AND task_type = ?
+              AND (lease_expires_at IS NULL OR lease_expires_at < now())
+            RETURNING *
+            """;
+
+    private static final String HEARTBEAT_SQL = """
+            UPDATE sync_tasks
+            SET lease_expires_at = now() + make_interval(secs => ?), heartbeat_at = now()
+            WHERE lease_owner = ? AND task_id = ANY (?::uuid[]) AND lease_expires_at >= now()
+            """;
+
+    private static final String RELEASE_SQL = """
+            UPDATE sync_tasks
+            SET lease_owner = NULL, lease_expires_at = NULL, due_at = ?,
+                current_interval_ms = COALESCE(?, current_interval_ms), last_finished_at = now()
+            WHERE task_id = ? AND lease_owner = ?
+            """;
+
+    // Optionally makes the task due now, unless it is already due earlier
+    private static final String EVENT_SQL = """
+            UPDATE sync_tasks
+            SET last_event_at = GREATEST(last_event_at, now()),
+                due_at = CASE WHEN ? THEN LEAST(due_at, now()) ELSE due_at END
+            WHERE credential_id = ANY (?::uuid[]) AND task_type = ?
+            """;
+
+    private static final RowMapper<SyncTask> TASK_MAPPER = (rs, rowNum) -> {
+        SyncTask task = new SyncTask();
+        task.setTaskId(rs.getObject("task_id", UUID.class));
+        task.setCredentialId(rs.getObject("credential_id", UUID.class));
+        task.setTaskType(SyncTaskType.valueOf(rs.getString("task_type")));
+        task.setDueAt(toInstant(rs.getTimestamp("due_at")));
+        task.setCurrentIntervalMs(rs.getObject("current_interval_ms", Long.class));
+        task.setLeaseOwner(rs.getString("lease_owner"));
+        task.setLeaseExpiresAt(toInstant(rs.getTimestamp("lease_expires_at")));
+        task.setHeartbeatAt(toInstant(rs.getTimestamp("heartbeat_at")));
+        task.setLastFinishedAt(toInstant(rs.getTimestamp("last_finished_at")));
+        task.setLastEventAt(toInstant(rs.getTimestamp("last_event_at")));
+        return task;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int enqueueMissing(SyncTaskType taskType, Collection<CloudProvider> providers) {
+        String[] providerNames = providers.stream().map(CloudProvider::name).toArray(String[]::new);
+        return jdbcTemplate.update(ENQUEUE_SQL, ps -> {
+            ps.setString(1, taskType.name());
+            ps.setArray(2, ps.getConnection().createArrayOf("text", providerNames));
+        });
+    }
+
+    @Override
+    public List<SyncTask> claimDue(SyncTaskType taskType, String owner, Duration lease, int limit,
+                                   int tenantLimit, Map<UUID, Double> tenantWeights) {
+        UUID[] tenants = tenantWeights.keySet().toArray(UUID[]::new);
+        Double[] weights = Arrays.stream(tenants).map(tenantWeights::get).toArray(Double[]::new);
+        return jdbcTemplate.query(CLAIM_SQL, ps -> {
+            ps.setString(1, taskType.name());
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", tenants));
+            ps.setArray(3, ps.getConnection().createArrayOf("float8", weights));
+            ps.setString(4, taskType.name());
+            ps.setInt(5, tenantLimit);
+            ps.setInt(6, limit);
+            ps.setString(7, owner);
+            ps.setLong(8, lease.toSeconds());
+        }, TASK_MAPPER);
+    }
+
+    @Override
+    public Map<UUID, Integer> countDueByTenant(SyncTaskType taskType) {
+        Map<UUID, Integer> depths = new HashMap<>();
+        jdbcTemplate.query(DEPTH_SQL, rs -> {
+            depths.put(rs.getObject("user_id", UUID.class), rs.getInt("depth"));
+        }, taskType.name());
+        return depths;
+    }
+
+    @Override
+    public Optional<SyncTask> claimCredential(UUID credentialId, SyncTaskType taskType, String owner, Duration lease) {
+        return jdbcTemplate.query(CLAIM_CREDENTIAL_SQL, TASK_MAPPER,
+                owner, lease.toSeconds(), credentialId, taskType.name()).stream().findFirst();
+    }
+
+    @Override
+    public int recordEvent(Collection<UUID> credentialIds, SyncTaskType taskType, boolean dueNow) {
+        UUID[] ids = credentialIds.toArray(UUID[]::new);
+        return jdbcTemplate.update(EVENT_SQL, ps -> {
+            ps.setBoolean(1, dueNow);
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", ids));
+            ps.setString(3, taskType.name());
+        });
+    }
+
+    @Override
+    public int heartbeat(String owner, Collection<UUID> taskIds, Duration lease) {
+        UUID[] ids = taskIds.toArray(UUID[]::new);
+        return jdbcTemplate.update(HEARTBEAT_SQL, ps -> {
+            ps.setLong(1, lease.toSeconds());
+            ps.setString(2, owner);
+            ps.setArray(3, ps.getConnection().createArrayOf("uuid", ids));
+        });
+    }
+
+    @Override
+    public void release(UUID taskId, String owner, Instant nextDueAt, Long intervalMs) {
+        jdbcTemplate.update(RELEASE_SQL, Timestamp.from(nextDueAt), intervalMs, taskId, owner);
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
@@ -0,0 +1,27 @@
+package app.cmesh.sync.repository;
+
+import app.cmesh.sync.SyncTask;
+import app.cmesh.sync.SyncTaskType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for SyncTask entities.
+ */
+@Repository
+public interface SyncTaskRepository extends JpaRepository<SyncTask, UUID>, SyncTaskLeaseRepository {
+
+    /**
+     * Find the task of a given type for a credential.
+     */
+    Optional<SyncTask> findByCredentialIdAndTaskType(UUID credentialId, SyncTaskType taskType);
+
+    /**
+     * Find all tasks currently leased by a node.
+     */
+    List<SyncTask> findByLeaseOwner(String leaseOwner);
+}
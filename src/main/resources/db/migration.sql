@@ -0,0 +1,121 @@
+-- Brings an existing database up to date with what ddl-auto=update cannot do:
+-- dropping old constraints and NOT NULLs, foreign keys with ON DELETE CASCADE
+-- and Postgres-specific indexes. schema.sql stays the full DDL for a new
+-- database.
+--
+-- Runs through spring.sql.init on every start, after Hibernate's update, so
+-- every statement has to be idempotent. Statements end with ^; because the
+-- DO blocks contain semicolons.
+--
+-- The whole script is one transaction holding a transaction-scoped advisory
+-- lock, so replicas starting together run it one at a time. The lock goes
+-- with the transaction, whether it commits, fails or the connection drops.
+-- Nothing in here may need to run outside a transaction, such as CREATE
+-- INDEX CONCURRENTLY.
+
+BEGIN^;
+
+SELECT pg_advisory_xact_lock(hashtext('cloudmesh.migration'))^;
+
+-- Resources are synced before anything assigns them to a project
+ALTER TABLE resources ALTER COLUMN project_id DROP NOT NULL^;
+
+-- The same provider id may be listed through several credentials, so the
+-- old single-column unique key gives way to uk_resource_provider_credential
+DO $$
+DECLARE
+    old_key record;
+BEGIN
+    FOR old_key IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attname = 'provider_resource_id'
+        WHERE con.conrelid = 'resources'::regclass
+          AND con.contype = 'u'
+          AND con.conkey = ARRAY[att.attnum]
+    LOOP
+        EXECUTE format('ALTER TABLE resources DROP CONSTRAINT %I', old_key.conname);
+    END LOOP;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'resources'::regclass
+                     AND conname = 'uk_resource_provider_credential') THEN
+        ALTER TABLE resources ADD CONSTRAINT uk_resource_provider_credential
+            UNIQUE (provider, credential_id, provider_resource_id);
+    END IF;
+END $$^;
+
+-- Tasks of a deleted credential go with it. Hibernate maps credential_id as
+-- a plain column, so it never creates this key.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'sync_tasks'::regclass
+                     AND conname = 'fk_sync_task_credential') THEN
+        DELETE FROM sync_tasks t
+        WHERE NOT EXISTS (SELECT 1 FROM cloud_credentials c WHERE c.credential_id = t.credential_id);
+        ALTER TABLE sync_tasks ADD CONSTRAINT fk_sync_task_credential
+            FOREIGN KEY (credential_id) REFERENCES cloud_credentials(credential_id) ON DELETE CASCADE;
+    END IF;
+END $$^;
+
+-- Runs go with their credential and checkpoints with their run
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'sync_runs'::regclass
+                     AND conname = 'fk_sync_run_credential') THEN
+        DELETE FROM sync_runs r
+        WHERE NOT EXISTS (SELECT 1 FROM cloud_credentials c WHERE c.credential_id = r.credential_id);
+        ALTER TABLE sync_runs ADD CONSTRAINT fk_sync_run_credential
+            FOREIGN KEY (credential_id) REFERENCES cloud_credentials(credential_id) ON DELETE CASCADE;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'sync_checkpoints'::regclass
+                     AND conname = 'fk_sync_checkpoint_run') THEN
+        DELETE FROM sync_checkpoints cp
+        WHERE NOT EXISTS (SELECT 1 FROM sync_runs r WHERE r.run_id = cp.run_id);
+        ALTER TABLE sync_checkpoints ADD CONSTRAINT fk_sync_checkpoint_run
+            FOREIGN KEY (run_id) REFERENCES sync_runs(run_id) ON DELETE CASCADE;
+    END IF;
+END $$^;
+
+-- Hibernate adds these on update as well; kept here so the script alone
+-- covers every column the event path reads
+ALTER TABLE cloud_credentials ADD COLUMN IF NOT EXISTS event_token_hash VARCHAR(64)^;
+ALTER TABLE resources ADD COLUMN IF NOT EXISTS listed_at TIMESTAMP WITH TIME ZONE^;
+
+-- The changes feed pages by (tx_id, change_id) and the purge by changed_at
+CREATE INDEX IF NOT EXISTS idx_resource_change_feed ON resource_changes(tx_id, change_id)^;
+CREATE INDEX IF NOT EXISTS idx_resource_change_changed ON resource_changes(changed_at)^;
+
+-- Serves tags @> containment for set-based rule application. Hibernate
+-- cannot declare a GIN index, so this is its only source.
+CREATE INDEX IF NOT EXISTS idx_resource_tags ON resources USING GIN (tags jsonb_path_ops)^;
+
+-- The feed filters by user first. Changes written before user_id existed
+-- get it from their credential; once the index exists, finding rows still
+-- without one is an index lookup.
+ALTER TABLE resource_changes ADD COLUMN IF NOT EXISTS user_id UUID^;
+CREATE INDEX IF NOT EXISTS idx_resource_change_user ON resource_changes(user_id, tx_id, change_id)^;
+UPDATE resource_changes rc
+SET user_id = c.user_id
+FROM cloud_credentials c
+WHERE rc.user_id IS NULL AND c.credential_id = rc.credential_id^;
+
+-- Resources without tags hold {} rather than NULL, so the rule queries'
+-- tags @> ? sees them the way the compiled rules do. Runs once, while the
+-- column is still nullable.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'resources'
+                 AND column_name = 'tags' AND is_nullable = 'YES') THEN
+        UPDATE resources SET tags = '{}'::jsonb WHERE tags IS NULL;
+        ALTER TABLE resources ALTER COLUMN tags SET DEFAULT '{}'::jsonb;
+        ALTER TABLE resources ALTER COLUMN tags SET NOT NULL;
+    END IF;
+END $$^;
+
+COMMIT^;
@@ -2,6 +2,11 @@ DROP TABLE IF EXISTS users CASCADE;
 DROP TABLE IF EXISTS cloud_credentials CASCADE;
 DROP TABLE IF EXISTS projects CASCADE;
 DROP TABLE IF EXISTS resources CASCADE;
+DROP TABLE IF EXISTS sync_tasks CASCADE;
+DROP TABLE IF EXISTS sync_runs CASCADE;
+DROP TABLE IF EXISTS sync_checkpoints CASCADE;
+DROP TABLE IF EXISTS resource_events CASCADE;
+DROP TABLE IF EXISTS resource_changes CASCADE;
 
 CREATE TABLE users(
     user_id UUID PRIMARY KEY ,
@@ -31,26 +36,44 @@ CREATE TABLE projects(
 CREATE TABLE resources(
     resource_id UUID PRIMARY KEY,
     resource_name VARCHAR(255) NOT NULL,
-    project_id UUID NOT NULL ,
+    project_id UUID,
     provider VARCHAR(50) NOT NULL ,
     resource_type VARCHAR(50) NOT NULL ,
     resource_status VARCHAR(50) NOT NULL ,
     resource_region VARCHAR(100),
     resource_cost NUMERIC(10, 2),
+    provider_resource_id VARCHAR(255),
+    credential_id UUID,
+    last_synced_at TIMESTAMP,
+    last_event_at TIMESTAMP WITH TIME ZONE,
+    listed_at TIMESTAMP WITH TIME ZONE,
+    tags JSONB NOT NULL DEFAULT '{}'::jsonb,
+    instance_type VARCHAR(100),
+    launched_at TIMESTAMP WITH TIME ZONE,
+    fingerprint VARCHAR(64),
+    manually_assigned BOOLEAN DEFAULT FALSE,
     created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_resource_project
         FOREIGN KEY (project_id)
         REFERENCES projects(project_id)
-        ON DELETE CASCADE
+        ON DELETE CASCADE,
+    CONSTRAINT uk_resource_provider_credential
+        UNIQUE (provider, credential_id, provider_resource_id)
 );
 
+-- Serves tags @> containment for set-based rule application
+CREATE INDEX idx_resource_tags ON resources USING GIN (tags jsonb_path_ops);
+
 CREATE TABLE cloud_credentials(
     credential_id UUID PRIMARY KEY,
     user_id UUID NOT NULL,
     provider VARCHAR(50) NOT NULL,
     status VARCHAR(50) NOT NULL,
     provider_config JSONB NOT NULL,
+    account_key VARCHAR(255),
+    event_token_hash VARCHAR(64),
+    last_success_at TIMESTAMP WITH TIME ZONE,
     created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_credential_user
@@ -58,3 +81,98 @@ CREATE TABLE cloud_credentials(
         REFERENCES users(user_id)
         ON DELETE CASCADE
 );
+
+CREATE INDEX idx_cloud_credentials_account_key ON cloud_credentials(account_key);
+
+CREATE TABLE sync_tasks(
+    task_id UUID PRIMARY KEY,
+    credential_id UUID NOT NULL,
+    task_type VARCHAR(20) NOT NULL,
+    due_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    current_interval_ms BIGINT,
+    lease_owner VARCHAR(100),
+    lease_expires_at TIMESTAMP WITH TIME ZONE,
+    heartbeat_at TIMESTAMP WITH TIME ZONE,
+    last_finished_at TIMESTAMP WITH TIME ZONE,
+    last_event_at TIMESTAMP WITH TIME ZONE,
+    CONSTRAINT fk_sync_task_credential
+        FOREIGN KEY (credential_id)
+        REFERENCES cloud_credentials(credential_id)
+        ON DELETE CASCADE,
+    CONSTRAINT uk_sync_task_credential_type
+        UNIQUE (credential_id, task_type)
+);
+
+CREATE INDEX idx_sync_task_due ON sync_tasks(task_type, due_at);
+
+CREATE TABLE sync_runs(
+    run_id UUID PRIMARY KEY,
+    credential_id UUID NOT NULL,
+    node_id VARCHAR(100),
+    status VARCHAR(20) NOT NULL,
+    resume_count INT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    finished_at TIMESTAMP WITH TIME ZONE,
+    auth_ms BIGINT NOT NULL DEFAULT 0,
+    list_ms BIGINT NOT NULL DEFAULT 0,
+    map_ms BIGINT NOT NULL DEFAULT 0,
+    write_ms BIGINT NOT NULL DEFAULT 0,
+    rules_ms BIGINT NOT NULL DEFAULT 0,
+    pages BIGINT NOT NULL DEFAULT 0,
+    items BIGINT NOT NULL DEFAULT 0,
+    added INT NOT NULL DEFAULT 0,
+    changed INT NOT NULL DEFAULT 0,
+    removed INT NOT NULL DEFAULT 0,
+    unchanged INT NOT NULL DEFAULT 0,
+    throttles BIGINT NOT NULL DEFAULT 0,
+    error VARCHAR(1000),
+    CONSTRAINT fk_sync_run_credential
+        FOREIGN KEY (credential_id)
+        REFERENCES cloud_credentials(credential_id)
+        ON DELETE CASCADE
+);
+
+CREATE INDEX idx_sync_run_credential ON sync_runs(credential_id, started_at);
+
+CREATE TABLE sync_checkpoints(
+    checkpoint_id UUID PRIMARY KEY,
+    run_id UUID NOT NULL,
+    source_name VARCHAR(100) NOT NULL,
+    next_token TEXT,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT fk_sync_checkpoint_run
+        FOREIGN KEY (run_id)
+        REFERENCES sync_runs(run_id)
+        ON DELETE CASCADE,
+    CONSTRAINT uk_sync_checkpoint_run_source
+        UNIQUE (run_id, source_name)
+);
+
+CREATE TABLE resource_events(
+    event_id VARCHAR(200) PRIMARY KEY,
+    provider VARCHAR(50) NOT NULL,
+    credential_id UUID NOT NULL,
+    provider_resource_id VARCHAR(255) NOT NULL,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    received_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_resource_event_received ON resource_events(received_at);
+
+CREATE TABLE resource_changes(
+    change_id BIGSERIAL PRIMARY KEY,
+    tx_id XID8 NOT NULL DEFAULT pg_current_xact_id(),
+    resource_id UUID NOT NULL,
+    credential_id UUID NOT NULL,
+    user_id UUID,
+    provider VARCHAR(50) NOT NULL,
+    provider_resource_id VARCHAR(255),
+    change_type VARCHAR(20) NOT NULL,
+    resource_status VARCHAR(50) NOT NULL,
+    changed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_resource_change_feed ON resource_changes(tx_id, change_id);
+CREATE INDEX idx_resource_change_user ON resource_changes(user_id, tx_id, change_id);
+CREATE INDEX idx_resource_change_changed ON resource_changes(changed_at);
@@ -0,0 +1,48 @@
+package app.cmesh;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.UUID;
+
+/**
+ * Postgres for repository tests that run their SQL for real.
+ * Every call recreates the tables from db/schema.sql, so each test starts empty.
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    public static PostgreSQLContainer<?> container() {
+        return new PostgreSQLContainer<>("postgres:16-alpine");
+    }
+
+    public static JdbcTemplate reset(PostgreSQLContainer<?> postgres) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        new ResourceDatabasePopulator(new ClassPathResource("db/schema.sql")).execute(dataSource);
+        return new JdbcTemplate(dataSource);
+    }
+
+    public static UUID insertUser(JdbcTemplate jdbcTemplate) {
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO users (user_id, first_name, last_name, username, email, role)
+                VALUES (?, 'Test', 'User', ?, ?, 'USER')
+                """, userId, userId.toString(), userId + "@example.com");
+        return userId;
+    }
+
+    public static UUID insertCredential(JdbcTemplate jdbcTemplate, UUID userId) {
+        UUID credentialId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO cloud_credentials (credential_id, user_id, provider, status, provider_config)
+                VALUES (?, ?, 'AWS', 'ACTIVE', '{}'::jsonb)
+                """, credentialId, userId);
+        return credentialId;
+    }
+}
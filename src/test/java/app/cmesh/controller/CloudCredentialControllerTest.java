@@ -8,22 +8,28 @@ import app.cmesh.dashboard.enums.CloudProvider;
 import app.cmesh.user.User;
 import app.cmesh.user.UserRepository;
 import app.cmesh.credentials.dto.ValidationResultDTO;
+import app.cmesh.sync.ResourceSyncService;
+import app.cmesh.sync.SyncProperties;
+import app.cmesh.sync.dto.SyncResultDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -38,6 +44,12 @@ class CloudCredentialControllerTest {
         @Mock
         private UserRepository userRepository;
 
+        @Mock
+        private ResourceSyncService resourceSyncService;
+
+        @Spy
+        private SyncProperties syncProperties = new SyncProperties();
+
         @Mock
         private Authentication authentication;
 
@@ -374,6 +386,67 @@ class CloudCredentialControllerTest {
                 assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         }
 
+        @Test
+        void testSyncCredential_Success() {
+                // Arrange
+                when(authentication.getPrincipal()).thenReturn(userDetails);
+                when(userDetails.getUsername()).thenReturn("testuser");
+                when(userRepository.findUsersByUsername("testuser")).thenReturn(testUser);
+                when(credentialService.getCredential(testCredentialId, testUserId))
+                                .thenReturn(Optional.of(testCredential));
+                SyncResultDTO result = new SyncResultDTO(testCredentialId, "SUCCESS", 2, 1, 0, 10, null);
+                when(resourceSyncService.syncNow(testCredentialId))
+                                .thenReturn(CompletableFuture.completedFuture(result));
+
+                // Act
+                DeferredResult<ResponseEntity<SyncResultDTO>> response = controller.syncCredential(
+                                testCredentialId.toString(), authentication);
+
+                // Assert
+                ResponseEntity<?> entity = (ResponseEntity<?>) response.getResult();
+                assertEquals(HttpStatus.OK, entity.getStatusCode());
+                assertEquals(result, entity.getBody());
+        }
+
+        @Test
+        void testSyncCredential_RunningElsewhere() {
+                // Arrange
+                when(authentication.getPrincipal()).thenReturn(userDetails);
+                when(userDetails.getUsername()).thenReturn("testuser");
+                when(userRepository.findUsersByUsername("testuser")).thenReturn(testUser);
+                when(credentialService.getCredential(testCredentialId, testUserId))
+                                .thenReturn(Optional.of(testCredential));
+                when(resourceSyncService.syncNow(testCredentialId))
+                                .thenReturn(CompletableFuture.completedFuture(
+                                                SyncResultDTO.inProgress(testCredentialId)));
+
+                // Act
+                DeferredResult<ResponseEntity<SyncResultDTO>> response = controller.syncCredential(
+                                testCredentialId.toString(), authentication);
+
+                // Assert
+                ResponseEntity<?> entity = (ResponseEntity<?>) response.getResult();
+                assertEquals(HttpStatus.ACCEPTED, entity.getStatusCode());
+        }
+
+        @Test
+        void testSyncCredential_NotFound() {
+                // Arrange
+                when(authentication.getPrincipal()).thenReturn(userDetails);
+                when(userDetails.getUsername()).thenReturn("testuser");
+                when(userRepository.findUsersByUsername("testuser")).thenReturn(testUser);
+                when(credentialService.getCredential(testCredentialId, testUserId)).thenReturn(Optional.empty());
+
+                // Act
+                DeferredResult<ResponseEntity<SyncResultDTO>> response = controller.syncCredential(
+                                testCredentialId.toString(), authentication);
+
+                // Assert
+                ResponseEntity<?> entity = (ResponseEntity<?>) response.getResult();
+                assertEquals(HttpStatus.NOT_FOUND, entity.getStatusCode());
+                verifyNoInteractions(resourceSyncService);
+        }
+
         // ==================== EDGE CASES ====================
 
         @Test
@@ -0,0 +1,95 @@
+package app.cmesh.controller;
+
+import app.cmesh.cost.repository.CostRepository;
+import app.cmesh.dashboard.repository.ProjectRepository;
+import app.cmesh.dashboard.repository.ResourceRepository;
+import app.cmesh.project.ResourceAssignmentService;
+import app.cmesh.project.dto.BulkAssignmentResult;
+import app.cmesh.project.repository.ResourceAssignmentRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectControllerTest {
+
+        @Mock
+        private ProjectRepository projectRepository;
+
+        @Mock
+        private ResourceRepository resourceRepository;
+
+        @Mock
+        private ResourceAssignmentRuleRepository ruleRepository;
+
+        @Mock
+        private ResourceAssignmentService assignmentService;
+
+        @Mock
+        private CostRepository costRepository;
+
+        private ProjectController controller;
+        private UUID projectId;
+        private UUID fromProjectId;
+
+        @BeforeEach
+        void setUp() {
+                controller = new ProjectController(projectRepository, resourceRepository, ruleRepository,
+                                assignmentService, costRepository);
+                projectId = UUID.randomUUID();
+                fromProjectId = UUID.randomUUID();
+        }
+
+        @Test
+        void testAssignResourcesToProject_UnknownFromProjectIsNotFound() {
+                when(projectRepository.existsById(fromProjectId)).thenReturn(false);
+
+                ResponseEntity<BulkAssignmentResult> response = controller.assignResourcesToProject(projectId,
+                                new ProjectController.BulkAssignmentRequest(null, fromProjectId));
+
+                assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+                verifyNoInteractions(resourceRepository, assignmentService);
+        }
+
+        @Test
+        void testUnassignResources_FromProjectOverTheCapIsCountedNotLoaded() {
+                when(projectRepository.existsById(fromProjectId)).thenReturn(true);
+                when(resourceRepository.countByProject_ProjectId(fromProjectId)).thenReturn(10_001L);
+
+                ResponseEntity<BulkAssignmentResult> response = controller.unassignResources(
+                                new ProjectController.BulkAssignmentRequest(null, fromProjectId));
+
+                assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+                verify(resourceRepository, never()).findIdsByProject(any());
+                verifyNoInteractions(assignmentService);
+        }
+
+        @Test
+        void testAssignResourcesToProject_MergesListedIdsWithFromProject() {
+                UUID listed = UUID.randomUUID();
+                UUID moved = UUID.randomUUID();
+                BulkAssignmentResult result = new BulkAssignmentResult(projectId, 2, 2, 0, 0, List.of());
+                when(projectRepository.existsById(fromProjectId)).thenReturn(true);
+                when(resourceRepository.countByProject_ProjectId(fromProjectId)).thenReturn(2L);
+                when(resourceRepository.findIdsByProject(fromProjectId)).thenReturn(List.of(moved, listed));
+                when(assignmentService.manuallyAssignAll(projectId, Set.of(listed, moved))).thenReturn(result);
+
+                ResponseEntity<BulkAssignmentResult> response = controller.assignResourcesToProject(projectId,
+                                new ProjectController.BulkAssignmentRequest(List.of(listed), fromProjectId));
+
+                assertEquals(HttpStatus.OK, response.getStatusCode());
+                assertSame(result, response.getBody());
+        }
+}
@@ -0,0 +1,102 @@
+package app.cmesh.controller;
+
+import app.cmesh.dashboard.dto.ResourceChangePage;
+import app.cmesh.dashboard.repository.ResourceChangeRepository;
+import app.cmesh.sync.ResourceChangeService;
+import app.cmesh.sync.SyncProperties;
+import app.cmesh.user.User;
+import app.cmesh.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceControllerTest {
+
+        @Mock
+        private ResourceChangeRepository changeRepository;
+
+        @Mock
+        private UserRepository userRepository;
+
+        @Mock
+        private Authentication authentication;
+
+        @Mock
+        private UserDetails userDetails;
+
+        private SyncProperties syncProperties;
+        private ResourceController controller;
+        private UUID testUserId;
+
+        @BeforeEach
+        void setUp() {
+                syncProperties = new SyncProperties();
+                controller = new ResourceController(new ResourceChangeService(changeRepository, syncProperties),
+                                userRepository);
+
+                testUserId = UUID.randomUUID();
+                User testUser = new User();
+                testUser.setUserId(testUserId);
+                testUser.setUsername("testuser");
+
+                when(authentication.getPrincipal()).thenReturn(userDetails);
+                when(userDetails.getUsername()).thenReturn("testuser");
+                when(userRepository.findUsersByUsername("testuser")).thenReturn(testUser);
+        }
+
+        @Test
+        void testResourceChanges_ReadsTheCallersFeedFromTheCursor() {
+                ResourceChangePage page = new ResourceChangePage(List.of(), "42-7", false);
+                when(changeRepository.readAfter(testUserId, "41-3", 100)).thenReturn(page);
+
+                ResponseEntity<ResourceChangePage> response = controller.resourceChanges("41-3", 100, authentication);
+
+                assertEquals(HttpStatus.OK, response.getStatusCode());
+                assertSame(page, response.getBody());
+        }
+
+        @Test
+        void testResourceChanges_CapsTheLimitAtTheMaxBatch() {
+                syncProperties.setChangeFeedMaxBatch(50);
+                when(changeRepository.readAfter(eq(testUserId), isNull(), eq(50)))
+                                .thenReturn(new ResourceChangePage(List.of(), "0-0", false));
+
+                ResponseEntity<ResourceChangePage> response = controller.resourceChanges(null, 500, authentication);
+
+                assertEquals(HttpStatus.OK, response.getStatusCode());
+                verify(changeRepository).readAfter(testUserId, null, 50);
+        }
+
+        @Test
+        void testResourceChanges_MalformedCursorIsBadRequest() {
+                when(changeRepository.readAfter(testUserId, "not-a-cursor", 500))
+                                .thenThrow(new IllegalArgumentException("Invalid changes cursor: not-a-cursor"));
+
+                ResponseEntity<ResourceChangePage> response = controller.resourceChanges("not-a-cursor", 500,
+                                authentication);
+
+                assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        }
+
+        @Test
+        void testResourceChanges_NonPositiveLimitIsBadRequest() {
+                ResponseEntity<ResourceChangePage> response = controller.resourceChanges(null, 0, authentication);
+
+                assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+                verifyNoInteractions(changeRepository);
+        }
+}
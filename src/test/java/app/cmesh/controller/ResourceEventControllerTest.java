@@ -0,0 +1,130 @@
+package app.cmesh.controller;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.enums.ResourceStatus;
+import app.cmesh.sync.ResourceChangeEvent;
+import app.cmesh.sync.ResourceEventOutcome;
+import app.cmesh.sync.ResourceEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Posts provider payloads the way a local EventBridge or webhook stand-in would.
+ */
+@ExtendWith(MockitoExtension.class)
+class ResourceEventControllerTest {
+
+        private static final String TOKEN = "test-token";
+
+        @Mock
+        private ResourceEventService eventService;
+
+        private MockMvc mockMvc;
+        private UUID credentialId;
+
+        @BeforeEach
+        void setUp() {
+                mockMvc = MockMvcBuilders.standaloneSetup(new ResourceEventController(eventService)).build();
+                credentialId = UUID.randomUUID();
+        }
+
+        @Test
+        void testAwsEvent_StateChangeIsApplied() throws Exception {
+                when(eventService.authenticate(credentialId, TOKEN)).thenReturn(true);
+                when(eventService.apply(any())).thenReturn(ResourceEventOutcome.APPLIED);
+
+                mockMvc.perform(post("/events/aws/{id}", credentialId)
+                                .header(ResourceEventController.TOKEN_HEADER, TOKEN)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("""
+                                                {"id": "7bf73129-1428-4cd3-a780-95db273d1602",
+                                                 "detail-type": "EC2 Instance State-change Notification",
+                                                 "source": "aws.ec2",
+                                                 "account": "123456789012",
+                                                 "time": "2026-10-17T09:30:00Z",
+                                                 "region": "us-east-1",
+                                                 "detail": {"instance-id": "i-0abc", "state": "stopped"}}
+                                                """))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.outcome").value("APPLIED"));
+
+                ArgumentCaptor<ResourceChangeEvent> captor = ArgumentCaptor.forClass(ResourceChangeEvent.class);
+                verify(eventService).apply(captor.capture());
+                ResourceChangeEvent event = captor.getValue();
+                assertEquals(CloudProvider.AWS, event.provider());
+                assertEquals(credentialId, event.credentialId());
+                assertEquals("123456789012", event.account());
+                assertEquals("i-0abc", event.providerResourceId());
+                assertEquals("us-east-1", event.region());
+                assertEquals(ResourceStatus.STOPPED, event.status());
+                assertEquals(Instant.parse("2026-10-17T09:30:00Z"), event.occurredAt());
+        }
+
+        @Test
+        void testDigitalOceanEvent_InProgressActionIsIgnored() throws Exception {
+                when(eventService.authenticate(credentialId, TOKEN)).thenReturn(true);
+
+                mockMvc.perform(post("/events/digitalocean/{id}", credentialId)
+                                .header(ResourceEventController.TOKEN_HEADER, TOKEN)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("""
+                                                {"action": {"id": 36804636, "status": "in-progress", "type": "power_off",
+                                                            "started_at": "2026-10-17T09:30:00Z",
+                                                            "resource_id": 3164444, "resource_type": "droplet",
+                                                            "region_slug": "nyc3"}}
+                                                """))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.outcome").value("IGNORED"));
+
+                verify(eventService, never()).apply(any());
+        }
+
+        @Test
+        void testAwsEvent_WrongTokenIsRejected() throws Exception {
+                mockMvc.perform(post("/events/aws/{id}", credentialId)
+                                .header(ResourceEventController.TOKEN_HEADER, "wrong")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{}"))
+                                .andExpect(status().isUnauthorized());
+
+                verify(eventService, never()).apply(any());
+        }
+
+        @Test
+        void testAwsEvent_OtherAccountIsForbidden() throws Exception {
+                when(eventService.authenticate(credentialId, TOKEN)).thenReturn(true);
+                when(eventService.apply(any())).thenReturn(ResourceEventOutcome.REJECTED);
+
+                mockMvc.perform(post("/events/aws/{id}", credentialId)
+                                .header(ResourceEventController.TOKEN_HEADER, TOKEN)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("""
+                                                {"id": "7bf73129-1428-4cd3-a780-95db273d1602",
+                                                 "detail-type": "EC2 Instance State-change Notification",
+                                                 "source": "aws.ec2",
+                                                 "account": "210987654321",
+                                                 "time": "2026-10-17T09:30:00Z",
+                                                 "region": "us-east-1",
+                                                 "detail": {"instance-id": "i-0abc", "state": "stopped"}}
+                                                """))
+                                .andExpect(status().isForbidden())
+                                .andExpect(jsonPath("$.outcome").value("REJECTED"));
+        }
+}
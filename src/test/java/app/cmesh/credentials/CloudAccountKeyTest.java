@@ -0,0 +1,68 @@
+package app.cmesh.credentials;
+
+import app.cmesh.dashboard.enums.CloudProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CloudAccountKeyTest {
+
+    @Test
+    void testAccountKey_SameRoleDifferentExternalIdDifferentKey() {
+        assertNotEquals(
+                CloudAccountKey.of(CloudProvider.AWS,
+                        Map.of("roleArn", "arn:aws:iam::123456789012:role/cmesh", "externalId", "a")),
+                CloudAccountKey.of(CloudProvider.AWS,
+                        Map.of("roleArn", "arn:aws:iam::123456789012:role/cmesh", "externalId", "b")));
+    }
+
+    @Test
+    void testAccountKey_SameRoleAndExternalIdSameKey() {
+        Map<String, String> config = Map.of("roleArn", "arn:aws:iam::123456789012:role/cmesh", "externalId", "a");
+
+        assertEquals(CloudAccountKey.of(CloudProvider.AWS, config),
+                CloudAccountKey.of(CloudProvider.AWS, Map.copyOf(config)));
+    }
+
+    @Test
+    void testAccountKey_SameProjectDifferentServiceAccountDifferentKey() {
+        assertNotEquals(
+                CloudAccountKey.of(CloudProvider.GCP,
+                        Map.of("projectId", "cmesh-prod", "serviceAccountJson", "{\"client_email\": \"a@x\"}")),
+                CloudAccountKey.of(CloudProvider.GCP,
+                        Map.of("projectId", "cmesh-prod", "serviceAccountJson", "{\"client_email\": \"b@x\"}")));
+    }
+
+    @Test
+    void testAccountKey_AzureSubscriptionIgnoresCase() {
+        assertEquals(
+                CloudAccountKey.of(CloudProvider.AZURE,
+                        Map.of("subscriptionId", "ABCD-1234", "tenantId", "T-1", "clientId", "C-1")),
+                CloudAccountKey.of(CloudProvider.AZURE,
+                        Map.of("subscriptionId", "abcd-1234", "tenantId", "t-1", "clientId", "c-1")));
+    }
+
+    @Test
+    void testAccountKey_AzureSubscriptionDifferentClientDifferentKey() {
+        assertNotEquals(
+                CloudAccountKey.of(CloudProvider.AZURE,
+                        Map.of("subscriptionId", "abcd-1234", "tenantId", "t-1", "clientId", "c-1")),
+                CloudAccountKey.of(CloudProvider.AZURE,
+                        Map.of("subscriptionId", "abcd-1234", "tenantId", "t-1", "clientId", "c-2")));
+    }
+
+    @Test
+    void testAccountKey_DigitalOceanTokenIsHashed() {
+        String key = CloudAccountKey.of(CloudProvider.DIGITALOCEAN, Map.of("apiToken", "dop_v1_secret"));
+
+        assertNotNull(key);
+        assertFalse(key.contains("dop_v1_secret"));
+    }
+
+    @Test
+    void testAccountKey_MissingIdentifierHasNoKey() {
+        assertNull(CloudAccountKey.of(CloudProvider.GCP, Map.of("region", "us-central1")));
+    }
+}
@@ -0,0 +1,111 @@
+package app.cmesh.dashboard.repository;
+
+import app.cmesh.TestDatabase;
+import app.cmesh.dashboard.dto.InventoryFreshness;
+import app.cmesh.dashboard.enums.CloudProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class InventoryFreshnessRepositoryImplTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = TestDatabase.container();
+
+    private JdbcTemplate jdbcTemplate;
+    private InventoryFreshnessRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = TestDatabase.reset(postgres);
+        repository = new InventoryFreshnessRepositoryImpl(jdbcTemplate);
+    }
+
+    private void credential(UUID userId, String provider, String status, Duration sinceSuccess) {
+        jdbcTemplate.update("""
+                INSERT INTO cloud_credentials (credential_id, user_id, provider, status, provider_config,
+                                               last_success_at)
+                VALUES (gen_random_uuid(), ?, ?, ?, '{}'::jsonb, now() - make_interval(secs => ?))
+                """, userId, provider, status, sinceSuccess.toSeconds());
+    }
+
+    private void resource(String status) {
+        jdbcTemplate.update("""
+                INSERT INTO resources (resource_id, resource_name, provider, resource_type, resource_status)
+                VALUES (gen_random_uuid(), 'vm', 'AWS', 'COMPUTE_INSTANCE', ?)
+                """, status);
+    }
+
+    @Test
+    void testFreshness_AgesActiveCredentialsPerProvider() {
+        UUID userId = TestDatabase.insertUser(jdbcTemplate);
+        credential(userId, "AWS", "ACTIVE", Duration.ofHours(1));
+        credential(userId, "AWS", "ACTIVE", Duration.ofHours(10));
+        credential(userId, "AWS", "INACTIVE", Duration.ofDays(30));
+        credential(userId, "GCP", "ACTIVE", Duration.ofMinutes(5));
+
+        InventoryFreshness freshness = repository.freshness(Duration.ofHours(8));
+
+        InventoryFreshness.ProviderFreshness aws = freshness.providers().get(CloudProvider.AWS);
+        assertEquals(2, aws.activeCredentials());
+        assertEquals(1, aws.staleCredentials());
+        assertTrue(Math.abs(aws.oldestSeconds() - Duration.ofHours(10).toSeconds()) < 60);
+        assertEquals(0, freshness.providers().get(CloudProvider.GCP).staleCredentials());
+        assertFalse(freshness.providers().containsKey(CloudProvider.AZURE));
+    }
+
+    @Test
+    void testFreshness_TenantAgeIsItsOldestCredential() {
+        UUID first = TestDatabase.insertUser(jdbcTemplate);
+        credential(first, "AWS", "ACTIVE", Duration.ofMinutes(1));
+        credential(first, "GCP", "ACTIVE", Duration.ofHours(2));
+        UUID second = TestDatabase.insertUser(jdbcTemplate);
+        credential(second, "AWS", "ACTIVE", Duration.ofHours(4));
+
+        InventoryFreshness.TenantFreshness tenants = repository.freshness(Duration.ofHours(8)).tenants();
+
+        assertEquals(2, tenants.tenants());
+        assertTrue(Math.abs(tenants.maxSeconds() - Duration.ofHours(4).toSeconds()) < 60);
+        assertTrue(Math.abs(tenants.p50Seconds() - Duration.ofHours(3).toSeconds()) < 60);
+    }
+
+    @Test
+    void testFreshness_NoCredentialsIsAllZero() {
+        InventoryFreshness freshness = repository.freshness(Duration.ofHours(8));
+
+        assertTrue(freshness.providers().isEmpty());
+        assertEquals(0, freshness.tenants().tenants());
+        assertEquals(0, freshness.tenants().maxSeconds());
+        assertEquals(0, freshness.totalResources());
+        assertEquals(0, freshness.totalProjects());
+    }
+
+    @Test
+    void testFreshness_EstimatesTotalsWithoutDestroyedResources() {
+        resource("RUNNING");
+        resource("RUNNING");
+        resource("STOPPED");
+        resource("DESTROYED");
+        UUID userId = TestDatabase.insertUser(jdbcTemplate);
+        jdbcTemplate.update("""
+                INSERT INTO projects (project_id, project_name, user_id)
+                VALUES (gen_random_uuid(), 'web', ?)
+                """, userId);
+        jdbcTemplate.execute("ANALYZE resources");
+        jdbcTemplate.execute("ANALYZE projects");
+
+        InventoryFreshness freshness = repository.freshness(Duration.ofHours(8));
+
+        assertEquals(3, freshness.totalResources());
+        assertEquals(1, freshness.totalProjects());
+    }
+}
@@ -0,0 +1,177 @@
+package app.cmesh.dashboard.repository;
+
+import app.cmesh.TestDatabase;
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.enums.ResourceStatus;
+import app.cmesh.dashboard.enums.ResourceType;
+import app.cmesh.sync.ResourceSnapshot;
+import app.cmesh.sync.SyncResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class ResourceBulkRepositoryImplTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = TestDatabase.container();
+
+    private JdbcTemplate jdbcTemplate;
+    private ResourceBulkRepositoryImpl repository;
+    private UUID credentialId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = TestDatabase.reset(postgres);
+        repository = new ResourceBulkRepositoryImpl(jdbcTemplate, JsonMapper.builder().build());
+        credentialId = TestDatabase.insertCredential(jdbcTemplate, TestDatabase.insertUser(jdbcTemplate));
+    }
+
+    private static ResourceSnapshot bucket(String name) {
+        return bucket(name, ResourceStatus.RUNNING);
+    }
+
+    private static ResourceSnapshot bucket(String name, ResourceStatus status) {
+        return new ResourceSnapshot(name, name, ResourceType.S3_BUCKET, status, "us-east-1", 0.0, null);
+    }
+
+    private String statusOf(String providerResourceId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT resource_status FROM resources WHERE provider_resource_id = ?", String.class, providerResourceId);
+    }
+
+    private List<String> changeTypes() {
+        return jdbcTemplate.queryForList(
+                "SELECT change_type FROM resource_changes ORDER BY change_id", String.class);
+    }
+
+    @Test
+    void testUpsertAll_InsertThenUpdateThenNoOp() {
+        SyncResult inserted = repository.upsertAll(CloudProvider.AWS, credentialId, List.of(bucket("logs")));
+        SyncResult updated = repository.upsertAll(CloudProvider.AWS, credentialId,
+                List.of(bucket("logs", ResourceStatus.STOPPED)));
+        SyncResult unchanged = repository.upsertAll(CloudProvider.AWS, credentialId,
+                List.of(bucket("logs", ResourceStatus.STOPPED)));
+
+        assertEquals(1, inserted.added());
+        assertEquals(0, inserted.changed());
+        assertEquals(0, updated.added());
+        assertEquals(1, updated.changed());
+        assertEquals(inserted.writtenResourceIds(), updated.writtenResourceIds());
+        assertEquals(0, unchanged.added());
+        assertEquals(0, unchanged.changed());
+        assertTrue(unchanged.writtenResourceIds().isEmpty());
+        assertEquals("STOPPED", statusOf("logs"));
+    }
+
+    @Test
+    void testUpsertAll_WritesOneChangePerWrittenResource() {
+        repository.upsertAll(CloudProvider.AWS, credentialId, List.of(bucket("logs"), bucket("assets")));
+        repository.upsertAll(CloudProvider.AWS, credentialId,
+                List.of(bucket("logs", ResourceStatus.STOPPED), bucket("assets")));
+        repository.upsertAll(CloudProvider.AWS, credentialId,
+                List.of(bucket("logs", ResourceStatus.STOPPED), bucket("assets")));
+
+        assertEquals(List.of("ADDED", "ADDED", "CHANGED"), changeTypes());
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM resource_changes c JOIN cloud_credentials k ON k.credential_id = c.credential_id"
+                        + " WHERE c.user_id = k.user_id", Integer.class));
+    }
+
+    @Test
+    void testUpsertAll_KeepsStatusFromEventNewerThanListing() {
+        Instant firstListing = Instant.parse("2026-01-01T10:00:00Z");
+        Instant event = Instant.parse("2026-01-01T10:05:00Z");
+        Instant staleListing = Instant.parse("2026-01-01T10:01:00Z");
+        repository.upsertAll(CloudProvider.AWS, credentialId, List.of(bucket("logs").withListedAt(firstListing)));
+        repository.applyStatusEvent(CloudProvider.AWS, List.of(credentialId), "logs", "us-east-1",
+                ResourceStatus.STOPPED, event);
+
+        SyncResult result = repository.upsertAll(CloudProvider.AWS, credentialId,
+                List.of(bucket("logs").withListedAt(staleListing)));
+
+        assertEquals(0, result.changed());
+        assertEquals("STOPPED", statusOf("logs"));
+        assertEquals(List.of("ADDED", "CHANGED"), changeTypes());
+    }
+
+    @Test
+    void testUpsertAll_ListingNewerThanEventOverridesStatus() {
+        Instant firstListing = Instant.parse("2026-01-01T10:00:00Z");
+        Instant event = Instant.parse("2026-01-01T10:05:00Z");
+        Instant laterListing = Instant.parse("2026-01-01T10:10:00Z");
+        repository.upsertAll(CloudProvider.AWS, credentialId, List.of(bucket("logs").withListedAt(firstListing)));
+        repository.applyStatusEvent(CloudProvider.AWS, List.of(credentialId), "logs", "us-east-1",
+                ResourceStatus.STOPPED, event);
+
+        SyncResult result = repository.upsertAll(CloudProvider.AWS, credentialId,
+                List.of(bucket("logs").withListedAt(laterListing)));
+
+        assertEquals(1, result.changed());
+        assertEquals("RUNNING", statusOf("logs"));
+    }
+
+    @Test
+    void testTombstoneMissing_DestroysResourcesNotSeen() {
+        repository.upsertAll(CloudProvider.AWS, credentialId, List.of(bucket("logs"), bucket("assets")));
+
+        int removed = repository.tombstoneMissing(CloudProvider.AWS, credentialId, List.of("logs"));
+        int removedAgain = repository.tombstoneMissing(CloudProvider.AWS, credentialId, List.of("logs"));
+
+        assertEquals(1, removed);
+        assertEquals(0, removedAgain);
+        assertEquals("RUNNING", statusOf("logs"));
+        assertEquals("DESTROYED", statusOf("assets"));
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT fingerprint FROM resources WHERE provider_resource_id = 'assets'", String.class));
+        assertEquals(List.of("ADDED", "ADDED", "REMOVED"), changeTypes());
+    }
+
+    @Test
+    void testUpsertAll_RewritesResourceThatReappears() {
+        repository.upsertAll(CloudProvider.AWS, credentialId, List.of(bucket("logs")));
+        repository.tombstoneMissing(CloudProvider.AWS, credentialId, List.of());
+
+        // Same snapshot as before it vanished; only the cleared fingerprint makes it differ
+        SyncResult result = repository.upsertAll(CloudProvider.AWS, credentialId, List.of(bucket("logs")));
+
+        assertEquals(0, result.added());
+        assertEquals(1, result.changed());
+        assertEquals("RUNNING", statusOf("logs"));
+        assertEquals(List.of("ADDED", "REMOVED", "CHANGED"), changeTypes());
+    }
+
+    @Test
+    void testUpsertAll_ResourceWithoutTagsIsStoredWithEmptyTags() {
+        repository.upsertAll(CloudProvider.AWS, credentialId, List.of(bucket("logs")));
+
+        assertEquals("{}", jdbcTemplate.queryForObject(
+                "SELECT tags::text FROM resources WHERE provider_resource_id = 'logs'", String.class));
+    }
+
+    @Test
+    void testFindRuleCandidates_RuleWithoutConditionsSeesResourcesWithoutTags() {
+        repository.upsertAll(CloudProvider.AWS, credentialId, List.of(bucket("logs")));
+
+        List<ResourceBulkRepository.RuleCandidate> candidates =
+                repository.findRuleCandidates(Map.of(), List.of(), null, 10);
+        List<ResourceBulkRepository.TaggedResource> assignable =
+                repository.findAssignable(UUID.randomUUID(), Map.of(), List.of(), null, 10);
+
+        assertEquals(1, candidates.size());
+        assertEquals(Map.of(), candidates.getFirst().tags());
+        assertEquals(1, assignable.size());
+        assertEquals(Map.of(), assignable.getFirst().tags());
+    }
+}
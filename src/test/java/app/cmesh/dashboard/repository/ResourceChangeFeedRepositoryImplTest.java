@@ -0,0 +1,121 @@
+package app.cmesh.dashboard.repository;
+
+import app.cmesh.TestDatabase;
+import app.cmesh.dashboard.dto.ResourceChangeDTO;
+import app.cmesh.dashboard.dto.ResourceChangePage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class ResourceChangeFeedRepositoryImplTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = TestDatabase.container();
+
+    private JdbcTemplate jdbcTemplate;
+    private ResourceChangeFeedRepositoryImpl repository;
+    private UUID userId;
+    private UUID credentialId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = TestDatabase.reset(postgres);
+        repository = new ResourceChangeFeedRepositoryImpl(jdbcTemplate);
+        userId = TestDatabase.insertUser(jdbcTemplate);
+        credentialId = TestDatabase.insertCredential(jdbcTemplate, userId);
+    }
+
+    // Each call commits on its own, so every change gets its own transaction
+    private UUID change(UUID owner, UUID credential) {
+        UUID resourceId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO resource_changes (resource_id, credential_id, user_id, provider, provider_resource_id,
+                                              change_type, resource_status, changed_at)
+                VALUES (?, ?, ?, 'AWS', 'i-1', 'ADDED', 'RUNNING', now())
+                """, resourceId, credential, owner);
+        return resourceId;
+    }
+
+    private static List<UUID> resourceIds(ResourceChangePage page) {
+        return page.changes().stream().map(ResourceChangeDTO::resourceId).toList();
+    }
+
+    @Test
+    void testReadAfter_PagesThroughChangesWithTheNextCursor() {
+        UUID first = change(userId, credentialId);
+        UUID second = change(userId, credentialId);
+        UUID third = change(userId, credentialId);
+
+        ResourceChangePage page = repository.readAfter(userId, null, 2);
+        assertEquals(List.of(first, second), resourceIds(page));
+        assertTrue(page.hasMore());
+        assertTrue(page.next().matches("\\d+-\\d+"));
+
+        ResourceChangePage rest = repository.readAfter(userId, page.next(), 2);
+        assertEquals(List.of(third), resourceIds(rest));
+        assertFalse(rest.hasMore());
+
+        ResourceChangePage caughtUp = repository.readAfter(userId, rest.next(), 2);
+        assertTrue(caughtUp.changes().isEmpty());
+        assertEquals(rest.next(), caughtUp.next());
+    }
+
+    @Test
+    void testReadAfter_BlankCursorStartsFromTheBeginning() {
+        UUID first = change(userId, credentialId);
+
+        assertEquals(List.of(first), resourceIds(repository.readAfter(userId, " ", 10)));
+        assertEquals(List.of(first), resourceIds(repository.readAfter(userId, "0-0", 10)));
+    }
+
+    @Test
+    void testReadAfter_MalformedCursorThrows() {
+        for (String cursor : List.of("abc", "12", "-5", "1-", "1-x", "x-1")) {
+            assertThrows(IllegalArgumentException.class, () -> repository.readAfter(userId, cursor, 10), cursor);
+        }
+    }
+
+    @Test
+    void testReadAfter_OnlyReturnsTheUsersChanges() {
+        UUID otherUser = TestDatabase.insertUser(jdbcTemplate);
+        UUID otherCredential = TestDatabase.insertCredential(jdbcTemplate, otherUser);
+        UUID mine = change(userId, credentialId);
+        UUID theirs = change(otherUser, otherCredential);
+
+        assertEquals(List.of(mine), resourceIds(repository.readAfter(userId, null, 10)));
+        assertEquals(List.of(theirs), resourceIds(repository.readAfter(otherUser, null, 10)));
+    }
+
+    @Test
+    void testReadAfter_StopsBeforeTheOldestRunningTransaction() throws Exception {
+        UUID before = change(userId, credentialId);
+        UUID after;
+        try (Connection open = jdbcTemplate.getDataSource().getConnection()) {
+            open.setAutoCommit(false);
+            try (Statement statement = open.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT pg_current_xact_id()")) {
+                rs.next();
+            }
+            after = change(userId, credentialId);
+
+            // The open transaction may still commit a change that sorts before after
+            assertEquals(List.of(before), resourceIds(repository.readAfter(userId, null, 10)));
+
+            open.rollback();
+        }
+
+        assertEquals(List.of(before, after), resourceIds(repository.readAfter(userId, null, 10)));
+    }
+}
@@ -0,0 +1,76 @@
+package app.cmesh.observability;
+
+import app.cmesh.dashboard.dto.InventoryFreshness;
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.repository.CloudCredentialsRepository;
+import app.cmesh.sync.SyncProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryFreshnessSamplerTest {
+
+    @Mock
+    private CloudCredentialsRepository credentialsRepository;
+
+    private SimpleMeterRegistry registry;
+    private SyncProperties properties;
+    private InventoryFreshnessSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        properties = new SyncProperties();
+        sampler = new InventoryFreshnessSampler(credentialsRepository, properties, new MetricsService(registry));
+    }
+
+    private double gauge(String name, String tag, String value) {
+        return registry.get(name).tag(tag, value).gauge().value();
+    }
+
+    @Test
+    void testSampleFreshness_PublishesProviderTenantAndTotalGauges() {
+        when(credentialsRepository.freshness(properties.getFreshnessSlo())).thenReturn(new InventoryFreshness(
+                Map.of(CloudProvider.AWS, new InventoryFreshness.ProviderFreshness(3, 7200, 1)),
+                new InventoryFreshness.TenantFreshness(2, 60, 3600, 7000, 7200),
+                42, 5));
+
+        sampler.sampleFreshness();
+
+        assertEquals(7200, gauge("cloudmesh.sync.freshness.oldest", "provider", "AWS"));
+        assertEquals(1, gauge("cloudmesh.sync.freshness.stale", "provider", "AWS"));
+        assertEquals(0, gauge("cloudmesh.sync.freshness.oldest", "provider", "GCP"));
+        assertEquals(60, gauge("cloudmesh.sync.tenant.freshness", "quantile", "0.5"));
+        assertEquals(7200, gauge("cloudmesh.sync.tenant.freshness", "quantile", "1.0"));
+        assertEquals(3, registry.get("cloudmesh.credentials.active").gauge().value());
+        assertEquals(42, registry.get("cloudmesh.resources.total").gauge().value());
+        assertEquals(5, registry.get("cloudmesh.projects.total").gauge().value());
+    }
+
+    @Test
+    void testSampleFreshness_ProviderThatDisappearsDropsToZero() {
+        when(credentialsRepository.freshness(properties.getFreshnessSlo()))
+                .thenReturn(new InventoryFreshness(
+                        Map.of(CloudProvider.AWS, new InventoryFreshness.ProviderFreshness(1, 600, 1)),
+                        new InventoryFreshness.TenantFreshness(1, 600, 600, 600, 600), 1, 1))
+                .thenReturn(new InventoryFreshness(
+                        Map.of(),
+                        new InventoryFreshness.TenantFreshness(0, 0, 0, 0, 0), 0, 0));
+
+        sampler.sampleFreshness();
+        sampler.sampleFreshness();
+
+        assertEquals(0, gauge("cloudmesh.sync.freshness.oldest", "provider", "AWS"));
+        assertEquals(0, gauge("cloudmesh.sync.freshness.stale", "provider", "AWS"));
+        assertEquals(0, registry.get("cloudmesh.credentials.active").gauge().value());
+    }
+}
@@ -0,0 +1,142 @@
+package app.cmesh.project;
+
+import app.cmesh.dashboard.Project;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledRulesTest {
+
+    private ResourceAssignmentRule rule(Map<String, String> conditions) {
+        Project project = new Project();
+        project.setProjectId(UUID.randomUUID());
+        ResourceAssignmentRule rule = new ResourceAssignmentRule();
+        rule.setRuleId(UUID.randomUUID());
+        rule.setProject(project);
+        rule.setTagConditions(conditions);
+        return rule;
+    }
+
+    private ResourceAssignmentRule rule(Map<String, String> conditions, TagPredicate... predicates) {
+        ResourceAssignmentRule rule = rule(conditions);
+        rule.setTagPredicates(List.of(predicates));
+        return rule;
+    }
+
+    private TagPredicate predicate(String key, TagPredicate.Operator op, String... values) {
+        return new TagPredicate(key, op, List.of(values));
+    }
+
+    @Test
+    void testFirstMatch_HighestPriorityMatchWins() {
+        ResourceAssignmentRule specific = rule(Map.of("env", "prod", "team", "data"));
+        ResourceAssignmentRule broad = rule(Map.of("env", "prod"));
+        CompiledRules rules = CompiledRules.compile(List.of(specific, broad));
+
+        assertEquals(specific.getRuleId(),
+                rules.firstMatch(Map.of("env", "prod", "team", "data", "owner", "ana")).ruleId());
+        assertEquals(broad.getRuleId(), rules.firstMatch(Map.of("env", "prod", "team", "web")).ruleId());
+    }
+
+    @Test
+    void testFirstMatch_LowerPriorityOnAnotherAnchorDoesNotWin() {
+        // Many rules share env=prod, so the broad rule is anchored there and the others on their rare pair
+        List<ResourceAssignmentRule> ordered = new ArrayList<>();
+        ResourceAssignmentRule first = rule(Map.of("env", "prod", "team", "data"));
+        ordered.add(first);
+        for (int i = 0; i < 5; i++) {
+            ordered.add(rule(Map.of("env", "prod", "team", "t" + i)));
+        }
+        ordered.add(rule(Map.of("env", "prod")));
+        CompiledRules rules = CompiledRules.compile(ordered);
+
+        assertEquals(first.getRuleId(), rules.firstMatch(Map.of("env", "prod", "team", "data")).ruleId());
+        assertEquals(ordered.getLast().getRuleId(), rules.firstMatch(Map.of("env", "prod")).ruleId());
+    }
+
+    @Test
+    void testFirstMatch_AllConditionsRequired() {
+        CompiledRules rules = CompiledRules.compile(List.of(rule(Map.of("env", "prod", "team", "data"))));
+
+        assertNull(rules.firstMatch(Map.of("env", "prod")));
+        assertNull(rules.firstMatch(Map.of("env", "prod", "team", "web")));
+        assertNull(rules.firstMatch(null));
+    }
+
+    @Test
+    void testCompile_RulesWithoutConditionsAreSkipped() {
+        CompiledRules rules = CompiledRules.compile(List.of(rule(Map.of()), rule(null)));
+
+        assertTrue(rules.isEmpty());
+    }
+
+    @Test
+    void testFirstMatch_SetMembership() {
+        CompiledRules rules = CompiledRules.compile(List.of(
+                rule(Map.of(), predicate("env", TagPredicate.Operator.IN, "prod", "staging"))));
+
+        assertNotNull(rules.firstMatch(Map.of("env", "staging")));
+        assertNull(rules.firstMatch(Map.of("env", "dev")));
+    }
+
+    @Test
+    void testFirstMatch_PrefixAnchoredRulesKeepPriorityOrder() {
+        ResourceAssignmentRule dataPlatform = rule(Map.of(),
+                predicate("team", TagPredicate.Operator.PREFIX, "data-platform"));
+        ResourceAssignmentRule data = rule(Map.of(),
+                predicate("team", TagPredicate.Operator.PREFIX, "data-"));
+        ResourceAssignmentRule prod = rule(Map.of("env", "prod"),
+                predicate("team", TagPredicate.Operator.PREFIX, "d"));
+        CompiledRules rules = CompiledRules.compile(List.of(dataPlatform, data, prod));
+
+        assertEquals(dataPlatform.getRuleId(), rules.firstMatch(Map.of("team", "data-platform-ml")).ruleId());
+        assertEquals(data.getRuleId(), rules.firstMatch(Map.of("team", "data-ml", "env", "prod")).ruleId());
+        assertEquals(prod.getRuleId(), rules.firstMatch(Map.of("team", "devops", "env", "prod")).ruleId());
+        assertNull(rules.firstMatch(Map.of("team", "web")));
+    }
+
+    @Test
+    void testFirstMatch_PatternMustMatchWholeValue() {
+        CompiledRules rules = CompiledRules.compile(List.of(
+                rule(Map.of("env", "prod"), predicate("Name", TagPredicate.Operator.MATCHES, "web-\\d+"))));
+
+        assertNotNull(rules.firstMatch(Map.of("env", "prod", "Name", "web-12")));
+        assertNull(rules.firstMatch(Map.of("env", "prod", "Name", "web-12-old")));
+        assertNull(rules.firstMatch(Map.of("env", "prod")));
+    }
+
+    @Test
+    void testFirstMatch_AbsentTag() {
+        ResourceAssignmentRule owned = rule(Map.of("env", "prod"));
+        ResourceAssignmentRule unowned = rule(Map.of(), predicate("owner", TagPredicate.Operator.ABSENT));
+        CompiledRules rules = CompiledRules.compile(List.of(owned, unowned));
+
+        assertEquals(owned.getRuleId(), rules.firstMatch(Map.of("env", "prod")).ruleId());
+        assertEquals(unowned.getRuleId(), rules.firstMatch(Map.of("env", "dev")).ruleId());
+        assertEquals(unowned.getRuleId(), rules.firstMatch(null).ruleId());
+        assertNull(rules.firstMatch(Map.of("env", "dev", "owner", "ana")));
+    }
+
+    @Test
+    void testMatches_NullTagsAreNoTags() {
+        ResourceAssignmentRule unowned = rule(Map.of(), predicate("owner", TagPredicate.Operator.ABSENT));
+        CompiledRules rules = CompiledRules.compile(List.of(unowned));
+
+        assertTrue(rules.rules().getFirst().matches(null));
+        assertEquals(unowned.getRuleId(), rules.firstMatch(null).ruleId());
+    }
+
+    @Test
+    void testCompile_RulesWithInvalidPredicatesAreSkipped() {
+        CompiledRules rules = CompiledRules.compile(List.of(
+                rule(Map.of(), predicate("Name", TagPredicate.Operator.MATCHES, "web-(")),
+                rule(Map.of(), predicate("env", TagPredicate.Operator.IN))));
+
+        assertTrue(rules.isEmpty());
+    }
+}
@@ -0,0 +1,212 @@
+package app.cmesh.project;
+
+import app.cmesh.TestDatabase;
+import app.cmesh.dashboard.Project;
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.enums.ResourceStatus;
+import app.cmesh.dashboard.enums.ResourceType;
+import app.cmesh.dashboard.repository.ProjectRepository;
+import app.cmesh.dashboard.repository.ResourceBulkRepositoryImpl;
+import app.cmesh.dashboard.repository.ResourceRepository;
+import app.cmesh.project.dto.RulePreview;
+import app.cmesh.project.repository.ResourceAssignmentRuleRepository;
+import app.cmesh.sync.ResourceSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the rule application paths that are decided in SQL against Postgres.
+ * The resource repository's bulk methods go to the real
+ * ResourceBulkRepositoryImpl; its JPA methods are not available here.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ResourceAssignmentServiceDatabaseTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = TestDatabase.container();
+
+    private JdbcTemplate jdbcTemplate;
+    private ResourceBulkRepositoryImpl bulkRepository;
+    private AssignmentRuleIndex ruleIndex;
+    private ResourceAssignmentRuleRepository ruleRepository;
+    private ProjectRepository projectRepository;
+    private AssignmentProperties properties;
+    private ResourceAssignmentService assignmentService;
+    private UUID userId;
+    private UUID credentialId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = TestDatabase.reset(postgres);
+        bulkRepository = new ResourceBulkRepositoryImpl(jdbcTemplate, JsonMapper.builder().build());
+        ruleIndex = mock(AssignmentRuleIndex.class);
+        ruleRepository = mock(ResourceAssignmentRuleRepository.class);
+        projectRepository = mock(ProjectRepository.class);
+        properties = new AssignmentProperties();
+        userId = TestDatabase.insertUser(jdbcTemplate);
+        credentialId = TestDatabase.insertCredential(jdbcTemplate, userId);
+        assignmentService = newService();
+    }
+
+    private ResourceAssignmentService newService() {
+        return new ResourceAssignmentService(mock(ResourceRepository.class, delegatesTo(bulkRepository)),
+                projectRepository, ruleRepository, ruleIndex, mock(ApplicationEventPublisher.class), properties,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+    }
+
+    private Project project() {
+        Project project = new Project();
+        project.setProjectId(UUID.randomUUID());
+        project.setProjectName("project");
+        jdbcTemplate.update("INSERT INTO projects (project_id, project_name, user_id) VALUES (?, ?, ?)",
+                project.getProjectId(), project.getProjectName(), userId);
+        return project;
+    }
+
+    private static ResourceAssignmentRule rule(Project project, int priority, Map<String, String> conditions,
+                                               List<TagPredicate> predicates) {
+        ResourceAssignmentRule rule = new ResourceAssignmentRule();
+        rule.setRuleId(UUID.randomUUID());
+        rule.setProject(project);
+        rule.setTagConditions(conditions);
+        rule.setTagPredicates(predicates);
+        rule.setPriority(priority);
+        rule.setEnabled(true);
+        return rule;
+    }
+
+    private void write(String providerResourceId, Map<String, String> tags) {
+        bulkRepository.upsertAll(CloudProvider.AWS, credentialId, List.of(new ResourceSnapshot(
+                providerResourceId, providerResourceId, ResourceType.S3_BUCKET, ResourceStatus.RUNNING,
+                "us-east-1", 0.0, tags)));
+    }
+
+    private UUID idOf(String providerResourceId) {
+        return jdbcTemplate.queryForObject("SELECT resource_id FROM resources WHERE provider_resource_id = ?",
+                UUID.class, providerResourceId);
+    }
+
+    private UUID projectOf(String providerResourceId) {
+        return jdbcTemplate.queryForObject("SELECT project_id FROM resources WHERE provider_resource_id = ?",
+                UUID.class, providerResourceId);
+    }
+
+    @Test
+    void testApplyAssignmentRules_LowerPriorityRuleLeavesHigherPriorityMatches() {
+        Project production = project();
+        Project web = project();
+        // Ordered as the index hands them out, highest priority first
+        when(ruleIndex.current()).thenReturn(CompiledRules.compile(List.of(
+                rule(production, 10, Map.of("env", "prod"), List.of()),
+                rule(web, 0, Map.of("team", "web"), List.of()))));
+        write("both", Map.of("env", "prod", "team", "web"));
+        write("web-only", Map.of("team", "web"));
+
+        assignmentService.applyAssignmentRules();
+
+        assertEquals(production.getProjectId(), projectOf("both"));
+        assertEquals(web.getProjectId(), projectOf("web-only"));
+    }
+
+    @Test
+    void testApplyAssignmentRules_LeavesManualAssignmentsAlone() {
+        Project production = project();
+        Project chosen = project();
+        when(ruleIndex.current()).thenReturn(CompiledRules.compile(List.of(
+                rule(production, 0, Map.of("env", "prod"), List.of()))));
+        write("pinned", Map.of("env", "prod"));
+        write("free", Map.of("env", "prod"));
+        bulkRepository.assignManually(chosen.getProjectId(), List.of(idOf("pinned")));
+
+        assignmentService.applyAssignmentRules();
+
+        assertEquals(chosen.getProjectId(), projectOf("pinned"));
+        assertEquals(production.getProjectId(), projectOf("free"));
+    }
+
+    @Test
+    void testApplyAssignmentRules_AssignsMoreMatchesThanOneChunk() {
+        properties.setChunkSize(2);
+        assignmentService = newService();
+        Project production = project();
+        when(ruleIndex.current()).thenReturn(CompiledRules.compile(List.of(
+                rule(production, 0, Map.of("env", "prod"), List.of()))));
+        for (int i = 0; i < 5; i++) {
+            write("bucket-" + i, Map.of("env", "prod"));
+        }
+
+        assignmentService.applyAssignmentRules();
+
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT count(*) FROM resources WHERE project_id = ?",
+                Integer.class, production.getProjectId()));
+    }
+
+    @Test
+    void testApplyAssignmentRules_RulesAfterFirstPredicateRuleRespectIt() {
+        Project production = project();
+        Project unowned = project();
+        Project web = project();
+        when(ruleIndex.current()).thenReturn(CompiledRules.compile(List.of(
+                rule(production, 10, Map.of("env", "prod"), List.of()),
+                rule(unowned, 5, Map.of("team", "web"),
+                        List.of(new TagPredicate("owner", TagPredicate.Operator.ABSENT, null))),
+                rule(web, 0, Map.of("team", "web"), List.of()))));
+        write("prod", Map.of("env", "prod", "team", "web"));
+        write("unowned", Map.of("team", "web"));
+        write("owned", Map.of("team", "web", "owner", "ana"));
+
+        assignmentService.applyAssignmentRules();
+
+        assertEquals(production.getProjectId(), projectOf("prod"));
+        assertEquals(unowned.getProjectId(), projectOf("unowned"));
+        assertEquals(web.getProjectId(), projectOf("owned"));
+    }
+
+    @Test
+    void testApplyAssignmentRules_AbsentOnlyRuleAssignsResourceWithoutTags() {
+        Project unowned = project();
+        ResourceAssignmentRule rule = rule(unowned, 0, Map.of(),
+                List.of(new TagPredicate("owner", TagPredicate.Operator.ABSENT, null)));
+        CompiledRules rules = CompiledRules.compile(List.of(rule));
+        when(ruleIndex.current()).thenReturn(rules);
+        write("logs", null);
+
+        assignmentService.applyAssignmentRules();
+
+        // The sync path evaluates the same resource in memory and agrees
+        assertSame(rules.rules().getFirst(), rules.firstMatch(null));
+        assertEquals(unowned.getProjectId(), projectOf("logs"));
+    }
+
+    @Test
+    void testPreviewRule_AbsentOnlyRuleCountsResourcesWithoutTags() {
+        Project unowned = project();
+        when(projectRepository.findById(unowned.getProjectId())).thenReturn(Optional.of(unowned));
+        when(ruleRepository.findByEnabledTrueOrderByPriorityDesc()).thenReturn(List.of());
+        write("logs", null);
+        write("owned", Map.of("owner", "ana"));
+
+        RulePreview preview = assignmentService.previewRule(unowned.getProjectId(), Map.of(),
+                List.of(new TagPredicate("owner", TagPredicate.Operator.ABSENT, null)), 0, 0, 10);
+
+        assertEquals(1, preview.matched());
+        assertEquals(1, preview.claimed());
+        assertEquals("logs", preview.affected().getFirst().resourceName());
+    }
+}
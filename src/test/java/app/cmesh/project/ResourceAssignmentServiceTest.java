@@ -0,0 +1,164 @@
+package app.cmesh.project;
+
+import app.cmesh.dashboard.Project;
+import app.cmesh.dashboard.Resource;
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.repository.ProjectRepository;
+import app.cmesh.dashboard.repository.ResourceBulkRepository.RuleCandidate;
+import app.cmesh.dashboard.repository.ResourceRepository;
+import app.cmesh.project.dto.BulkAssignmentResult;
+import app.cmesh.project.dto.RulePreview;
+import app.cmesh.project.repository.ResourceAssignmentRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceAssignmentServiceTest {
+
+    @Mock
+    private ResourceRepository resourceRepository;
+    @Mock
+    private ProjectRepository projectRepository;
+    @Mock
+    private ResourceAssignmentRuleRepository ruleRepository;
+    @Mock
+    private AssignmentRuleIndex ruleIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ResourceAssignmentService assignmentService;
+    private Project project;
+    private Project other;
+
+    @BeforeEach
+    void setUp() {
+        assignmentService = new ResourceAssignmentService(resourceRepository, projectRepository, ruleRepository,
+                ruleIndex, eventPublisher, new AssignmentProperties(), transactionManager);
+        project = project();
+        other = project();
+        lenient().when(projectRepository.findById(project.getProjectId())).thenReturn(Optional.of(project));
+    }
+
+    private Project project() {
+        Project created = new Project();
+        created.setProjectId(UUID.randomUUID());
+        return created;
+    }
+
+    private RuleCandidate candidate(Project current, boolean manual, Map<String, String> tags) {
+        return new RuleCandidate(UUID.randomUUID(), "vm", CloudProvider.AWS,
+                current != null ? current.getProjectId() : null, manual, tags);
+    }
+
+    @Test
+    void testPreviewRule_ClassifiesMatchedResources() {
+        ResourceAssignmentRule higher = new ResourceAssignmentRule();
+        higher.setRuleId(UUID.randomUUID());
+        higher.setProject(other);
+        higher.setTagConditions(Map.of("team", "data"));
+        higher.setPriority(10);
+        when(ruleRepository.findByEnabledTrueOrderByPriorityDesc()).thenReturn(List.of(higher));
+
+        RuleCandidate unassigned = candidate(null, false, Map.of("env", "prod"));
+        RuleCandidate elsewhere = candidate(other, false, Map.of("env", "prod"));
+        RuleCandidate alreadyIn = candidate(project, false, Map.of("env", "prod"));
+        RuleCandidate kept = candidate(other, false, Map.of("env", "prod", "team", "data"));
+        RuleCandidate manual = candidate(other, true, Map.of("env", "prod"));
+        when(resourceRepository.findRuleCandidates(eq(Map.of("env", "prod")), any(), isNull(), anyInt()))
+                .thenReturn(List.of(unassigned, elsewhere, alreadyIn, kept, manual));
+
+        RulePreview preview = assignmentService.previewRule(project.getProjectId(), Map.of("env", "prod"),
+                null, 0, 0, 1);
+
+        assertEquals(5, preview.matched());
+        assertEquals(1, preview.claimed());
+        assertEquals(1, preview.reassigned());
+        assertEquals(1, preview.unchanged());
+        assertEquals(1, preview.shadowed());
+        assertEquals(1, preview.manual());
+        assertEquals(List.of(unassigned.resourceId()),
+                preview.affected().stream().map(RulePreview.AffectedResource::resourceId).toList());
+        verify(resourceRepository, never()).assignProject(any(), any());
+    }
+
+    @Test
+    void testApplyAssignmentRules_LoadsWrittenResourcesInChunks() {
+        AssignmentProperties properties = new AssignmentProperties();
+        properties.setChunkSize(2);
+        assignmentService = new ResourceAssignmentService(resourceRepository, projectRepository, ruleRepository,
+                ruleIndex, eventPublisher, properties, transactionManager);
+        ResourceAssignmentRule rule = new ResourceAssignmentRule();
+        rule.setRuleId(UUID.randomUUID());
+        rule.setProject(project);
+        rule.setTagConditions(Map.of("env", "prod"));
+        rule.setPriority(0);
+        when(ruleIndex.current()).thenReturn(CompiledRules.compile(List.of(rule)));
+        when(resourceRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Resource> resources = new ArrayList<>();
+            for (UUID resourceId : invocation.<Iterable<UUID>>getArgument(0)) {
+                Resource resource = new Resource();
+                resource.setResourceId(resourceId);
+                resource.setTags(Map.of("env", "prod"));
+                resources.add(resource);
+            }
+            return resources;
+        });
+        when(projectRepository.getReferenceById(project.getProjectId())).thenReturn(project);
+        List<UUID> resourceIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID(), UUID.randomUUID());
+
+        assignmentService.applyAssignmentRules(resourceIds);
+
+        ArgumentCaptor<Iterable<UUID>> chunks = ArgumentCaptor.captor();
+        verify(resourceRepository, times(3)).findAllById(chunks.capture());
+        assertEquals(List.of(resourceIds.subList(0, 2), resourceIds.subList(2, 4), resourceIds.subList(4, 5)),
+                chunks.getAllValues());
+        verify(resourceRepository, times(3)).saveAll(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void testPreviewRule_RuleThatCannotMatchIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> assignmentService.previewRule(
+                project.getProjectId(), Map.of(), null, 0, 0, 10));
+    }
+
+    @Test
+    void testManuallyAssignAll_ReportsEveryRequestedResource() {
+        UUID moved = UUID.randomUUID();
+        UUID stayed = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        List<UUID> resourceIds = List.of(moved, stayed, unknown);
+        when(resourceRepository.assignManually(project.getProjectId(), resourceIds)).thenReturn(Map.of(
+                moved, BulkAssignmentResult.Outcome.UPDATED,
+                stayed, BulkAssignmentResult.Outcome.UNCHANGED));
+
+        BulkAssignmentResult result = assignmentService.manuallyAssignAll(project.getProjectId(), resourceIds);
+
+        assertEquals(3, result.requested());
+        assertEquals(1, result.updated());
+        assertEquals(1, result.unchanged());
+        assertEquals(1, result.notFound());
+        assertEquals(List.of(BulkAssignmentResult.Outcome.UPDATED, BulkAssignmentResult.Outcome.UNCHANGED,
+                        BulkAssignmentResult.Outcome.NOT_FOUND),
+                result.items().stream().map(BulkAssignmentResult.Item::outcome).toList());
+    }
+}
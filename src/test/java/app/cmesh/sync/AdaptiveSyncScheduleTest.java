@@ -0,0 +1,74 @@
+package app.cmesh.sync;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveSyncScheduleTest {
+
+    private SyncProperties properties;
+    private AdaptiveSyncSchedule schedule;
+
+    private final SyncResult changed = new SyncResult(1, 0, 0, 10, List.of());
+    private final SyncResult unchanged = new SyncResult(0, 0, 0, 10, List.of());
+
+    @BeforeEach
+    void setUp() {
+        properties = new SyncProperties();
+        properties.setInterval(Duration.ofMinutes(15).toMillis());
+        properties.setMinInterval(Duration.ofMinutes(2));
+        properties.setMaxInterval(Duration.ofHours(6));
+        properties.setBackoffMultiplier(2.0);
+        properties.setJitter(0.1);
+        schedule = new AdaptiveSyncSchedule(properties, new Random(42));
+    }
+
+    @Test
+    void testNextInterval_ChangesShortenInterval() {
+        long next = schedule.nextInterval(Duration.ofMinutes(16).toMillis(), changed);
+
+        assertEquals(Duration.ofMinutes(8).toMillis(), next);
+    }
+
+    @Test
+    void testNextInterval_NoChangesBackOffUpToCeiling() {
+        long interval = properties.getInterval();
+        for (int i = 0; i < 20; i++) {
+            interval = schedule.nextInterval(interval, unchanged);
+        }
+
+        assertEquals(Duration.ofHours(6).toMillis(), interval);
+    }
+
+    @Test
+    void testNextInterval_NeverBelowFloor() {
+        long next = schedule.nextInterval(Duration.ofMinutes(3).toMillis(), changed);
+
+        assertEquals(Duration.ofMinutes(2).toMillis(), next);
+    }
+
+    @Test
+    void testNextInterval_FailureKeepsInterval() {
+        assertEquals(Duration.ofMinutes(30).toMillis(),
+                schedule.nextInterval(Duration.ofMinutes(30).toMillis(), null));
+        assertEquals(properties.getInterval(), schedule.nextInterval(null, null));
+    }
+
+    @Test
+    void testDueAt_JitterStaysWithinBounds() {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        long interval = Duration.ofMinutes(10).toMillis();
+
+        for (int i = 0; i < 100; i++) {
+            Instant due = schedule.dueAt(now, interval);
+            long delay = Duration.between(now, due).toMillis();
+            assertTrue(delay >= interval * 0.9 && delay <= interval * 1.1, "delay out of bounds: " + delay);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.enums.ResourceStatus;
+import app.cmesh.dashboard.enums.ResourceType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestPipelineTest {
+
+    private final IngestPipeline pipeline = new IngestPipeline(2, 3, Duration.ofSeconds(5), 4);
+
+    @Test
+    void testRun_WritesEverySourceInBatches() throws InterruptedException {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        IngestPipeline.IngestResult result = pipeline.run(
+                List.of(source("a", List.of("a1", "a2"), List.of("a3", "a4")),
+                        source("b", List.of("b1"))),
+                (batch, checkpoints) -> {
+                    batchSizes.add(batch.size());
+                    return new SyncResult(batch.size(), 0, 0, 0, List.of());
+                },
+                Duration.ofSeconds(30));
+
+        assertEquals(Set.of("a1", "a2", "a3", "a4", "b1"), result.seenIds());
+        assertEquals(5, result.added());
+        assertEquals(0, result.unchanged());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 3));
+    }
+
+    @Test
+    void testRun_HandsEachWrittenBatchToTheWriter() throws InterruptedException {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+        pipeline.run(
+                List.of(source("a", List.of("a1", "a2", "a3"), List.of("a4"))),
+                new IngestPipeline.BatchWriter() {
+                    @Override
+                    public SyncResult write(List<ResourceSnapshot> batch, List<IngestPipeline.Checkpoint> checkpoints) {
+                        events.add("write " + batch.size());
+                        return new SyncResult(batch.size(), 0, 0, 0, List.of(UUID.randomUUID()));
+                    }
+
+                    @Override
+                    public void written(SyncResult result) {
+                        events.add("written " + result.writtenResourceIds().size());
+                    }
+                },
+                Duration.ofSeconds(30));
+
+        // Each batch is handed over before the next one is written
+        assertEquals(List.of("write 3", "written 1", "write 1", "written 1"), events);
+    }
+
+    @Test
+    void testRun_FailureCancelsSiblingsAndIsRethrown() {
+        AtomicBoolean siblingCancelled = new AtomicBoolean();
+        CountDownLatch siblingStarted = new CountDownLatch(1);
+
+        IngestPipeline.Source<String> hanging = new IngestPipeline.Source<>(
+                "hanging",
+                (startToken, pageConsumer) -> {
+                    siblingStarted.countDown();
+                    try {
+                        Thread.sleep(Duration.ofMinutes(1));
+                    } catch (InterruptedException e) {
+                        siblingCancelled.set(true);
+                        throw e;
+                    }
+                },
+                this::snapshot);
+        IngestPipeline.Source<String> failing = new IngestPipeline.Source<>(
+                "failing",
+                (startToken, pageConsumer) -> {
+                    siblingStarted.await();
+                    throw new IllegalStateException("region unavailable");
+                },
+                this::snapshot);
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> pipeline.run(List.of(hanging, failing),
+                        (batch, checkpoints) -> fail("nothing should be written"), Duration.ofSeconds(30)));
+
+        assertEquals("region unavailable", thrown.getMessage());
+        assertTrue(siblingCancelled.get());
+    }
+
+    @Test
+    void testRun_FailureWhileSiblingBlockedOnFullQueueDoesNotHang() {
+        CountDownLatch queueFilling = new CountDownLatch(1);
+        CountDownLatch failed = new CountDownLatch(1);
+
+        // Swallows the cancellation of each page, as some SDK paginators do, and keeps going
+        IngestPipeline.Source<String> filler = new IngestPipeline.Source<>(
+                "filler",
+                (startToken, pageConsumer) -> {
+                    for (int i = 0; i < 10; i++) {
+                        if (i == 4) {
+                            queueFilling.countDown();
+                        }
+                        try {
+                            pageConsumer.accept(List.of("f" + i + "a", "f" + i + "b"), String.valueOf(i + 1));
+                        } catch (CancellationException e) {
+                            Thread.interrupted();
+                        }
+                    }
+                },
+                this::snapshot);
+        IngestPipeline.Source<String> failing = new IngestPipeline.Source<>(
+                "failing",
+                (startToken, pageConsumer) -> {
+                    queueFilling.await();
+                    failed.countDown();
+                    throw new IllegalStateException("region unavailable");
+                },
+                this::snapshot);
+
+        // The writer holds the consumer until the failure, so the filler fills the queue
+        IllegalStateException thrown = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(
+                IllegalStateException.class,
+                () -> pipeline.run(List.of(filler, failing),
+                        (batch, checkpoints) -> {
+                            try {
+                                failed.await(5, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            return new SyncResult(batch.size(), 0, 0, 0, List.of());
+                        },
+                        Duration.ofSeconds(30))));
+
+        assertEquals("region unavailable", thrown.getMessage());
+    }
+
+    @Test
+    void testRun_DeadlineCancelsHungSource() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        IngestPipeline.Source<String> hung = new IngestPipeline.Source<>(
+                "hung",
+                (startToken, pageConsumer) -> {
+                    pageConsumer.accept(List.of("h1"), "2");
+                    try {
+                        Thread.sleep(Duration.ofMinutes(1));
+                    } catch (InterruptedException e) {
+                        cancelled.set(true);
+                        throw e;
+                    }
+                },
+                this::snapshot);
+
+        assertThrows(SyncTimeoutException.class,
+                () -> pipeline.run(List.of(hung),
+                        (batch, checkpoints) -> new SyncResult(batch.size(), 0, 0, 0, List.of()),
+                        Duration.ofMillis(200)));
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    void testRun_DeadlineHoldsWhenSourceIgnoresInterrupts() {
+        CountDownLatch released = new CountDownLatch(1);
+
+        IngestPipeline.Source<String> blocked = new IngestPipeline.Source<>(
+                "blocked",
+                (startToken, pageConsumer) -> {
+                    while (released.getCount() > 0) {
+                        try {
+                            released.await();
+                        } catch (InterruptedException ignored) {
+                            // Like a provider call that can't be interrupted
+                        }
+                    }
+                },
+                this::snapshot);
+
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(SyncTimeoutException.class,
+                    () -> pipeline.run(List.of(blocked),
+                            (batch, checkpoints) -> new SyncResult(batch.size(), 0, 0, 0, List.of()),
+                            Duration.ofMillis(200))));
+        } finally {
+            released.countDown();
+        }
+    }
+
+    @Test
+    void testRun_CheckpointsCompletedPagesAndResumesFromToken() throws InterruptedException {
+        List<IngestPipeline.Checkpoint> saved = Collections.synchronizedList(new ArrayList<>());
+
+        IngestPipeline.IngestResult result = pipeline.run(
+                List.of(source("a", List.of("a1", "a2"), List.of("a3", "a4"), List.of("a5")).resumingFrom("1")),
+                (batch, checkpoints) -> {
+                    saved.addAll(checkpoints);
+                    return new SyncResult(0, 0, 0, batch.size(), List.of());
+                },
+                Duration.ofSeconds(30));
+
+        // Page 0 was written before the resume, so only pages 1 and 2 are listed
+        assertEquals(Set.of("a3", "a4", "a5"), result.seenIds());
+        assertTrue(result.complete());
+        assertEquals(new IngestPipeline.Checkpoint("a", null), saved.getLast());
+        assertFalse(saved.contains(new IngestPipeline.Checkpoint("a", "1")));
+    }
+
+    @Test
+    void testRun_RecordsPagesItemsAndWriteTime() throws InterruptedException {
+        SyncRunStats stats = new SyncRunStats();
+
+        pipeline.run(
+                List.of(source("a", List.of("a1", "a2"), List.of("a3")), source("b", List.of("b1"))),
+                (batch, checkpoints) -> {
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new SyncResult(batch.size(), 0, 0, 0, List.of());
+                },
+                Duration.ofSeconds(30),
+                stats);
+
+        assertEquals(3, stats.pages());
+        assertEquals(4, stats.items());
+        assertTrue(stats.millis(SyncStage.WRITE) >= 5);
+        assertEquals(0, stats.throttles());
+    }
+
+    @Test
+    void testRun_StampsSnapshotsWithTheirPageRequestTime() throws InterruptedException {
+        Map<String, Instant> listedAt = new ConcurrentHashMap<>();
+        Instant before = Instant.now();
+        Instant[] betweenPages = new Instant[1];
+
+        pipeline.run(
+                List.of(new IngestPipeline.Source<>(
+                        "a",
+                        (startToken, pageConsumer) -> {
+                            pageConsumer.accept(List.of("a1"), "1");
+                            Thread.sleep(5);
+                            betweenPages[0] = Instant.now();
+                            pageConsumer.accept(List.of("a2"), null);
+                        },
+                        this::snapshot)),
+                (batch, checkpoints) -> {
+                    batch.forEach(snapshot -> listedAt.put(snapshot.providerResourceId(), snapshot.listedAt()));
+                    return new SyncResult(batch.size(), 0, 0, 0, List.of());
+                },
+                Duration.ofSeconds(30));
+
+        assertFalse(listedAt.get("a1").isBefore(before));
+        // Page two was requested once page one was handed over, before the source's own timestamp
+        assertTrue(listedAt.get("a1").isBefore(listedAt.get("a2")));
+        assertFalse(listedAt.get("a2").isAfter(betweenPages[0]));
+    }
+
+    /**
+     * A source whose page tokens are page indexes.
+     */
+    @SafeVarargs
+    private IngestPipeline.Source<String> source(String name, List<String>... pages) {
+        return new IngestPipeline.Source<>(
+                name,
+                (startToken, pageConsumer) -> {
+                    for (int i = startToken == null ? 0 : Integer.parseInt(startToken); i < pages.length; i++) {
+                        pageConsumer.accept(pages[i], i + 1 < pages.length ? String.valueOf(i + 1) : null);
+                    }
+                },
+                this::snapshot);
+    }
+
+    private ResourceSnapshot snapshot(String id) {
+        return new ResourceSnapshot(id, id, ResourceType.EC2_INSTANCE, ResourceStatus.RUNNING,
+                "us-east-1", 0.0, null);
+    }
+}
@@ -0,0 +1,29 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.enums.ResourceStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderStatusesTest {
+
+    @Test
+    void testGce_TerminatedIsStoppedNotDestroyed() {
+        assertEquals(ResourceStatus.STOPPED, ProviderStatuses.gce("TERMINATED"));
+        assertEquals(ResourceStatus.RUNNING, ProviderStatuses.gce("RUNNING"));
+        assertNull(ProviderStatuses.gce(null));
+    }
+
+    @Test
+    void testAzureVm_PowerStateWinsOverProvisioningState() {
+        assertEquals(ResourceStatus.STOPPED, ProviderStatuses.azureVm("deallocated", "Succeeded"));
+        assertNull(ProviderStatuses.azureVm(null, "Succeeded"));
+        assertEquals(ResourceStatus.FAILED, ProviderStatuses.azureVm(null, "Failed"));
+    }
+
+    @Test
+    void testEc2_ShuttingDownIsStopped() {
+        assertEquals(ResourceStatus.STOPPED, ProviderStatuses.ec2("shutting-down"));
+        assertEquals(ResourceStatus.DESTROYED, ProviderStatuses.ec2("terminated"));
+    }
+}
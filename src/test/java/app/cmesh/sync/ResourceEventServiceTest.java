@@ -0,0 +1,153 @@
+package app.cmesh.sync;
+
+import app.cmesh.credentials.CloudCredentialService;
+import app.cmesh.dashboard.CloudCredentials;
+import app.cmesh.dashboard.Resource;
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.enums.ResourceStatus;
+import app.cmesh.dashboard.repository.CloudCredentialsRepository;
+import app.cmesh.dashboard.repository.ResourceRepository;
+import app.cmesh.observability.MetricsService;
+import app.cmesh.sync.repository.ResourceEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceEventServiceTest {
+
+    @Mock
+    private CloudCredentialsRepository credentialsRepository;
+    @Mock
+    private CloudCredentialService credentialService;
+    @Mock
+    private ResourceRepository resourceRepository;
+    @Mock
+    private ResourceEventRepository eventRepository;
+    @Mock
+    private SyncTaskQueue taskQueue;
+    @Mock
+    private ResourceEventProperties properties;
+    @Mock
+    private MetricsService metricsService;
+
+    @InjectMocks
+    private ResourceEventService eventService;
+
+    private CloudCredentials credential;
+    private ResourceChangeEvent event;
+
+    @BeforeEach
+    void setUp() {
+        credential = new CloudCredentials();
+        credential.setCredentialId(UUID.randomUUID());
+        credential.setProvider(CloudProvider.AWS);
+        credential.setProviderConfig(Map.of("roleArn", "arn:aws:iam::123456789012:role/CloudmeshRead"));
+        event = new ResourceChangeEvent("aws:1", CloudProvider.AWS, credential.getCredentialId(), "123456789012",
+                "i-0abc", "us-east-1", ResourceStatus.STOPPED, Instant.now());
+
+        when(credentialsRepository.findById(credential.getCredentialId())).thenReturn(Optional.of(credential));
+    }
+
+    @Test
+    void testApply_RedeliveryIsDuplicate() {
+        when(eventRepository.insertIfAbsent(any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertEquals(ResourceEventOutcome.DUPLICATE, eventService.apply(event));
+        verify(resourceRepository, never()).applyStatusEvent(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testApply_UpdatesEveryCopyOnTheAccount() {
+        CloudCredentials sibling = new CloudCredentials();
+        sibling.setCredentialId(UUID.randomUUID());
+        List<UUID> ownerIds = List.of(credential.getCredentialId(), sibling.getCredentialId());
+        when(eventRepository.insertIfAbsent(any(), any(), any(), any(), any())).thenReturn(1);
+        when(credentialService.accountOwners(credential)).thenReturn(List.of(credential, sibling));
+        when(resourceRepository.applyStatusEvent(CloudProvider.AWS, ownerIds, "i-0abc", "us-east-1",
+                ResourceStatus.STOPPED, event.occurredAt())).thenReturn(2);
+
+        assertEquals(ResourceEventOutcome.APPLIED, eventService.apply(event));
+        verify(taskQueue).recordEvent(ownerIds, SyncTaskType.RESOURCE, false);
+    }
+
+    @Test
+    void testApply_OlderThanLastAppliedIsStale() {
+        when(eventRepository.insertIfAbsent(any(), any(), any(), any(), any())).thenReturn(1);
+        when(credentialService.accountOwners(credential)).thenReturn(List.of(credential));
+        when(resourceRepository.applyStatusEvent(any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(resourceRepository.findByProviderAndCredentialIdAndProviderResourceId(
+                CloudProvider.AWS, credential.getCredentialId(), "i-0abc")).thenReturn(Optional.of(resourceIn("us-east-1")));
+
+        assertEquals(ResourceEventOutcome.STALE, eventService.apply(event));
+    }
+
+    @Test
+    void testApply_SameIdInAnotherRegionIsUnknown() {
+        when(eventRepository.insertIfAbsent(any(), any(), any(), any(), any())).thenReturn(1);
+        when(credentialService.accountOwners(credential)).thenReturn(List.of(credential));
+        when(resourceRepository.applyStatusEvent(any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(resourceRepository.findByProviderAndCredentialIdAndProviderResourceId(
+                CloudProvider.AWS, credential.getCredentialId(), "i-0abc")).thenReturn(Optional.of(resourceIn("eu-west-1")));
+
+        assertEquals(ResourceEventOutcome.UNKNOWN_RESOURCE, eventService.apply(event));
+    }
+
+    @Test
+    void testApply_OtherAccountIsRejected() {
+        ResourceChangeEvent foreign = new ResourceChangeEvent("aws:2", CloudProvider.AWS, credential.getCredentialId(),
+                "210987654321", "i-0abc", "us-east-1", ResourceStatus.STOPPED, Instant.now());
+
+        assertEquals(ResourceEventOutcome.REJECTED, eventService.apply(foreign));
+        verifyNoInteractions(eventRepository);
+        verify(resourceRepository, never()).applyStatusEvent(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testAuthenticate_ChecksTheCredentialsOwnToken() {
+        UUID unknownId = UUID.randomUUID();
+        when(credentialsRepository.findById(unknownId)).thenReturn(Optional.empty());
+        when(credentialService.isEventToken(credential, "token")).thenReturn(true);
+
+        assertTrue(eventService.authenticate(credential.getCredentialId(), "token"));
+        assertFalse(eventService.authenticate(unknownId, "token"));
+    }
+
+    @Test
+    void testApply_UnknownResourceBringsSyncForward() {
+        when(eventRepository.insertIfAbsent(any(), any(), any(), any(), any())).thenReturn(1);
+        when(credentialService.accountOwners(credential)).thenReturn(List.of(credential));
+        when(resourceRepository.applyStatusEvent(any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(resourceRepository.findByProviderAndCredentialIdAndProviderResourceId(any(), any(), any()))
+                .thenReturn(Optional.empty());
+
+        assertEquals(ResourceEventOutcome.UNKNOWN_RESOURCE, eventService.apply(event));
+        verify(taskQueue).recordEvent(List.of(credential.getCredentialId()), SyncTaskType.RESOURCE, true);
+    }
+
+    private static Resource resourceIn(String region) {
+        Resource resource = new Resource();
+        resource.setResourceRegion(region);
+        return resource;
+    }
+
+    @Test
+    void testApply_CredentialOfAnotherProviderIsRejected() {
+        credential.setProvider(CloudProvider.GCP);
+
+        assertThrows(IllegalArgumentException.class, () -> eventService.apply(event));
+    }
+}
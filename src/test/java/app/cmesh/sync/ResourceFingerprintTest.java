@@ -0,0 +1,64 @@
+package app.cmesh.sync;
+
+import app.cmesh.dashboard.enums.ResourceStatus;
+import app.cmesh.dashboard.enums.ResourceType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceFingerprintTest {
+
+    private ResourceSnapshot snapshot(ResourceStatus status, Map<String, String> tags) {
+        return new ResourceSnapshot("i-123", "web-1", ResourceType.EC2_INSTANCE, status, "us-east-1", 0.0, tags);
+    }
+
+    @Test
+    void testFingerprint_SameContentSameHash() {
+        Map<String, String> first = new LinkedHashMap<>();
+        first.put("env", "prod");
+        first.put("team", "data");
+
+        Map<String, String> second = new LinkedHashMap<>();
+        second.put("team", "data");
+        second.put("env", "prod");
+
+        assertEquals(
+                ResourceFingerprint.of(snapshot(ResourceStatus.RUNNING, first)),
+                ResourceFingerprint.of(snapshot(ResourceStatus.RUNNING, second)));
+    }
+
+    @Test
+    void testFingerprint_StatusChangeChangesHash() {
+        Map<String, String> tags = Map.of("env", "prod");
+
+        assertNotEquals(
+                ResourceFingerprint.of(snapshot(ResourceStatus.RUNNING, tags)),
+                ResourceFingerprint.of(snapshot(ResourceStatus.STOPPED, tags)));
+    }
+
+    @Test
+    void testFingerprint_TagChangeChangesHash() {
+        assertNotEquals(
+                ResourceFingerprint.of(snapshot(ResourceStatus.RUNNING, Map.of("env", "prod"))),
+                ResourceFingerprint.of(snapshot(ResourceStatus.RUNNING, Map.of("env", "staging"))));
+        assertNotEquals(
+                ResourceFingerprint.of(snapshot(ResourceStatus.RUNNING, null)),
+                ResourceFingerprint.of(snapshot(ResourceStatus.RUNNING, Map.of("env", "prod"))));
+    }
+
+    @Test
+    void testFingerprint_InstanceTypeChangeChangesHash() {
+        Instant launchedAt = Instant.parse("2026-10-01T12:00:00Z");
+        ResourceSnapshot micro = new ResourceSnapshot("i-123", "web-1", ResourceType.EC2_INSTANCE,
+                ResourceStatus.RUNNING, "us-east-1", 0.0, null, "t3.micro", launchedAt);
+        ResourceSnapshot large = new ResourceSnapshot("i-123", "web-1", ResourceType.EC2_INSTANCE,
+                ResourceStatus.RUNNING, "us-east-1", 0.0, null, "t3.large", launchedAt);
+
+        assertNotEquals(ResourceFingerprint.of(micro), ResourceFingerprint.of(large));
+        assertNotEquals(ResourceFingerprint.of(micro), ResourceFingerprint.of(snapshot(ResourceStatus.RUNNING, null)));
+    }
+}
@@ -0,0 +1,249 @@
+package app.cmesh.sync;
+
+import app.cmesh.aws.AwsEc2Service;
+import app.cmesh.aws.AwsS3Service;
+import app.cmesh.aws.ConnectedAwsAccount;
+import app.cmesh.aws.StsService;
+import app.cmesh.azure.AzureComputeService;
+import app.cmesh.credentials.CloudCredentialService;
+import app.cmesh.dashboard.CloudCredentials;
+import app.cmesh.dashboard.enums.CloudProvider;
+import app.cmesh.dashboard.repository.CloudCredentialsRepository;
+import app.cmesh.gcp.GcpComputeService;
+import app.cmesh.observability.MetricsService;
+import app.cmesh.project.ResourceAssignmentService;
+import app.cmesh.sync.dto.SyncResultDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceSyncServiceTest {
+
+    @Mock
+    private CloudCredentialsRepository credentialsRepository;
+    @Mock
+    private CloudCredentialService credentialService;
+    @Mock
+    private ResourceSyncWriter syncWriter;
+    @Mock
+    private AwsEc2Service awsEc2Service;
+    @Mock
+    private AwsS3Service awsS3Service;
+    @Mock
+    private StsService stsService;
+    @Mock
+    private GcpComputeService gcpComputeService;
+    @Mock
+    private AzureComputeService azureComputeService;
+    @Mock
+    private ResourceAssignmentService assignmentService;
+    @Mock
+    private MetricsService metricsService;
+    @Mock
+    private SyncTaskQueue taskQueue;
+    @Mock
+    private SyncRunService runService;
+
+    private SyncProperties properties;
+    private ResourceSyncService syncService;
+    private CloudCredentials first;
+    private CloudCredentials second;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SyncProperties();
+        syncService = newService();
+
+        first = awsCredential("first", "us-east-1");
+        second = awsCredential("second", "eu-west-1");
+    }
+
+    private ResourceSyncService newService() {
+        return new ResourceSyncService(credentialsRepository, credentialService, syncWriter,
+                awsEc2Service, awsS3Service, stsService, gcpComputeService, azureComputeService,
+                assignmentService, metricsService, new SyncConcurrencyLimiter(properties), taskQueue,
+                properties, new AdaptiveSyncSchedule(properties), runService, new ResourceEventProperties());
+    }
+
+    @Test
+    void testSyncAllResources_ClaimsForAFreedSlotWhileASlowSyncRuns() throws Exception {
+        properties.setMaxConcurrency(2);
+        syncService = newService();
+        CloudCredentials slow = awsCredential("slow", "us-east-1");
+        CloudCredentials fast = awsCredential("fast", "eu-west-1");
+        CloudCredentials next = awsCredential("next", "ap-south-1");
+        when(credentialsRepository.findAllById(any())).thenReturn(List.of(slow, fast, next));
+        when(credentialService.accountOwners(any()))
+                .thenAnswer(invocation -> List.of(invocation.getArgument(0, CloudCredentials.class)));
+        when(taskQueue.claim(eq(SyncTaskType.RESOURCE), anyInt()))
+                .thenReturn(List.of(task(slow), task(fast)), List.of(task(next)), List.of());
+        when(runService.begin(any())).thenAnswer(invocation -> new SyncRun());
+        CountDownLatch nextStarted = new CountDownLatch(1);
+        CountDownLatch finishSlow = new CountDownLatch(1);
+        when(awsEc2Service.listEnabledRegions(any())).thenAnswer(invocation -> {
+            ConnectedAwsAccount account = invocation.getArgument(0);
+            if ("ap-south-1".equals(account.region())) {
+                nextStarted.countDown();
+            } else if ("us-east-1".equals(account.region())) {
+                finishSlow.await(10, TimeUnit.SECONDS);
+            }
+            return List.of();
+        });
+
+        try (ExecutorService scheduler = Executors.newSingleThreadExecutor()) {
+            Future<?> run = scheduler.submit(syncService::syncAllResources);
+
+            // The slot fast frees is claimed for before slow is done
+            assertTrue(nextStarted.await(10, TimeUnit.SECONDS));
+            assertFalse(run.isDone());
+
+            finishSlow.countDown();
+            run.get(10, TimeUnit.SECONDS);
+        }
+        verify(taskQueue).claim(SyncTaskType.RESOURCE, 2);
+        verify(taskQueue, atLeastOnce()).claim(SyncTaskType.RESOURCE, 1);
+        assertEquals("SUCCESS", slow.getLastSyncStatus());
+        assertEquals("SUCCESS", next.getLastSyncStatus());
+    }
+
+    @Test
+    void testSyncNow_FailsOverToNextOwnerAndKeepsEachOwnersError() throws Exception {
+        when(credentialsRepository.findById(first.getCredentialId())).thenReturn(Optional.of(first));
+        when(credentialService.accountOwners(first)).thenReturn(List.of(first, second));
+        when(taskQueue.claimNow(first.getCredentialId(), SyncTaskType.RESOURCE)).thenReturn(Optional.of(task(first)));
+        when(awsEc2Service.listEnabledRegions(argThat(account -> account != null && "us-east-1".equals(account.region()))))
+                .thenThrow(new IllegalStateException("AccessDenied for first"));
+        when(awsEc2Service.listEnabledRegions(argThat(account -> account != null && "eu-west-1".equals(account.region()))))
+                .thenReturn(List.of());
+        when(runService.begin(any())).thenAnswer(invocation -> new SyncRun());
+
+        syncService.syncNow(first.getCredentialId()).get(10, TimeUnit.SECONDS);
+
+        assertEquals("FAILED", first.getLastSyncStatus());
+        assertEquals("AccessDenied for first", first.getLastSyncError());
+        assertEquals("SUCCESS", second.getLastSyncStatus());
+        assertNull(second.getLastSyncError());
+        // The listing and tombstoning after the failover are only shared with the owner that listed it
+        verify(syncWriter).tombstoneMissing(eq(List.of(second)), any());
+    }
+
+    @Test
+    void testSyncNow_OwnerFailingItsAccessCheckDoesNotGetTheListing() throws Exception {
+        when(credentialsRepository.findById(first.getCredentialId())).thenReturn(Optional.of(first));
+        when(credentialService.accountOwners(first)).thenReturn(List.of(first, second));
+        when(taskQueue.claimNow(first.getCredentialId(), SyncTaskType.RESOURCE)).thenReturn(Optional.of(task(first)));
+        when(awsEc2Service.listEnabledRegions(argThat(account -> account != null && "us-east-1".equals(account.region()))))
+                .thenReturn(List.of());
+        when(awsEc2Service.listEnabledRegions(argThat(account -> account != null && "eu-west-1".equals(account.region()))))
+                .thenThrow(new IllegalStateException("AccessDenied for second"));
+        when(runService.begin(any())).thenAnswer(invocation -> new SyncRun());
+
+        syncService.syncNow(first.getCredentialId()).get(10, TimeUnit.SECONDS);
+
+        assertEquals("SUCCESS", first.getLastSyncStatus());
+        assertEquals("FAILED", second.getLastSyncStatus());
+        assertEquals("AccessDenied for second", second.getLastSyncError());
+        verify(syncWriter).tombstoneMissing(eq(List.of(first)), any());
+    }
+
+    @Test
+    void testSyncNow_ConcurrentCallsShareOneInFlightSync() throws Exception {
+        when(credentialsRepository.findById(first.getCredentialId())).thenReturn(Optional.of(first));
+        when(credentialService.accountOwners(first)).thenReturn(List.of(first));
+        when(taskQueue.claimNow(first.getCredentialId(), SyncTaskType.RESOURCE)).thenReturn(Optional.of(task(first)));
+        when(runService.begin(any())).thenAnswer(invocation -> new SyncRun());
+        CountDownLatch listing = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        when(awsEc2Service.listEnabledRegions(any())).thenAnswer(invocation -> {
+            listing.countDown();
+            finish.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CompletableFuture<SyncResultDTO>>> calls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return syncService.syncNow(first.getCredentialId());
+                }));
+            }
+            start.countDown();
+            assertTrue(listing.await(10, TimeUnit.SECONDS));
+
+            CompletableFuture<SyncResultDTO> shared = calls.getFirst().get(10, TimeUnit.SECONDS);
+            for (Future<CompletableFuture<SyncResultDTO>> call : calls) {
+                assertSame(shared, call.get(10, TimeUnit.SECONDS));
+            }
+            // A caller arriving while the sync runs joins it too
+            assertSame(shared, syncService.syncNow(first.getCredentialId()));
+            assertFalse(shared.isDone());
+
+            finish.countDown();
+            assertEquals("SUCCESS", shared.get(10, TimeUnit.SECONDS).status());
+        }
+        verify(taskQueue, times(1)).claimNow(first.getCredentialId(), SyncTaskType.RESOURCE);
+        verify(awsEc2Service, times(1)).listEnabledRegions(any());
+    }
+
+    @Test
+    void testSyncNow_CallAfterTheSyncFinishedStartsANewOne() throws Exception {
+        when(credentialsRepository.findById(first.getCredentialId())).thenReturn(Optional.of(first));
+        when(credentialService.accountOwners(first)).thenReturn(List.of(first));
+        when(taskQueue.claimNow(first.getCredentialId(), SyncTaskType.RESOURCE))
+                .thenReturn(Optional.of(task(first)), Optional.of(task(first)));
+        when(runService.begin(any())).thenAnswer(invocation -> new SyncRun());
+        when(awsEc2Service.listEnabledRegions(any())).thenReturn(List.of());
+
+        CompletableFuture<SyncResultDTO> firstSync = syncService.syncNow(first.getCredentialId());
+        assertEquals("SUCCESS", firstSync.get(10, TimeUnit.SECONDS).status());
+
+        CompletableFuture<SyncResultDTO> secondSync = syncService.syncNow(first.getCredentialId());
+        assertNotSame(firstSync, secondSync);
+        assertEquals("SUCCESS", secondSync.get(10, TimeUnit.SECONDS).status());
+
+        verify(taskQueue, times(2)).claimNow(first.getCredentialId(), SyncTaskType.RESOURCE);
+        verify(awsEc2Service, times(2)).listEnabledRegions(any());
+    }
+
+    private static CloudCredentials awsCredential(String name, String region) {
+        CloudCredentials credential = new CloudCredentials();
+        credential.setCredentialId(UUID.randomUUID());
+        credential.setProvider(CloudProvider.AWS);
+        credential.setStatus(CloudCredentials.CredentialStatus.ACTIVE);
+        credential.setFriendlyName(name);
+        credential.setProviderConfig(Map.of("roleArn", "arn:aws:iam::123456789012:role/cmesh", "region", region));
+        return credential;
+    }
+
+    private static SyncTask task(CloudCredentials credential) {
+        SyncTask task = new SyncTask();
+        task.setTaskId(UUID.randomUUID());
+        task.setCredentialId(credential.getCredentialId());
+        task.setTaskType(SyncTaskType.RESOURCE);
+        task.setDueAt(Instant.now());
+        return task;
+    }
+}
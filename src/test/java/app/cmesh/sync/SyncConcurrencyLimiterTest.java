@@ -0,0 +1,69 @@
+package app.cmesh.sync;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncConcurrencyLimiterTest {
+
+    @Test
+    void testPriorityPermits_UserWaiterGoesFirst() throws InterruptedException {
+        SyncConcurrencyLimiter.PriorityPermits permits = new SyncConcurrencyLimiter.PriorityPermits(1);
+        List<SyncPriority> order = Collections.synchronizedList(new ArrayList<>());
+
+        permits.acquire(SyncPriority.BACKGROUND);
+
+        Thread background = Thread.ofVirtual().start(() -> acquireAndRecord(permits, SyncPriority.BACKGROUND, order));
+        awaitWaiting(background);
+        Thread user = Thread.ofVirtual().start(() -> acquireAndRecord(permits, SyncPriority.USER, order));
+        awaitWaiting(user);
+
+        permits.release();
+        background.join(TimeUnit.SECONDS.toMillis(5));
+        user.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertEquals(List.of(SyncPriority.USER, SyncPriority.BACKGROUND), order);
+    }
+
+    @Test
+    void testPriorityPermits_NeverExceedsLimit() throws InterruptedException {
+        SyncConcurrencyLimiter.PriorityPermits permits = new SyncConcurrencyLimiter.PriorityPermits(1);
+        permits.acquire(SyncPriority.BACKGROUND);
+
+        Thread user = Thread.ofVirtual().start(() -> {
+            try {
+                permits.acquire(SyncPriority.USER);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        awaitWaiting(user);
+
+        // The user lane jumps the queue but still waits for a free permit
+        assertTrue(user.isAlive());
+        user.interrupt();
+        user.join();
+    }
+
+    private void acquireAndRecord(SyncConcurrencyLimiter.PriorityPermits permits, SyncPriority priority,
+                                  List<SyncPriority> order) {
+        try {
+            permits.acquire(priority);
+            order.add(priority);
+            permits.release();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+    }
+}
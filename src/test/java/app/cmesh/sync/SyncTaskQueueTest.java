@@ -0,0 +1,87 @@
+package app.cmesh.sync;
+
+import app.cmesh.observability.MetricsService;
+import app.cmesh.sync.repository.SyncTaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SyncTaskQueueTest {
+
+    @Mock
+    private SyncTaskRepository taskRepository;
+    @Mock
+    private MetricsService metricsService;
+
+    private SyncProperties properties;
+    private SyncTaskQueue taskQueue;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SyncProperties();
+        properties.setNodeId("node-a");
+        taskQueue = new SyncTaskQueue(taskRepository, properties, metricsService);
+    }
+
+    private SyncTask task() {
+        SyncTask task = new SyncTask();
+        task.setTaskId(UUID.randomUUID());
+        task.setCredentialId(UUID.randomUUID());
+        task.setTaskType(SyncTaskType.RESOURCE);
+        return task;
+    }
+
+    private void claim(SyncTask... tasks) {
+        when(taskRepository.claimDue(eq(SyncTaskType.RESOURCE), eq("node-a"), any(), anyInt(), anyInt(), any()))
+                .thenReturn(List.of(tasks));
+        taskQueue.claim(SyncTaskType.RESOURCE, 10);
+    }
+
+    @Test
+    void testHeartbeat_ExtendsHeldTasksWithinDeadline() {
+        SyncTask running = task();
+        SyncTask waiting = task();
+        claim(running, waiting);
+        taskQueue.limitHeartbeats(running, Duration.ofMinutes(10));
+
+        taskQueue.heartbeat();
+
+        verify(taskRepository).heartbeat(eq("node-a"),
+                argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(running.getTaskId(), waiting.getTaskId()))),
+                eq(properties.getLeaseDuration()));
+    }
+
+    @Test
+    void testHeartbeat_StopsOncePastDeadline() {
+        SyncTask stuck = task();
+        SyncTask running = task();
+        claim(stuck, running);
+        taskQueue.limitHeartbeats(stuck, Duration.ZERO);
+
+        taskQueue.heartbeat();
+
+        verify(taskRepository).heartbeat("node-a", List.of(running.getTaskId()), properties.getLeaseDuration());
+    }
+
+    @Test
+    void testHeartbeat_ReleasedTaskIsNotExtended() {
+        SyncTask done = task();
+        claim(done);
+        taskQueue.release(done, Instant.now());
+
+        taskQueue.heartbeat();
+
+        verify(taskRepository, never()).heartbeat(any(), any(), any());
+    }
+}
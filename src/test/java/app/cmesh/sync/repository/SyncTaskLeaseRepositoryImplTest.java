@@ -0,0 +1,137 @@
+package app.cmesh.sync.repository;
+
+import app.cmesh.TestDatabase;
+import app.cmesh.sync.SyncTask;
+import app.cmesh.sync.SyncTaskType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class SyncTaskLeaseRepositoryImplTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = TestDatabase.container();
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private JdbcTemplate jdbcTemplate;
+    private SyncTaskLeaseRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = TestDatabase.reset(postgres);
+        repository = new SyncTaskLeaseRepositoryImpl(jdbcTemplate);
+    }
+
+    private List<UUID> dueTasks(UUID userId, int count) {
+        List<UUID> credentialIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID credentialId = TestDatabase.insertCredential(jdbcTemplate, userId);
+            jdbcTemplate.update("""
+                    INSERT INTO sync_tasks (task_id, credential_id, task_type, due_at)
+                    VALUES (gen_random_uuid(), ?, 'RESOURCE', now() - make_interval(secs => ?))
+                    """, credentialId, count - i);
+            credentialIds.add(credentialId);
+        }
+        return credentialIds;
+    }
+
+    private void leasedTasks(UUID userId, int count) {
+        for (int i = 0; i < count; i++) {
+            UUID credentialId = TestDatabase.insertCredential(jdbcTemplate, userId);
+            jdbcTemplate.update("""
+                    INSERT INTO sync_tasks (task_id, credential_id, task_type, due_at, lease_owner, lease_expires_at)
+                    VALUES (gen_random_uuid(), ?, 'RESOURCE', now(), 'node-b', now() + interval '5 minutes')
+                    """, credentialId);
+        }
+    }
+
+    private static long claimedFrom(List<SyncTask> claimed, List<UUID> credentialIds) {
+        return claimed.stream().filter(task -> credentialIds.contains(task.getCredentialId())).count();
+    }
+
+    @Test
+    void testClaimDue_InterleavesTenantsEqually() {
+        List<UUID> first = dueTasks(TestDatabase.insertUser(jdbcTemplate), 4);
+        List<UUID> second = dueTasks(TestDatabase.insertUser(jdbcTemplate), 4);
+
+        List<SyncTask> claimed = repository.claimDue(SyncTaskType.RESOURCE, "node-a", LEASE, 4, 8, Map.of());
+
+        assertEquals(4, claimed.size());
+        assertEquals(2, claimedFrom(claimed, first));
+        assertEquals(2, claimedFrom(claimed, second));
+        assertTrue(claimed.stream().allMatch(task -> "node-a".equals(task.getLeaseOwner())));
+    }
+
+    @Test
+    void testClaimDue_HeavierTenantGetsMoreSlots() {
+        UUID heavy = TestDatabase.insertUser(jdbcTemplate);
+        List<UUID> first = dueTasks(heavy, 6);
+        List<UUID> second = dueTasks(TestDatabase.insertUser(jdbcTemplate), 6);
+
+        List<SyncTask> claimed = repository.claimDue(SyncTaskType.RESOURCE, "node-a", LEASE, 6, 8,
+                Map.of(heavy, 2.0));
+
+        assertEquals(4, claimedFrom(claimed, first));
+        assertEquals(2, claimedFrom(claimed, second));
+    }
+
+    @Test
+    void testClaimDue_FillsFreeSlotsPastTheTenantLimitWhenNoOneElseWaits() {
+        List<UUID> only = dueTasks(TestDatabase.insertUser(jdbcTemplate), 5);
+
+        List<SyncTask> claimed = repository.claimDue(SyncTaskType.RESOURCE, "node-a", LEASE, 5, 2, Map.of());
+
+        assertEquals(5, claimedFrom(claimed, only));
+    }
+
+    @Test
+    void testClaimDue_TenantPastItsLimitYieldsToOthers() {
+        UUID busy = TestDatabase.insertUser(jdbcTemplate);
+        leasedTasks(busy, 2);
+        List<UUID> first = dueTasks(busy, 3);
+        List<UUID> second = dueTasks(TestDatabase.insertUser(jdbcTemplate), 2);
+
+        List<SyncTask> claimed = repository.claimDue(SyncTaskType.RESOURCE, "node-a", LEASE, 3, 2, Map.of());
+
+        assertEquals(2, claimedFrom(claimed, second));
+        assertEquals(1, claimedFrom(claimed, first));
+    }
+
+    @Test
+    void testClaimDue_SkipsTasksLeasedOrNotYetDue() {
+        UUID userId = TestDatabase.insertUser(jdbcTemplate);
+        leasedTasks(userId, 1);
+        UUID later = TestDatabase.insertCredential(jdbcTemplate, userId);
+        jdbcTemplate.update("""
+                INSERT INTO sync_tasks (task_id, credential_id, task_type, due_at)
+                VALUES (gen_random_uuid(), ?, 'RESOURCE', now() + interval '1 hour')
+                """, later);
+        List<UUID> due = dueTasks(userId, 1);
+
+        List<SyncTask> claimed = repository.claimDue(SyncTaskType.RESOURCE, "node-a", LEASE, 10, 8, Map.of());
+
+        assertEquals(1, claimed.size());
+        assertEquals(due.getFirst(), claimed.getFirst().getCredentialId());
+    }
+
+    @Test
+    void testClaimDue_SecondClaimFindsNothingLeft() {
+        dueTasks(TestDatabase.insertUser(jdbcTemplate), 2);
+
+        assertEquals(2, repository.claimDue(SyncTaskType.RESOURCE, "node-a", LEASE, 10, 8, Map.of()).size());
+        assertTrue(repository.claimDue(SyncTaskType.RESOURCE, "node-b", LEASE, 10, 8, Map.of()).isEmpty());
+    }
+}